@@ -0,0 +1,73 @@
+package algs.sort;
+
+import com.tesladodger.dodgerlib.algs.sort.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sorts a direct buffer of random ints in place, against copying it to an array, sorting the
+ * array and copying it back, both through BufferSort.sortViaArray and by hand. Each benchmark first
+ * restores the buffer from the same source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferSortBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"NATIVE", "BIG_ENDIAN"})
+    public String order;
+
+    private int[] source;
+    private IntBuffer buffer;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        source = new int[size];
+        for (int i = 0; i < size; i++) source[i] = ran.nextInt();
+        ByteOrder byteOrder = order.equals("NATIVE")
+                ? ByteOrder.nativeOrder()
+                : ByteOrder.BIG_ENDIAN;
+        buffer = ByteBuffer.allocateDirect(size * Integer.BYTES).order(byteOrder).asIntBuffer();
+    }
+
+    @Benchmark
+    public IntBuffer sort () {
+        buffer.clear();
+        buffer.put(source).flip();
+        BufferSort.sort(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public IntBuffer viaArray () {
+        buffer.clear();
+        buffer.put(source).flip();
+        BufferSort.sortViaArray(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public IntBuffer copied () {
+        buffer.clear();
+        buffer.put(source).flip();
+        int[] array = new int[size];
+        buffer.get(array).flip();
+        DualPivotQuickSort.sort(array);
+        buffer.put(array).flip();
+        return buffer;
+    }
+
+}
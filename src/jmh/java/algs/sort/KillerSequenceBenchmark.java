@@ -0,0 +1,103 @@
+package algs.sort;
+
+import com.tesladodger.dodgerlib.algs.sort.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Sorts inputs built to drive the quicksorts into their worst case, next to random input of the
+ * same size. With the heap sort fallback, the killer sequences should cost a small constant
+ * times the random ones, instead of growing quadratically.
+ * The killers are built with McIlroy's adversary ("A Killer Adversary for Quicksort"): the
+ * values are decided lazily during a sort of indices, always so that the pivot candidate is
+ * as small as possible. Sorting the resulting values makes the same decisions again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KillerSequenceBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private int[] random;
+    private int[] quickSortKiller;
+    private int[] dualPivotKiller;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        random = new int[size];
+        for (int i = 0; i < size; i++) random[i] = ran.nextInt();
+
+        quickSortKiller = killer(size, QuickSort::sort);
+        dualPivotKiller = killer(size, DualPivotQuickSort::sort);
+    }
+
+    /**
+     * Builds a killer sequence for a sort.
+     *
+     * @param n length;
+     * @param sort comparator based version of the sort;
+     *
+     * @return values that make the sort do the most work;
+     */
+    private static int[] killer (int n, BiConsumer<Integer[], Comparator<Integer>> sort) {
+        int gas = n;  // Undecided, greater than every decided value.
+        int[] values = new int[n];
+        Arrays.fill(values, gas);
+        int[] state = new int[2];  // Next decided value and the pivot candidate.
+
+        Integer[] indices = new Integer[n];
+        for (int i = 0; i < n; i++) indices[i] = i;
+
+        sort.accept(indices, (x, y) -> {
+            if (values[x] == gas && values[y] == gas) {
+                if (x == state[1]) values[x] = state[0]++;
+                else values[y] = state[0]++;
+            }
+            if (values[x] == gas) state[1] = x;
+            else if (values[y] == gas) state[1] = y;
+            return Integer.compare(values[x], values[y]);
+        });
+        return values;
+    }
+
+    @Benchmark
+    public int[] quickSortRandom () {
+        int[] array = random.clone();
+        QuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] quickSortKiller () {
+        int[] array = quickSortKiller.clone();
+        QuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] dualPivotRandom () {
+        int[] array = random.clone();
+        DualPivotQuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] dualPivotKiller () {
+        int[] array = dualPivotKiller.clone();
+        DualPivotQuickSort.sort(array);
+        return array;
+    }
+
+}
@@ -0,0 +1,190 @@
+package algs.sort;
+
+import com.tesladodger.dodgerlib.algs.sort.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares the sorting algorithms with the JDK, over several input sizes and distributions.
+ * Each benchmark sorts a fresh copy of the same input, so the copy is part of every score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    /** Shape of the input. */
+    public enum Distribution {RANDOM, SORTED, REVERSED, FEW_UNIQUE, NEARLY_SORTED}
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED"})
+    public Distribution distribution;
+
+    private int[] source;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        source = new int[size];
+        for (int i = 0; i < size; i++) {
+            switch (distribution) {
+                case RANDOM: source[i] = ran.nextInt(); break;
+                case SORTED: source[i] = i; break;
+                case REVERSED: source[i] = size - i; break;
+                case FEW_UNIQUE: source[i] = ran.nextInt(16); break;
+                case NEARLY_SORTED: source[i] = i; break;
+            }
+        }
+        // Sorted, with one in a hundred elements swapped with a random one.
+        if (distribution == Distribution.NEARLY_SORTED) {
+            for (int i = 0; i < size / 100; i++) {
+                int a = ran.nextInt(size), b = ran.nextInt(size);
+                int t = source[a]; source[a] = source[b]; source[b] = t;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] quickSort () {
+        int[] array = source.clone();
+        QuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] dualPivotQuickSort () {
+        int[] array = source.clone();
+        DualPivotQuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] quickSortBlock () {
+        int[] array = source.clone();
+        QuickSort.sort(array, PartitionScheme.BLOCK);
+        return array;
+    }
+
+    @Benchmark
+    public int[] dualPivotQuickSortBlock () {
+        int[] array = source.clone();
+        DualPivotQuickSort.sort(array, PartitionScheme.BLOCK);
+        return array;
+    }
+
+    @Benchmark
+    public int[] quickSortKeyValue () {
+        int[] array = source.clone();
+        int[] values = Permutation.identity(size);
+        QuickSort.sort(array, values);
+        return values;
+    }
+
+    @Benchmark
+    public int[] mergeSort () {
+        int[] array = source.clone();
+        MergeSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] mergeSortKeyValue () {
+        int[] array = source.clone();
+        int[] values = Permutation.identity(size);
+        MergeSort.sort(array, values);
+        return values;
+    }
+
+    @Benchmark
+    public int[] multiThreadSort () {
+        int[] array = source.clone();
+        MultiThreadSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] naturalMergeSort () {
+        int[] array = source.clone();
+        NaturalMergeSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelQuickSort () {
+        int[] array = source.clone();
+        ParallelQuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelMergeSort () {
+        int[] array = source.clone();
+        ParallelMergeSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelSampleSort () {
+        int[] array = source.clone();
+        ParallelSampleSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] radixSort () {
+        int[] array = source.clone();
+        RadixSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] radixSortInPlace () {
+        int[] array = source.clone();
+        RadixSort.sortInPlace(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelRadixSort () {
+        int[] array = source.clone();
+        RadixSort.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int select () {
+        int[] array = source.clone();
+        return QuickSort.select(array, size >>> 1);
+    }
+
+    @Benchmark
+    public int[] partialSort () {
+        int[] array = source.clone();
+        QuickSort.partialSort(array, 100);
+        return array;
+    }
+
+    @Benchmark
+    public int[] jdkSort () {
+        int[] array = source.clone();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] jdkParallelSort () {
+        int[] array = source.clone();
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+}
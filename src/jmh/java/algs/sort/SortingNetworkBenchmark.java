@@ -0,0 +1,76 @@
+package algs.sort;
+
+import com.tesladodger.dodgerlib.algs.sort.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sorts many small ranges of random ints with the sorting networks and with insertion sort, the
+ * leaf kernel of the quicksorts, to choose the length below which the quicksorts use the
+ * networks. Each benchmark sorts a fresh copy of {@link #CHUNKS} consecutive ranges.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortingNetworkBenchmark {
+
+    private static final int CHUNKS = 1024;
+
+    @Param({"2", "4", "6", "8", "10", "12", "14", "16"})
+    public int size;
+
+    private int[] source;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        source = new int[size * CHUNKS];
+        for (int i = 0; i < source.length; i++) source[i] = ran.nextInt();
+    }
+
+    /**
+     * Same as the insertion sort of the quicksorts.
+     */
+    private static void insertionSort (int[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            int ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j + 1] = array[j];
+                if (j-- == low) break;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    @Benchmark
+    public int[] network () {
+        int[] array = source.clone();
+        for (int i = 0; i < array.length; i += size)
+            SortingNetworks.sort(array, i, i + size);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertion () {
+        int[] array = source.clone();
+        for (int i = 0; i < array.length; i += size)
+            insertionSort(array, i, i + size - 1);
+        return array;
+    }
+
+    @Benchmark
+    public int[] jdk () {
+        int[] array = source.clone();
+        for (int i = 0; i < array.length; i += size)
+            Arrays.sort(array, i, i + size);
+        return array;
+    }
+
+}
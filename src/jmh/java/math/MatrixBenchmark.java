@@ -0,0 +1,66 @@
+package math;
+
+import com.tesladodger.dodgerlib.math.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link Matrix#multiplication} with a plain loop over arrays in i-k-j order, since the
+ * JDK has no matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+
+    @Param({"16", "128", "512"})
+    public int size;
+
+    private double[][] a;
+
+    private double[][] b;
+
+    private Matrix A;
+
+    private Matrix B;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        a = new double[size][size];
+        b = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                a[i][j] = ran.nextDouble();
+                b[i][j] = ran.nextDouble();
+            }
+        }
+        A = new Matrix(a);
+        B = new Matrix(b);
+    }
+
+    @Benchmark
+    public Matrix multiplication () {
+        return Matrix.multiplication(A, B);
+    }
+
+    @Benchmark
+    public double[][] baseline () {
+        double[][] c = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int k = 0; k < size; k++) {
+                double aik = a[i][k];
+                for (int j = 0; j < size; j++)
+                    c[i][j] += aik * b[k][j];
+            }
+        }
+        return c;
+    }
+
+}
@@ -0,0 +1,73 @@
+package structures;
+
+import com.tesladodger.dodgerlib.structures.HashTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link HashTable} with {@link HashMap}: filling a table and looking up every key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] keys;
+
+    private HashTable<Integer, Integer> table;
+
+    private HashMap<Integer, Integer> map;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        keys = new Integer[size];
+        table = new HashTable<>();
+        map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            keys[i] = ran.nextInt();
+            table.put(keys[i], i);
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> hashTablePut () {
+        HashTable<Integer, Integer> t = new HashTable<>();
+        for (Integer key : keys)
+            t.put(key, key);
+        return t;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapPut () {
+        HashMap<Integer, Integer> m = new HashMap<>();
+        for (Integer key : keys)
+            m.put(key, key);
+        return m;
+    }
+
+    @Benchmark
+    public void hashTableGet (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(table.get(key));
+    }
+
+    @Benchmark
+    public void hashMapGet (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(map.get(key));
+    }
+
+}
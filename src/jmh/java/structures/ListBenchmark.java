@@ -0,0 +1,100 @@
+package structures;
+
+import com.tesladodger.dodgerlib.structures.DynamicArray;
+import com.tesladodger.dodgerlib.structures.LinkedList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link DynamicArray} with {@link ArrayList} and {@link LinkedList} with
+ * {@link java.util.LinkedList}: building a list and iterating over it.
+ * The linked lists are built with addFirst, since add walks the whole list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private DynamicArray<Integer> dynamicArray;
+
+    private ArrayList<Integer> arrayList;
+
+    private LinkedList<Integer> linkedList;
+
+    private java.util.LinkedList<Integer> jdkLinkedList;
+
+    @Setup
+    public void setup () {
+        dynamicArray = dynamicArrayAdd();
+        arrayList = arrayListAdd();
+        linkedList = linkedListAddFirst();
+        jdkLinkedList = jdkLinkedListAddFirst();
+    }
+
+    @Benchmark
+    public DynamicArray<Integer> dynamicArrayAdd () {
+        DynamicArray<Integer> array = new DynamicArray<>();
+        for (int i = 0; i < size; i++)
+            array.add(i);
+        return array;
+    }
+
+    @Benchmark
+    public ArrayList<Integer> arrayListAdd () {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            list.add(i);
+        return list;
+    }
+
+    @Benchmark
+    public void dynamicArrayGet (Blackhole bh) {
+        for (int i = 0; i < size; i++)
+            bh.consume(dynamicArray.get(i));
+    }
+
+    @Benchmark
+    public void arrayListGet (Blackhole bh) {
+        for (int i = 0; i < size; i++)
+            bh.consume(arrayList.get(i));
+    }
+
+    @Benchmark
+    public LinkedList<Integer> linkedListAddFirst () {
+        LinkedList<Integer> list = new LinkedList<>();
+        for (int i = 0; i < size; i++)
+            list.addFirst(i);
+        return list;
+    }
+
+    @Benchmark
+    public java.util.LinkedList<Integer> jdkLinkedListAddFirst () {
+        java.util.LinkedList<Integer> list = new java.util.LinkedList<>();
+        for (int i = 0; i < size; i++)
+            list.addFirst(i);
+        return list;
+    }
+
+    @Benchmark
+    public void linkedListIterate (Blackhole bh) {
+        for (Integer i : linkedList)
+            bh.consume(i);
+    }
+
+    @Benchmark
+    public void jdkLinkedListIterate (Blackhole bh) {
+        for (Integer i : jdkLinkedList)
+            bh.consume(i);
+    }
+
+}
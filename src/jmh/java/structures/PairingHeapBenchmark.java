@@ -0,0 +1,55 @@
+package structures;
+
+import com.tesladodger.dodgerlib.structures.PairingHeap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link PairingHeap} with {@link PriorityQueue}: inserting random keys and popping
+ * all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairingHeapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] keys;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = ran.nextInt();
+    }
+
+    @Benchmark
+    public void pairingHeap (Blackhole bh) {
+        PairingHeap<Integer, Integer> heap = new PairingHeap<>();
+        for (Integer key : keys)
+            heap.insert(key, key);
+        while (!heap.isEmpty())
+            bh.consume(heap.pop());
+    }
+
+    @Benchmark
+    public void priorityQueue (Blackhole bh) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        for (Integer key : keys)
+            queue.add(key);
+        while (!queue.isEmpty())
+            bh.consume(queue.poll());
+    }
+
+}
@@ -0,0 +1,157 @@
+package structures;
+
+import com.tesladodger.dodgerlib.structures.BPlusTree;
+import com.tesladodger.dodgerlib.structures.BinaryTree;
+import com.tesladodger.dodgerlib.structures.RedBlackTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Compares {@link RedBlackTree}, {@link BPlusTree} and {@link BinaryTree} with {@link TreeMap}:
+ * inserting random keys, finding every key and iterating in order. Also ranks and selects every
+ * key of the red-black tree, which keeps the subtree sizes, and builds it from sorted keys, in
+ * bulk and one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] keys;
+
+    private Integer[] sortedKeys;
+
+    private RedBlackTree<Integer, Integer> redBlackTree;
+
+    private BPlusTree<Integer, Integer> bPlusTree;
+
+    private BinaryTree<Integer, Integer> binaryTree;
+
+    private TreeMap<Integer, Integer> treeMap;
+
+    @Setup
+    public void setup () {
+        Random ran = new Random(42);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = ran.nextInt();
+        sortedKeys = new TreeSet<>(Arrays.asList(keys)).toArray(new Integer[0]);
+        redBlackTree = redBlackTreeInsert();
+        bPlusTree = bPlusTreeInsert();
+        binaryTree = binaryTreeInsert();
+        treeMap = treeMapInsert();
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer, Integer> redBlackTreeInsert () {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<>();
+        for (Integer key : keys)
+            tree.insert(key, key);
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer, Integer> redBlackTreeInsertSorted () {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<>();
+        for (Integer key : sortedKeys)
+            tree.insert(key, key);
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer, Integer> redBlackTreeFromSorted () {
+        return RedBlackTree.fromSorted(sortedKeys, sortedKeys);
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> bPlusTreeInsert () {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>();
+        for (Integer key : keys)
+            tree.insert(key, key);
+        return tree;
+    }
+
+    @Benchmark
+    public BinaryTree<Integer, Integer> binaryTreeInsert () {
+        BinaryTree<Integer, Integer> tree = new BinaryTree<>();
+        for (Integer key : keys)
+            tree.insert(key, key);
+        return tree;
+    }
+
+    @Benchmark
+    public TreeMap<Integer, Integer> treeMapInsert () {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (Integer key : keys)
+            map.put(key, key);
+        return map;
+    }
+
+    @Benchmark
+    public void redBlackTreeFind (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(redBlackTree.find(key));
+    }
+
+    @Benchmark
+    public void bPlusTreeFind (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(bPlusTree.find(key));
+    }
+
+    @Benchmark
+    public void binaryTreeFind (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(binaryTree.find(key));
+    }
+
+    @Benchmark
+    public void treeMapFind (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(treeMap.get(key));
+    }
+
+    @Benchmark
+    public void redBlackTreeRank (Blackhole bh) {
+        for (Integer key : keys)
+            bh.consume(redBlackTree.rank(key));
+    }
+
+    @Benchmark
+    public void redBlackTreeSelect (Blackhole bh) {
+        for (int k = 0; k < redBlackTree.size(); k++)
+            bh.consume(redBlackTree.select(k));
+    }
+
+    @Benchmark
+    public void redBlackTreeIterate (Blackhole bh) {
+        for (Integer value : redBlackTree)
+            bh.consume(value);
+    }
+
+    @Benchmark
+    public void bPlusTreeIterate (Blackhole bh) {
+        for (Integer value : bPlusTree)
+            bh.consume(value);
+    }
+
+    @Benchmark
+    public void treeMapIterate (Blackhole bh) {
+        for (Integer value : treeMap.values())
+            bh.consume(value);
+    }
+
+}
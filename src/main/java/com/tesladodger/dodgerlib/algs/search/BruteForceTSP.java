@@ -1,14 +1,20 @@
 package com.tesladodger.dodgerlib.algs.search;
 
 import com.tesladodger.dodgerlib.structures.HashTable;
+import com.tesladodger.dodgerlib.structures.IntDoubleHashTable;
 
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
 
 
 /**
  * Solves the Traveling Salesman Problem by checking every possibility (brute force).
  * This assumes every node is connected to every other node in the graph.
  * The returned solution does not contain the start/end node.
+ * The edges can be given as a {@link HashTable} from the neighbor's id to the distance or, when the
+ * ids are Integers, as an {@link IntDoubleHashTable}. Either way, before solving, they're converted
+ * to primitive tables indexed by the neighbor's index, and the permutations are arrays of indexes,
+ * so calculating distances doesn't box or hash the ids.
  *
  * @param <T>
  */
@@ -24,18 +30,39 @@ public class BruteForceTSP<T extends Comparable<T>> {
         /** Table to map the IDs of this node's neighbors to their distance to this node */
         HashTable<T, Double> edges;
 
-        Node (T ID, HashTable<T, Double> edges) {
+        /** Same as edges, for Integer IDs given as primitives */
+        IntDoubleHashTable intEdges;
+
+        /** Unique index of this node, in order of insertion */
+        final int index;
+
+        /** Table to map the index of this node's neighbors to their distance to this node */
+        IntDoubleHashTable weights;
+
+        Node (T ID, HashTable<T, Double> edges, IntDoubleHashTable intEdges) {
             this.ID = ID;
             this.edges = edges;
+            this.intEdges = intEdges;
+            this.index = nodeCount++;
+            nodes.add(this);
         }
     }
 
+    /** Number of nodes created, used to index them. */
+    private int nodeCount;
+
+    /** Every node created, at its index. */
+    private final ArrayList<Node> nodes;
+
     /** Undirected graph. Maps the IDs to the nodes. */
     private final HashTable<T, Node> graph;
 
-    /** Ordered list of IDs, representing the current path. */
+    /** Sorted list of IDs, the first permutation. */
     private final ArrayList<T> list;
 
+    /** Indexes of the nodes in the current path. */
+    private int[] route;
+
     /** Start and end of the TSP. */
     private Node start;
 
@@ -44,6 +71,7 @@ public class BruteForceTSP<T extends Comparable<T>> {
      */
     public BruteForceTSP () {
         graph = new HashTable<>();
+        nodes = new ArrayList<>();
         list = new ArrayList<>();
         start = null;
     }
@@ -55,7 +83,18 @@ public class BruteForceTSP<T extends Comparable<T>> {
      * @param edges of the start;
      */
     public void addStart (T id, HashTable<T, Double> edges) {
-        start = new Node(id, edges);
+        start = new Node(id, edges, null);
+    }
+
+    /**
+     * Creates the start and end node of the TSP, with primitive edges. The keys of the edges are
+     * the ids of the neighbors, so this is meant for Integer ids.
+     *
+     * @param id of the start;
+     * @param edges of the start;
+     */
+    public void addStart (T id, IntDoubleHashTable edges) {
+        start = new Node(id, null, edges);
     }
 
     /**
@@ -66,7 +105,29 @@ public class BruteForceTSP<T extends Comparable<T>> {
      */
     public void addNode (T id, HashTable<T, Double> edges) {
         if (id == null || edges == null) throw new NullPointerException();
-        graph.put(id, new Node(id, edges));
+        graph.put(id, new Node(id, edges, null));
+        addToList(id);
+    }
+
+    /**
+     * Adds a new node with primitive edges to the graph and the list. The keys of the edges are
+     * the ids of the neighbors, so this is meant for Integer ids.
+     *
+     * @param id of the new node;
+     * @param edges of the new node;
+     */
+    public void addNode (T id, IntDoubleHashTable edges) {
+        if (id == null || edges == null) throw new NullPointerException();
+        graph.put(id, new Node(id, null, edges));
+        addToList(id);
+    }
+
+    /**
+     * Inserts an id in the list, maintaining a sorted state.
+     *
+     * @param id of the new node;
+     */
+    private void addToList (T id) {
         if (list.isEmpty()) {
             list.add(id);
             return;
@@ -101,67 +162,135 @@ public class BruteForceTSP<T extends Comparable<T>> {
     }
 
     /**
-     * Changes the list to the next permutation in its lexicographic order.
+     * Compares the ids of the nodes at two positions of the route.
+     *
+     * @param i position;
+     * @param j position;
+     *
+     * @return whether the id at i is smaller than the one at j;
+     */
+    private boolean less (int i, int j) {
+        return nodes.get(route[i]).ID.compareTo(nodes.get(route[j]).ID) < 0;
+    }
+
+    /**
+     * Changes the route to the next permutation in the lexicographic order of the ids.
      * https://www.quora.com/How-would-you-explain-an-algorithm-that-generates-permutations-using-lexicographic-ordering
      */
     private void nextPermutation () {
         // Find largest x such that P[x]<P[x+1].
         int x = -1;
-        for (int i = 0; i < list.size()-1; i++) {
-            if (list.get(i).compareTo(list.get(i+1)) < 0) {
+        for (int i = 0; i < route.length-1; i++) {
+            if (less(i, i+1)) {
                 x = i;
             }
         }
 
         // Find the largest y such that P[x]<P[y].
         int y = 0;
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(x).compareTo(list.get(i)) < 0) {
+        for (int i = 0; i < route.length; i++) {
+            if (less(x, i)) {
                 y = i;
             }
         }
 
         // Swap P[x] and P[y].
-        T temp = list.get(x);
-        list.set(x, list.get(y));
-        list.set(y, temp);
+        int temp = route[x];
+        route[x] = route[y];
+        route[y] = temp;
 
         // Reverse P[x+1 .. n].
         int i = x+1;
-        int j = list.size()-1;
+        int j = route.length-1;
         while (i < j) {
-            T t = list.get(i);
-            list.set(i, list.get(j));
-            list.set(j, t);
+            int t = route[i];
+            route[i] = route[j];
+            route[j] = t;
             i++; j--;
         }
     }
 
+    /**
+     * Finds the node with an id, which may be the start.
+     *
+     * @param id of the node;
+     *
+     * @return node or null if there's no such node;
+     */
+    private Node lookup (T id) {
+        return id.equals(start.ID) ? start : graph.get(id);
+    }
+
+    /**
+     * Converts the edges of a node to a primitive table indexed by the neighbors' indexes.
+     *
+     * @param node whose edges are converted;
+     */
+    @SuppressWarnings("unchecked")
+    private void indexEdges (Node node) {
+        node.weights = new IntDoubleHashTable(nodeCount * 2);
+        if (node.edges != null) {
+            for (T id : node.edges.keys()) {
+                Node n = lookup(id);
+                if (n != null) node.weights.put(n.index, node.edges.get(id));
+            }
+        } else {
+            int[] ids = node.intEdges.keys();
+            double[] distances = node.intEdges.values();
+            for (int i = 0; i < ids.length; i++) {
+                Node n = lookup((T) Integer.valueOf(ids[i]));
+                if (n != null) node.weights.put(n.index, distances[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the distance from a node to another.
+     *
+     * @param from node;
+     * @param to index of the other node;
+     *
+     * @return distance;
+     *
+     * @throws NoSuchElementException if there's no edge between them;
+     */
+    private double weight (Node from, int to) {
+        double w = from.weights.getOrDefault(to, Double.NaN);
+        if (Double.isNaN(w))
+            throw new NoSuchElementException("No edge from " + from.ID + " to " + nodes.get(to).ID);
+        return w;
+    }
+
     /**
      * Calculates the total distance of the current permutation.
      *
      * @return distance;
      */
     private double calculateDistance () {
-        //T current = start.ID;
-        double distance = start.edges.get(list.get(0));
-        T current = list.get(0);
-        for (int i = 1; i < list.size(); i++) {
-            // I know this is disgusting, let me explain:
-            //   - Check the graph for the current node;
-            //   - list.get(i) is the id of the next node;
-            //   - In the edges list of the current node, find that id;
-            //   - Add the distance to that node;
-            //   - Update the current node id;
-            Node c = graph.get(current);
-            distance += c.edges.get(list.get(i));
-            current = list.get(i);
+        Node current = start;
+        double distance = 0;
+        for (int index : route) {
+            // Add the distance to the next node.
+            distance += weight(current, index);
+            current = nodes.get(index);
         }
         // Add the distance from the last node to the start.
-        distance += graph.get(current).edges.get(start.ID);
+        distance += weight(current, start.index);
         return distance;
     }
 
+    /**
+     * Converts the current route to the ids of its nodes.
+     *
+     * @return list of ids;
+     */
+    private ArrayList<T> routeIds () {
+        ArrayList<T> ids = new ArrayList<>(route.length);
+        for (int index : route)
+            ids.add(nodes.get(index).ID);
+        return ids;
+    }
+
     /**
      * Main method. Checks which permutation has the smallest distance and returns the solution.
      *
@@ -170,12 +299,20 @@ public class BruteForceTSP<T extends Comparable<T>> {
     public ArrayList<T> solve () {
         if (start == null) throw new NullPointerException("Start node cannot be null.");
 
+        indexEdges(start);
+        route = new int[list.size()];
+        for (int i = 0; i < route.length; i++) {
+            Node node = graph.get(list.get(i));
+            indexEdges(node);
+            route[i] = node.index;
+        }
+
         // Number of permutations is the factorial of the size of the list.
         long totalPerms = 1;
-        for (int i = 2; i <= list.size(); i++)
+        for (int i = 2; i <= route.length; i++)
             totalPerms *= i;
 
-        ArrayList<T> solution = new ArrayList<>(list);
+        ArrayList<T> solution = routeIds();
         double shortestDistance = calculateDistance();
         // Find the permutation with the shortest distance.
         while (totalPerms > 1) {
@@ -183,7 +320,7 @@ public class BruteForceTSP<T extends Comparable<T>> {
             double currentDistance = calculateDistance();
             if (currentDistance < shortestDistance) {
                 shortestDistance = currentDistance;
-                solution = new ArrayList<>(list);
+                solution = routeIds();
             }
             totalPerms--;
         }
@@ -1,15 +1,19 @@
 package com.tesladodger.dodgerlib.algs.search;
 
 import com.tesladodger.dodgerlib.structures.HashTable;
+import com.tesladodger.dodgerlib.structures.IntDoubleHashTable;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 
 /**
  * Solves the Traveling Salesman Problem using a genetic algorithm.
  * The population is a list of permutations.
+ * As in {@link BruteForceTSP}, the edges can also be given as an {@link IntDoubleHashTable} when
+ * the ids are Integers, and are indexed into primitive tables before solving. The permutations are
+ * arrays of the indexes of the nodes.
  *
  * @param <T>
  */
@@ -21,8 +25,8 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
     /** Probability of random mutation. */
     private static final double mutationRate = 0.4d;
 
-    /** Array with the ordered IDs */
-    private ArrayList<T>[] population = new ArrayList[POPULATION_SIZE];
+    /** Array with the ordered indexes of the nodes. */
+    private int[][] population = new int[POPULATION_SIZE][];
 
     /** Contains the fitness of the element in the population with the same index. */
     private final Double[] fitness = new Double[POPULATION_SIZE];
@@ -41,13 +45,28 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
         T ID;
         /* Table to map the IDs of this node's neighbors to their distance to this node */
         HashTable<T, Double> edges;
-
-        Node (T ID, HashTable<T, Double> edges) {
+        /* Same as edges, for Integer IDs given as primitives */
+        IntDoubleHashTable intEdges;
+        /* Unique index of this node, in order of insertion */
+        final int index;
+        /* Table to map the index of this node's neighbors to their distance to this node */
+        IntDoubleHashTable weights;
+
+        Node (T ID, HashTable<T, Double> edges, IntDoubleHashTable intEdges) {
             this.ID = ID;
             this.edges = edges;
+            this.intEdges = intEdges;
+            this.index = nodeCount++;
+            nodes.add(this);
         }
     }
 
+    /** Number of nodes created, used to index them. */
+    private int nodeCount;
+
+    /** Every node created, at its index. */
+    private final ArrayList<Node> nodes;
+
     /** Undirected graph. Maps the IDs to the nodes for lookup. */
     private final HashTable<T, Node> graph;
 
@@ -65,6 +84,7 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
      */
     public GeneticAlgTSP () {
         graph = new HashTable<>();
+        nodes = new ArrayList<>();
         list = new ArrayList<>();
         start = null;
         currentBest = Double.POSITIVE_INFINITY;
@@ -80,7 +100,19 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
      */
     public void addStart (T id, HashTable<T, Double> edges) {
         if (id == null) throw new NullPointerException("Start id cannot be null.");
-        start = new Node(id, edges);
+        start = new Node(id, edges, null);
+    }
+
+    /**
+     * Creates the start and end node of the TSP, with primitive edges. The keys of the edges are
+     * the ids of the neighbors, so this is meant for Integer ids.
+     *
+     * @param id of the start;
+     * @param edges of the start;
+     */
+    public void addStart (T id, IntDoubleHashTable edges) {
+        if (id == null) throw new NullPointerException("Start id cannot be null.");
+        start = new Node(id, null, edges);
     }
 
     /**
@@ -92,35 +124,109 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
     public void addNode (T id, HashTable<T, Double> edges) {
         if (id == null || edges == null) throw new NullPointerException("A node cannot have " +
                 "null values.");
-        graph.put(id, new Node(id, edges));
+        graph.put(id, new Node(id, edges, null));
         list.add(id);
     }
 
+    /**
+     * Adds a new node with primitive edges to the graph and the list. The keys of the edges are
+     * the ids of the neighbors, so this is meant for Integer ids.
+     *
+     * @param id of the new node;
+     * @param edges of the new node;
+     */
+    public void addNode (T id, IntDoubleHashTable edges) {
+        if (id == null || edges == null) throw new NullPointerException("A node cannot have " +
+                "null values.");
+        graph.put(id, new Node(id, null, edges));
+        list.add(id);
+    }
+
+    /**
+     * Finds the node with an id, which may be the start.
+     *
+     * @param id of the node;
+     *
+     * @return node or null if there's no such node;
+     */
+    private Node lookup (T id) {
+        return id.equals(start.ID) ? start : graph.get(id);
+    }
+
+    /**
+     * Converts the edges of a node to a primitive table indexed by the neighbors' indexes.
+     *
+     * @param node whose edges are converted;
+     */
+    @SuppressWarnings("unchecked")
+    private void indexEdges (Node node) {
+        node.weights = new IntDoubleHashTable(nodeCount * 2);
+        if (node.edges != null) {
+            for (T id : node.edges.keys()) {
+                Node n = lookup(id);
+                if (n != null) node.weights.put(n.index, node.edges.get(id));
+            }
+        } else {
+            int[] ids = node.intEdges.keys();
+            double[] distances = node.intEdges.values();
+            for (int i = 0; i < ids.length; i++) {
+                Node n = lookup((T) Integer.valueOf(ids[i]));
+                if (n != null) node.weights.put(n.index, distances[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the distance from a node to another.
+     *
+     * @param from node;
+     * @param to index of the other node;
+     *
+     * @return distance;
+     *
+     * @throws NoSuchElementException if there's no edge between them;
+     */
+    private double weight (Node from, int to) {
+        double w = from.weights.getOrDefault(to, Double.NaN);
+        if (Double.isNaN(w))
+            throw new NoSuchElementException("No edge from " + from.ID + " to " + nodes.get(to).ID);
+        return w;
+    }
+
     /**
      * Calculates the total distance of a permutation.
      *
+     * @param permutation indexes of the nodes;
+     *
      * @return distance;
      */
-    private double calculateDistance (ArrayList<T> permutation) {
-        //T current = start.ID;
-        double distance = start.edges.get(permutation.get(0));
-        T current = permutation.get(0);
-        for (int i = 1; i < permutation.size(); i++) {
-            // I know this is disgusting, let me explain:
-            //   - Check the graph for the current node;
-            //   - permutation.get(i) is the id of the next node;
-            //   - In the edges permutation of the current node, find that id;
-            //   - Add the distance to that node;
-            //   - Update the current node id;
-            Node c = graph.get(current);
-            distance += c.edges.get(permutation.get(i));
-            current = permutation.get(i);
+    private double calculateDistance (int[] permutation) {
+        Node current = start;
+        double distance = 0;
+        for (int index : permutation) {
+            // Add the distance to the next node.
+            distance += weight(current, index);
+            current = nodes.get(index);
         }
         // Add the distance from the last node to the start.
-        distance += graph.get(current).edges.get(start.ID);
+        distance += weight(current, start.index);
         return distance;
     }
 
+    /**
+     * Converts a permutation to the ids of its nodes.
+     *
+     * @param permutation indexes of the nodes;
+     *
+     * @return list of ids;
+     */
+    private ArrayList<T> ids (int[] permutation) {
+        ArrayList<T> ids = new ArrayList<>(permutation.length);
+        for (int index : permutation)
+            ids.add(nodes.get(index).ID);
+        return ids;
+    }
+
     /**
      * Normalizes the fitness values to a percentage (0 - 1).
      */
@@ -156,13 +262,13 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
      *
      * @return mutated permutation;
      */
-    private ArrayList<T> mutate (ArrayList<T> current) {
+    private int[] mutate (int[] current) {
         if (ran.nextDouble() <= mutationRate) {
-            int i = ran.nextInt(current.size());
-            int j = (i + 1) % current.size();
-            T temp = current.get(i);
-            current.set(i, current.get(j));
-            current.set(j, temp);
+            int i = ran.nextInt(current.length);
+            int j = (i + 1) % current.length;
+            int temp = current[i];
+            current[i] = current[j];
+            current[j] = temp;
         }
         return current;
     }
@@ -175,15 +281,19 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
      *
      * @return list formed from the inputs;
      */
-    private ArrayList<T> crossover (ArrayList<T> a, ArrayList<T> b) {
-        ArrayList<T> child = new ArrayList<>();
+    private int[] crossover (int[] a, int[] b) {
+        int[] child = new int[a.length];
+        boolean[] added = new boolean[nodeCount];
+        int size = 0;
         // Add the first half of 'a' to the child.
-        for (int i = 0; i < a.size() / 2; i++)
-            child.add(a.get(i));
+        for (int i = 0; i < a.length / 2; i++) {
+            child[size++] = a[i];
+            added[a[i]] = true;
+        }
         // Add the elements from 'b' that are not already in the child.
-        for (T elem : b)
-            if (!child.contains(elem))
-                child.add(elem);
+        for (int elem : b)
+            if (!added[elem])
+                child[size++] = elem;
         return child;
     }
 
@@ -195,10 +305,23 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
      * @return list with the nodes that constitute the best path, not including the start node;
      */
     public ArrayList<T> solve (ArrayList<T> solution) {
-        // Create the population.
+        indexEdges(start);
+        int[] indexes = new int[list.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            Node node = graph.get(list.get(i));
+            indexEdges(node);
+            indexes[i] = node.index;
+        }
+
+        // Create the population, shuffling the indexes.
         for (int i = 0; i < POPULATION_SIZE; i++) {
-            Collections.shuffle(list);
-            population[i] = new ArrayList<>(list);
+            for (int j = indexes.length - 1; j > 0; j--) {
+                int k = ran.nextInt(j + 1);
+                int temp = indexes[j];
+                indexes[j] = indexes[k];
+                indexes[k] = temp;
+            }
+            population[i] = indexes.clone();
         }
 
         while (true) {
@@ -213,7 +336,7 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
                     // Check if we found the solution.
                     boolean solutionFound = true;
                     for (int j = 0; j < solution.size(); j++) {
-                        if (!population[i].get(j).equals(solution.get(j))) {
+                        if (!nodes.get(population[i][j]).ID.equals(solution.get(j))) {
                             solutionFound = false;
                             break;
                         }
@@ -222,7 +345,7 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
                         solutionFound = true;
                         int k = 0;
                         for (int j = solution.size() - 1; j >= 0; j--) {
-                            if (!population[i].get(k).equals(solution.get(j))) {
+                            if (!nodes.get(population[i][k]).ID.equals(solution.get(j))) {
                                 solutionFound = false;
                                 break;
                             }
@@ -232,7 +355,7 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
 
                     if (solutionFound) {
                         System.out.println("\nSolution found. \nNumber of generations: " + generation);
-                        return population[i];
+                        return ids(population[i]);
                     }
                 }
                 fitness[i] = 1 / currentDist;
@@ -241,7 +364,7 @@ public class GeneticAlgTSP<T extends Comparable<T>> {
             normalizeFitness();
 
             // Create the next generation.
-            ArrayList<T>[] nextGeneration = new ArrayList[POPULATION_SIZE];
+            int[][] nextGeneration = new int[POPULATION_SIZE][];
             for (int i = 0; i < POPULATION_SIZE; i++) {
                 // Select two 'random' elements, apply crossover, mutate the result and insert it
                 // in the new generation.
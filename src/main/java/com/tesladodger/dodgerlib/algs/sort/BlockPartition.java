@@ -0,0 +1,99 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+
+/**
+ * Branchless block partition of ints around a value. See {@link PartitionScheme#BLOCK}.
+ */
+final class BlockPartition {
+
+    /**
+     * Suppress constructor.
+     */
+    private BlockPartition () {}
+
+    /** Number of elements compared at once on each side. */
+    static final int BLOCK = 128;
+
+    /**
+     * Buffer for the offsets, to be allocated once per sort.
+     *
+     * @return new buffer;
+     */
+    static int[] offsets () {
+        return new int[BLOCK << 1];
+    }
+
+    /**
+     * Partitions a range around a value, which doesn't need to be in it. Elements equal to the
+     * value may end up on either side.
+     * A block at each end of the range is scanned, writing down the offsets of the elements on
+     * the wrong side; the count only grows when the comparison is true, so there's no branch.
+     * Then as many pairs as possible are swapped, and the emptied blocks are refilled. Once
+     * there's less than two blocks left, the rest is partitioned with a normal loop.
+     *
+     * @param array being partitioned;
+     * @param low index;
+     * @param high index;
+     * @param pivot value;
+     * @param offsets buffer of two blocks;
+     *
+     * @return index i such that everything before it is not greater than the pivot, and
+     *         everything from it on is not less;
+     */
+    static int partition (int[] array, int low, int high, int pivot, int[] offsets) {
+        int l = low;
+        int r = high;
+        int startL = 0, numL = 0;
+        int startR = BLOCK, numR = 0;
+
+        while (r - l + 1 > 2 * BLOCK) {
+            if (numL == 0) {
+                startL = 0;
+                for (int i = 0; i < BLOCK; i++) {
+                    offsets[numL] = i;
+                    numL += array[l + i] >= pivot ? 1 : 0;
+                }
+            }
+            if (numR == 0) {
+                startR = BLOCK;
+                for (int i = 0; i < BLOCK; i++) {
+                    offsets[BLOCK + numR] = i;
+                    numR += array[r - i] <= pivot ? 1 : 0;
+                }
+            }
+
+            int num = Math.min(numL, numR);
+            for (int k = 0; k < num; k++) {
+                int a = l + offsets[startL + k];
+                int b = r - offsets[startR + k];
+                int t = array[a];
+                array[a] = array[b];
+                array[b] = t;
+            }
+            numL -= num;
+            numR -= num;
+            startL += num;
+            startR += num;
+
+            if (numL == 0) l += BLOCK;
+            if (numR == 0) r -= BLOCK;
+        }
+
+        // What's left, including any block with pending offsets, is still unpartitioned.
+        int i = l;
+        int j = r;
+        while (i <= j) {
+            if (array[i] < pivot) {
+                i++;
+            } else if (array[j] > pivot) {
+                j--;
+            } else {
+                int t = array[i];
+                array[i++] = array[j];
+                array[j--] = t;
+            }
+        }
+        return i;
+    }
+
+}
@@ -0,0 +1,518 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+
+
+/**
+ * In-place sorts of int and long buffers, such as views of direct or memory mapped byte buffers,
+ * without copying them to the heap. The elements are read and written with the absolute gets and
+ * puts of the buffer, so the byte order of a view is respected.
+ * The algorithm is the same as {@link DualPivotQuickSort}: Yaroslavskiy's partition, with the
+ * pivots taken from five sorted candidates, and heap sort when the recursion gets too deep. The
+ * buffer is partitioned in place until the ranges have at most {@link #CHUNK} elements; each of
+ * those is then copied to a scratch array of that size and sorted there, so at most that many
+ * elements are on the heap at a time.
+ * The sortViaArray methods copy the whole range to an array instead, which is a bit faster when
+ * the heap has room for it.
+ * A view with the native byte order (see {@link java.nio.ByteOrder#nativeOrder()}) is faster,
+ * since the bytes don't have to be swapped on every access.
+ */
+public class BufferSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private BufferSort () {}
+
+    /** Longest range the in place sorts copy to their scratch array. */
+    public static final int CHUNK = 1 << 14;
+
+    /**
+     * Sorts the elements of a buffer of ints between its position and its limit, in place.
+     * Buffers backed by an array are sorted with {@link DualPivotQuickSort} on the array.
+     * The position and the limit are not changed.
+     *
+     * @param buffer to be sorted;
+     *
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only;
+     */
+    public static void sort (IntBuffer buffer) {
+        if (buffer.isReadOnly()) throw new ReadOnlyBufferException();
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to - from <= 1) return;
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            DualPivotQuickSort.sort(buffer.array(), offset + from, offset + to);
+            return;
+        }
+        int[] scratch = new int[Math.min(to - from, CHUNK)];
+        dualPivotQuickSort(buffer, scratch, from, to - 1, SortUtils.depthLimit(to - from));
+    }
+
+    /**
+     * Sorts the elements of a buffer of ints between its position and its limit, by copying them
+     * to an array as long as the range, sorting it with {@link DualPivotQuickSort} and copying it
+     * back. The heap must have room for the copy. The position and the limit are not changed.
+     *
+     * @param buffer to be sorted;
+     *
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only;
+     */
+    public static void sortViaArray (IntBuffer buffer) {
+        if (buffer.isReadOnly()) throw new ReadOnlyBufferException();
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to - from <= 1 || buffer.hasArray()) {
+            sort(buffer);
+            return;
+        }
+        sortRange(buffer, new int[to - from], from, to - 1);
+    }
+
+    /**
+     * Sorts the elements of a buffer of longs between its position and its limit, in place.
+     * Buffers backed by an array are sorted with {@link DualPivotQuickSort} on the array.
+     * The position and the limit are not changed.
+     *
+     * @param buffer to be sorted;
+     *
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only;
+     */
+    public static void sort (LongBuffer buffer) {
+        if (buffer.isReadOnly()) throw new ReadOnlyBufferException();
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to - from <= 1) return;
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset();
+            DualPivotQuickSort.sort(buffer.array(), offset + from, offset + to);
+            return;
+        }
+        long[] scratch = new long[Math.min(to - from, CHUNK)];
+        dualPivotQuickSort(buffer, scratch, from, to - 1, SortUtils.depthLimit(to - from));
+    }
+
+    /**
+     * Sorts the elements of a buffer of longs between its position and its limit, by copying them
+     * to an array as long as the range, sorting it with {@link DualPivotQuickSort} and copying it
+     * back. The heap must have room for the copy. The position and the limit are not changed.
+     *
+     * @param buffer to be sorted;
+     *
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only;
+     */
+    public static void sortViaArray (LongBuffer buffer) {
+        if (buffer.isReadOnly()) throw new ReadOnlyBufferException();
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to - from <= 1 || buffer.hasArray()) {
+            sort(buffer);
+            return;
+        }
+        sortRange(buffer, new long[to - from], from, to - 1);
+    }
+
+    /**
+     * Same as the array version in {@link DualPivotQuickSort}, with absolute gets and puts, down
+     * to ranges that fit the scratch array.
+     *
+     * @param buffer being sorted;
+     * @param scratch array the short ranges are sorted in;
+     * @param low index;
+     * @param high index;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void dualPivotQuickSort (IntBuffer buffer, int[] scratch, int low, int high,
+                                            int depth) {
+        while (high - low >= scratch.length) {
+            if (depth-- == 0) {
+                heapSort(buffer, low, high);
+                return;
+            }
+
+            long pivots = partition(buffer, low, high);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = buffer.get(L - 1) != buffer.get(G + 1);
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(buffer, scratch, L, G, depth);
+                dualPivotQuickSort(buffer, scratch, G + 2, high, depth);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(buffer, scratch, low, L - 2, depth);
+                dualPivotQuickSort(buffer, scratch, G + 2, high, depth);
+                low = L;
+                high = G;
+            } else {
+                dualPivotQuickSort(buffer, scratch, low, L - 2, depth);
+                if (middle) dualPivotQuickSort(buffer, scratch, L, G, depth);
+                low = G + 2;
+            }
+        }
+
+        sortRange(buffer, scratch, low, high);
+    }
+
+    /**
+     * Copies a range to the scratch array, sorts it there and copies it back.
+     *
+     * @param buffer being sorted;
+     * @param scratch array at least as long as the range;
+     * @param low index;
+     * @param high index;
+     */
+    private static void sortRange (IntBuffer buffer, int[] scratch, int low, int high) {
+        int length = high - low + 1;
+        if (length <= 1) return;
+        IntBuffer window = buffer.duplicate();
+        window.limit(high + 1).position(low);
+        window.get(scratch, 0, length);
+        DualPivotQuickSort.sort(scratch, 0, length);
+        window.position(low);
+        window.put(scratch, 0, length);
+    }
+
+    /**
+     * Same as the array version in {@link DualPivotQuickSort}.
+     *
+     * @param buffer being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static long partition (IntBuffer buffer, int low, int high) {
+        int length = high - low + 1;
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;
+        int p2 = mid + fifth;
+
+        sort5Elements(buffer, low, p1, mid, p2, high);
+
+        int pivot1 = buffer.get(p1);
+        int pivot2 = buffer.get(p2);
+
+        buffer.put(p1, buffer.get(low));
+        buffer.put(p2, buffer.get(high));
+
+        int L = low;
+        int G = high;
+
+        // noinspection StatementWithEmptyBody
+        while (buffer.get(++L) < pivot1);
+        // noinspection StatementWithEmptyBody
+        while (buffer.get(--G) > pivot2);
+
+        loop:
+        for (int K = L - 1; ++K <= G;) {
+            int aK = buffer.get(K);
+            if (aK < pivot1) {
+                buffer.put(K, buffer.get(L));
+                buffer.put(L++, aK);
+            } else if (aK > pivot2) {
+                while (buffer.get(G) > pivot2) {
+                    if (G-- == K) break loop;
+                }
+
+                int aG = buffer.get(G);
+                if (aG < pivot1) {
+                    buffer.put(K, buffer.get(L));
+                    buffer.put(L++, aG);
+                } else buffer.put(K, aG);
+
+                buffer.put(G--, aK);
+            }
+        }
+
+        buffer.put(low, buffer.get(L - 1)); buffer.put(L - 1, pivot1);
+        buffer.put(high, buffer.get(G + 1)); buffer.put(G + 1, pivot2);
+
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Sorts the five pivot candidates with a sorting network.
+     *
+     * @param buffer being sorted;
+     * @param e1 index;
+     * @param e2 index;
+     * @param e3 index;
+     * @param e4 index;
+     * @param e5 index;
+     */
+    private static void sort5Elements (IntBuffer buffer, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(buffer, e1, e4); compareExchange(buffer, e2, e5);
+        compareExchange(buffer, e1, e3); compareExchange(buffer, e2, e4);
+        compareExchange(buffer, e1, e2); compareExchange(buffer, e3, e5);
+        compareExchange(buffer, e2, e3); compareExchange(buffer, e4, e5);
+        compareExchange(buffer, e3, e4);
+    }
+
+    /**
+     * Puts the lesser of two elements at the lower index.
+     *
+     * @param buffer being sorted;
+     * @param i lower index;
+     * @param j higher index;
+     */
+    private static void compareExchange (IntBuffer buffer, int i, int j) {
+        int x = buffer.get(i);
+        int y = buffer.get(j);
+        if (y < x) {
+            buffer.put(i, y);
+            buffer.put(j, x);
+        }
+    }
+
+    /**
+     * Same as the array version in {@link HeapSort}.
+     *
+     * @param buffer being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void heapSort (IntBuffer buffer, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(buffer, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            int t = buffer.get(low);
+            buffer.put(low, buffer.get(low + end));
+            buffer.put(low + end, t);
+            siftDown(buffer, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param buffer with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (IntBuffer buffer, int base, int i, int n) {
+        int x = buffer.get(base + i);
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && buffer.get(base + child + 1) > buffer.get(base + child)) child++;
+            if (x >= buffer.get(base + child)) break;
+            buffer.put(base + i, buffer.get(base + child));
+            i = child;
+        }
+        buffer.put(base + i, x);
+    }
+
+    // -------------------------------------------------------------------- Longs //
+
+    /**
+     * Same as the array version in {@link DualPivotQuickSort}, with absolute gets and puts, down
+     * to ranges that fit the scratch array.
+     *
+     * @param buffer being sorted;
+     * @param scratch array the short ranges are sorted in;
+     * @param low index;
+     * @param high index;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void dualPivotQuickSort (LongBuffer buffer, long[] scratch, int low, int high,
+                                            int depth) {
+        while (high - low >= scratch.length) {
+            if (depth-- == 0) {
+                heapSort(buffer, low, high);
+                return;
+            }
+
+            long pivots = partition(buffer, low, high);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = buffer.get(L - 1) != buffer.get(G + 1);
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(buffer, scratch, L, G, depth);
+                dualPivotQuickSort(buffer, scratch, G + 2, high, depth);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(buffer, scratch, low, L - 2, depth);
+                dualPivotQuickSort(buffer, scratch, G + 2, high, depth);
+                low = L;
+                high = G;
+            } else {
+                dualPivotQuickSort(buffer, scratch, low, L - 2, depth);
+                if (middle) dualPivotQuickSort(buffer, scratch, L, G, depth);
+                low = G + 2;
+            }
+        }
+
+        sortRange(buffer, scratch, low, high);
+    }
+
+    /**
+     * Copies a range to the scratch array, sorts it there and copies it back.
+     *
+     * @param buffer being sorted;
+     * @param scratch array at least as long as the range;
+     * @param low index;
+     * @param high index;
+     */
+    private static void sortRange (LongBuffer buffer, long[] scratch, int low, int high) {
+        int length = high - low + 1;
+        if (length <= 1) return;
+        LongBuffer window = buffer.duplicate();
+        window.limit(high + 1).position(low);
+        window.get(scratch, 0, length);
+        DualPivotQuickSort.sort(scratch, 0, length);
+        window.position(low);
+        window.put(scratch, 0, length);
+    }
+
+    /**
+     * Same as the array version in {@link DualPivotQuickSort}.
+     *
+     * @param buffer being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static long partition (LongBuffer buffer, int low, int high) {
+        int length = high - low + 1;
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;
+        int p2 = mid + fifth;
+
+        sort5Elements(buffer, low, p1, mid, p2, high);
+
+        long pivot1 = buffer.get(p1);
+        long pivot2 = buffer.get(p2);
+
+        buffer.put(p1, buffer.get(low));
+        buffer.put(p2, buffer.get(high));
+
+        int L = low;
+        int G = high;
+
+        // noinspection StatementWithEmptyBody
+        while (buffer.get(++L) < pivot1);
+        // noinspection StatementWithEmptyBody
+        while (buffer.get(--G) > pivot2);
+
+        loop:
+        for (int K = L - 1; ++K <= G;) {
+            long aK = buffer.get(K);
+            if (aK < pivot1) {
+                buffer.put(K, buffer.get(L));
+                buffer.put(L++, aK);
+            } else if (aK > pivot2) {
+                while (buffer.get(G) > pivot2) {
+                    if (G-- == K) break loop;
+                }
+
+                long aG = buffer.get(G);
+                if (aG < pivot1) {
+                    buffer.put(K, buffer.get(L));
+                    buffer.put(L++, aG);
+                } else buffer.put(K, aG);
+
+                buffer.put(G--, aK);
+            }
+        }
+
+        buffer.put(low, buffer.get(L - 1)); buffer.put(L - 1, pivot1);
+        buffer.put(high, buffer.get(G + 1)); buffer.put(G + 1, pivot2);
+
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Sorts the five pivot candidates with a sorting network.
+     *
+     * @param buffer being sorted;
+     * @param e1 index;
+     * @param e2 index;
+     * @param e3 index;
+     * @param e4 index;
+     * @param e5 index;
+     */
+    private static void sort5Elements (LongBuffer buffer, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(buffer, e1, e4); compareExchange(buffer, e2, e5);
+        compareExchange(buffer, e1, e3); compareExchange(buffer, e2, e4);
+        compareExchange(buffer, e1, e2); compareExchange(buffer, e3, e5);
+        compareExchange(buffer, e2, e3); compareExchange(buffer, e4, e5);
+        compareExchange(buffer, e3, e4);
+    }
+
+    /**
+     * Puts the lesser of two elements at the lower index.
+     *
+     * @param buffer being sorted;
+     * @param i lower index;
+     * @param j higher index;
+     */
+    private static void compareExchange (LongBuffer buffer, int i, int j) {
+        long x = buffer.get(i);
+        long y = buffer.get(j);
+        if (y < x) {
+            buffer.put(i, y);
+            buffer.put(j, x);
+        }
+    }
+
+    /**
+     * Same as the array version in {@link HeapSort}.
+     *
+     * @param buffer being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void heapSort (LongBuffer buffer, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(buffer, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            long t = buffer.get(low);
+            buffer.put(low, buffer.get(low + end));
+            buffer.put(low + end, t);
+            siftDown(buffer, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param buffer with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (LongBuffer buffer, int base, int i, int n) {
+        long x = buffer.get(base + i);
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && buffer.get(base + child + 1) > buffer.get(base + child)) child++;
+            if (x >= buffer.get(base + child)) break;
+            buffer.put(base + i, buffer.get(base + child));
+            i = child;
+        }
+        buffer.put(base + i, x);
+    }
+
+}
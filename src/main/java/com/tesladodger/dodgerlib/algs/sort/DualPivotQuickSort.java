@@ -1,5 +1,7 @@
 package com.tesladodger.dodgerlib.algs.sort;
 
+import java.util.Comparator;
+
 
 /**
  * Dual-Pivot Quicksort as described by Vladimir Yaroslavskiy.
@@ -12,7 +14,7 @@ public class DualPivotQuickSort {
     private DualPivotQuickSort () {}
 
     /* Maximum array length below which insertion sort is performed. */
-    public static final int INSERTION_SORT_THRESHOLD = 17;
+    public static final int INSERTION_SORT_THRESHOLD = 16;
 
     /**
      * Sorts an array of ints.
@@ -20,25 +22,212 @@ public class DualPivotQuickSort {
      * @param array being sorted;
      */
     public static void sort (int[] array) {
-        if (array == null || array.length <= 1) return;
-        dualPivotQuickSort(array, 0, array.length - 1, true);
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of ints.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        dualPivotQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from), null);
+    }
+
+    /**
+     * Sorts an array of ints, choosing how to partition.
+     *
+     * @param array being sorted;
+     * @param scheme of the partitions;
+     */
+    public static void sort (int[] array, PartitionScheme scheme) {
+        if (array == null) return;
+        sort(array, 0, array.length, scheme);
+    }
+
+    /**
+     * Sorts a range of an array of ints, choosing how to partition.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param scheme of the partitions;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to, PartitionScheme scheme) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        dualPivotQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from),
+                scheme == PartitionScheme.BLOCK ? BlockPartition.offsets() : null);
+    }
+
+    /**
+     * Sorts an array of longs.
+     *
+     * @param array being sorted;
+     */
+    public static void sort (long[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of longs.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (long[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        dualPivotQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from));
+    }
+
+    /**
+     * Sorts an array of doubles.
+     *
+     * @param array being sorted;
+     */
+    public static void sort (double[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of doubles. -0.0 is placed before 0.0 and NaNs at the end,
+     * like {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (double[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        to = SortUtils.moveNaNsToEnd(array, from, to);
+        if (to - from <= 1) return;
+        int negativeZeros = SortUtils.clearNegativeZeros(array, from, to);
+        dualPivotQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from));
+        SortUtils.restoreNegativeZeros(array, from, to, negativeZeros);
+    }
+
+    /**
+     * Sorts an array of objects.
+     *
+     * @param array being sorted;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        if (array == null) return;
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * Sorts a range of an array of objects.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        dualPivotQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from),
+                SortUtils.orNatural(c));
     }
 
     /**
-     * Pretty much a simpler version of the algorithm in the JDK.
+     * Pretty much a simpler version of the algorithm in the JDK. Falls back to heap sort when
+     * the recursion gets too deep.
      *
      * @param array being sorted;
      * @param low index;
      * @param high index;
      * @param onTheLeft boolean;
+     * @param depth partitions left before falling back to heap sort;
+     * @param offsets buffer for block partitions, or null for the classic ones;
      */
-    private static void dualPivotQuickSort (int[] array, int low, int high, boolean onTheLeft) {
-        if ((high - low) < INSERTION_SORT_THRESHOLD) {
-            if (onTheLeft) insertionSort(array, low, high);
-            else pairInsertionSort(array, low, high);
-            return;
+    static void dualPivotQuickSort (int[] array, int low, int high, boolean onTheLeft,
+                                    int depth, int[] offsets) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            long pivots = offsets == null
+                    ? partition(array, low, high)
+                    : blockPartition(array, low, high, offsets);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = array[L - 1] != array[G + 1];
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            // Recurse on the two smaller parts and loop on the largest, so the stack never
+            // holds more than log(n) calls.
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(array, L, G, false, depth, offsets);
+                dualPivotQuickSort(array, G + 2, high, false, depth, offsets);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth, offsets);
+                dualPivotQuickSort(array, G + 2, high, false, depth, offsets);
+                low = L;
+                high = G;
+                onTheLeft = false;
+            } else {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth, offsets);
+                if (middle) dualPivotQuickSort(array, L, G, false, depth, offsets);
+                low = G + 2;
+                onTheLeft = false;
+            }
         }
 
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * Partitions the range in three parts, using two pivots: elements less than the first pivot,
+     * elements between the pivots and elements greater than the second pivot. The pivots are
+     * left in their final positions, between the parts.
+     * The range must have more than {@link #INSERTION_SORT_THRESHOLD} elements.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    static long partition (int[] array, int low, int high) {
         int length = high - low + 1;
 
         // This equals about 1/5 of the length.
@@ -94,9 +283,44 @@ public class DualPivotQuickSort {
         array[low] = array[L - 1]; array[L - 1] = pivot1;
         array[high] = array[G + 1]; array[G + 1] = pivot2;
 
-        dualPivotQuickSort(array, low, L - 2, onTheLeft);
-        dualPivotQuickSort(array, L, G, false);
-        dualPivotQuickSort(array, G + 2, high, false);
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Same as {@link #partition(int[], int, int)}, with two block partitions instead of one
+     * pass: the first puts the elements not greater than the first pivot on the left, and the
+     * second splits the rest by the second pivot. Elements equal to a pivot may end up on
+     * either side of it, which doesn't matter to the sort.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param offsets buffer for the partitions;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static long blockPartition (int[] array, int low, int high, int[] offsets) {
+        int length = high - low + 1;
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;
+        int p2 = mid + fifth;
+
+        sort5Elements(array, low, mid - fifth, mid, mid + fifth, high);
+
+        int pivot1 = array[p1];
+        int pivot2 = array[p2];
+
+        array[p1] = array[low];
+        array[p2] = array[high];
+
+        int L = BlockPartition.partition(array, low + 1, high - 1, pivot1, offsets);
+        int G = BlockPartition.partition(array, L, high - 1, pivot2, offsets) - 1;
+
+        array[low] = array[L - 1]; array[L - 1] = pivot1;
+        array[high] = array[G + 1]; array[G + 1] = pivot2;
+
+        return ((long) (L - 1) << 32) | (G + 1);
     }
 
     /**
@@ -107,8 +331,8 @@ public class DualPivotQuickSort {
      * @param high index;
      */
     private static void insertionSort (int[] array, int low, int high) {
-        for (int i = low, j = i; i <= high; j = ++i) {
-            int ai = array[i];
+        for (int i = low, j = i; i < high; j = ++i) {
+            int ai = array[i + 1];
             while (ai < array[j]) {
                 array[j+1] = array[j];
                 if (j-- == low) {
@@ -134,7 +358,7 @@ public class DualPivotQuickSort {
         for (int k = low; ++low <= high; k = ++low) {
             int a1 = array[k], a2 = array[low];
 
-            if (a1 < a2) a2 = a1; a1 = array[low];
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
             while (a1 < array[--k]) array[k + 2] = array[k];
             array[++k + 1] = a1;
 
@@ -179,4 +403,628 @@ public class DualPivotQuickSort {
         }
     }
 
+    // -------------------------------------------------------------------- Longs //
+
+    /**
+     * Pretty much a simpler version of the algorithm in the JDK. Falls back to heap sort when
+     * the recursion gets too deep.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft boolean;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void dualPivotQuickSort (long[] array, int low, int high, boolean onTheLeft,
+                                            int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            long pivots = partition(array, low, high);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = array[L - 1] != array[G + 1];
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            // Recurse on the two smaller parts and loop on the largest, so the stack never
+            // holds more than log(n) calls.
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(array, L, G, false, depth);
+                dualPivotQuickSort(array, G + 2, high, false, depth);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth);
+                dualPivotQuickSort(array, G + 2, high, false, depth);
+                low = L;
+                high = G;
+                onTheLeft = false;
+            } else {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth);
+                if (middle) dualPivotQuickSort(array, L, G, false, depth);
+                low = G + 2;
+                onTheLeft = false;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * Partitions the range in three parts, using two pivots: elements less than the first pivot,
+     * elements between the pivots and elements greater than the second pivot. The pivots are
+     * left in their final positions, between the parts.
+     * The range must have more than {@link #INSERTION_SORT_THRESHOLD} elements.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static long partition (long[] array, int low, int high) {
+        int length = high - low + 1;
+
+        // This equals about 1/5 of the length.
+        // 2^-3 + 2^-4 + 2^-7 + 2^-8 ... = 1/5
+        // 1/5 = 0.0011 0011 0011 ...
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        // 2^-1 = 1/2  = 0.1
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;  // Position of the pivot 1;
+        int p2 = mid + fifth;  // Position of the pivot 2;
+
+        sort5Elements(array, low, mid - fifth, mid, mid + fifth, high);
+
+        long pivot1 = array[p1];
+        long pivot2 = array[p2];
+
+        array[p1] = array[low];
+        array[p2] = array[high];
+
+        int L = low;
+        int G = high;
+
+        // noinspection StatementWithEmptyBody
+        while (array[++L] < pivot1);
+        // noinspection StatementWithEmptyBody
+        while (array[--G] > pivot2);
+
+        loop:
+        for (int K = L - 1; ++K <= G;) {
+            long aK = array[K];
+            if (aK < pivot1) {
+                array[K] = array[L];
+                array[L++] = aK;
+            } else if (aK > pivot2) {
+                // Since we don't know what's on this part, whe should skip the elements greater
+                // than the second pivot.
+                while (array[G] > pivot2) {
+                    if (G-- == K) break loop;
+                }
+
+                // Put array[G] in the right partition.
+                if (array[G] < pivot1) {
+                    array[K] = array[L];
+                    array[L++] = array[G];
+                } else array[K] = array[G];
+
+                // Put aK in the right place.
+                array[G] = aK;
+                --G;
+            }
+        }
+
+        array[low] = array[L - 1]; array[L - 1] = pivot1;
+        array[high] = array[G + 1]; array[G + 1] = pivot2;
+
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Normal insertion sort, called on the left part in order to not go out of bounds.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (long[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            long ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort I shamelessly copied from JDK 8.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void pairInsertionSort (long[] array, int low, int high) {
+        do {
+            if (low >= high) return;
+        } while (array[++low] >= array[low - 1]);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            long a1 = array[k], a2 = array[low];
+
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
+            while (a1 < array[--k]) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (a2 < array[--k]) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        long last = array[high];
+
+        while (last < array[--high]) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * A very ugly insertion sort for the 5 elements.
+     *
+     * @param array being sorted;
+     * @param left index;
+     * @param p1 index of the first pivot;
+     * @param mid index;
+     * @param p2 index of the second pivot;
+     * @param high index;
+     */
+    private static void sort5Elements (long[] array, int left, int p1, int mid, int p2, int high) {
+        if (array[p1] < array[left]) { long t = array[left]; array[left] = array[p1]; array[p1] = t; }
+
+        if (array[mid] < array[p1]) { long t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+            if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+        }
+
+        if (array[p2] < array[mid]) { long t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+            if (array[mid] < array[p1]) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+            }
+        }
+
+        if (array[high] < array[p2]) { long t = array[p2]; array[p2] = array[high]; array[high] = t;
+            if (array[p2] < array[mid]) { t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+                if (array[mid] < array[p1]) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                    if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------- Doubles //
+
+    /**
+     * Pretty much a simpler version of the algorithm in the JDK. Falls back to heap sort when
+     * the recursion gets too deep.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft boolean;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void dualPivotQuickSort (double[] array, int low, int high, boolean onTheLeft,
+                                            int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            long pivots = partition(array, low, high);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = array[L - 1] != array[G + 1];
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            // Recurse on the two smaller parts and loop on the largest, so the stack never
+            // holds more than log(n) calls.
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(array, L, G, false, depth);
+                dualPivotQuickSort(array, G + 2, high, false, depth);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth);
+                dualPivotQuickSort(array, G + 2, high, false, depth);
+                low = L;
+                high = G;
+                onTheLeft = false;
+            } else {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth);
+                if (middle) dualPivotQuickSort(array, L, G, false, depth);
+                low = G + 2;
+                onTheLeft = false;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * Partitions the range in three parts, using two pivots: elements less than the first pivot,
+     * elements between the pivots and elements greater than the second pivot. The pivots are
+     * left in their final positions, between the parts.
+     * The range must have more than {@link #INSERTION_SORT_THRESHOLD} elements.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static long partition (double[] array, int low, int high) {
+        int length = high - low + 1;
+
+        // This equals about 1/5 of the length.
+        // 2^-3 + 2^-4 + 2^-7 + 2^-8 ... = 1/5
+        // 1/5 = 0.0011 0011 0011 ...
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        // 2^-1 = 1/2  = 0.1
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;  // Position of the pivot 1;
+        int p2 = mid + fifth;  // Position of the pivot 2;
+
+        sort5Elements(array, low, mid - fifth, mid, mid + fifth, high);
+
+        double pivot1 = array[p1];
+        double pivot2 = array[p2];
+
+        array[p1] = array[low];
+        array[p2] = array[high];
+
+        int L = low;
+        int G = high;
+
+        // noinspection StatementWithEmptyBody
+        while (array[++L] < pivot1);
+        // noinspection StatementWithEmptyBody
+        while (array[--G] > pivot2);
+
+        loop:
+        for (int K = L - 1; ++K <= G;) {
+            double aK = array[K];
+            if (aK < pivot1) {
+                array[K] = array[L];
+                array[L++] = aK;
+            } else if (aK > pivot2) {
+                // Since we don't know what's on this part, whe should skip the elements greater
+                // than the second pivot.
+                while (array[G] > pivot2) {
+                    if (G-- == K) break loop;
+                }
+
+                // Put array[G] in the right partition.
+                if (array[G] < pivot1) {
+                    array[K] = array[L];
+                    array[L++] = array[G];
+                } else array[K] = array[G];
+
+                // Put aK in the right place.
+                array[G] = aK;
+                --G;
+            }
+        }
+
+        array[low] = array[L - 1]; array[L - 1] = pivot1;
+        array[high] = array[G + 1]; array[G + 1] = pivot2;
+
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Normal insertion sort, called on the left part in order to not go out of bounds.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (double[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            double ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort I shamelessly copied from JDK 8.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void pairInsertionSort (double[] array, int low, int high) {
+        do {
+            if (low >= high) return;
+        } while (array[++low] >= array[low - 1]);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            double a1 = array[k], a2 = array[low];
+
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
+            while (a1 < array[--k]) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (a2 < array[--k]) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        double last = array[high];
+
+        while (last < array[--high]) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * A very ugly insertion sort for the 5 elements.
+     *
+     * @param array being sorted;
+     * @param left index;
+     * @param p1 index of the first pivot;
+     * @param mid index;
+     * @param p2 index of the second pivot;
+     * @param high index;
+     */
+    private static void sort5Elements (double[] array, int left, int p1, int mid, int p2, int high) {
+        if (array[p1] < array[left]) { double t = array[left]; array[left] = array[p1]; array[p1] = t; }
+
+        if (array[mid] < array[p1]) { double t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+            if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+        }
+
+        if (array[p2] < array[mid]) { double t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+            if (array[mid] < array[p1]) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+            }
+        }
+
+        if (array[high] < array[p2]) { double t = array[p2]; array[p2] = array[high]; array[high] = t;
+            if (array[p2] < array[mid]) { t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+                if (array[mid] < array[p1]) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                    if (array[p1] < array[left]) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------- Objects //
+
+    /**
+     * Pretty much a simpler version of the algorithm in the JDK. Falls back to heap sort when
+     * the recursion gets too deep.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft boolean;
+     * @param depth partitions left before falling back to heap sort;
+     * @param c comparator;
+     */
+    private static <T> void dualPivotQuickSort (T[] array, int low, int high, boolean onTheLeft,
+                                                int depth, Comparator<? super T> c) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high, c);
+                return;
+            }
+
+            long pivots = partition(array, low, high, c);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            // If the pivots are equal, everything between them is too.
+            boolean middle = c.compare(array[L - 1], array[G + 1]) != 0;
+            int leftLength = L - 1 - low;
+            int middleLength = middle ? G - L + 1 : 0;
+            int rightLength = high - G - 1;
+
+            // Recurse on the two smaller parts and loop on the largest, so the stack never
+            // holds more than log(n) calls.
+            if (leftLength >= middleLength && leftLength >= rightLength) {
+                if (middle) dualPivotQuickSort(array, L, G, false, depth, c);
+                dualPivotQuickSort(array, G + 2, high, false, depth, c);
+                high = L - 2;
+            } else if (middleLength >= rightLength) {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth, c);
+                dualPivotQuickSort(array, G + 2, high, false, depth, c);
+                low = L;
+                high = G;
+                onTheLeft = false;
+            } else {
+                dualPivotQuickSort(array, low, L - 2, onTheLeft, depth, c);
+                if (middle) dualPivotQuickSort(array, L, G, false, depth, c);
+                low = G + 2;
+                onTheLeft = false;
+            }
+        }
+
+        if (onTheLeft) insertionSort(array, low, high, c);
+        else pairInsertionSort(array, low, high, c);
+    }
+
+    /**
+     * Partitions the range in three parts, using two pivots: elements less than the first pivot,
+     * elements between the pivots and elements greater than the second pivot. The pivots are
+     * left in their final positions, between the parts.
+     * The range must have more than {@link #INSERTION_SORT_THRESHOLD} elements.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the first pivot in the upper half and index of the second in the lower;
+     */
+    private static <T> long partition (T[] array, int low, int high, Comparator<? super T> c) {
+        int length = high - low + 1;
+
+        // This equals about 1/5 of the length.
+        // 2^-3 + 2^-4 + 2^-7 + 2^-8 ... = 1/5
+        // 1/5 = 0.0011 0011 0011 ...
+        int fifth = (length >>> 3) + (length >>> 4) + (length >>> 7);
+        // 2^-1 = 1/2  = 0.1
+        int mid = (low + high) >>> 1;
+        int p1 = mid - fifth;  // Position of the pivot 1;
+        int p2 = mid + fifth;  // Position of the pivot 2;
+
+        sort5Elements(array, low, mid - fifth, mid, mid + fifth, high, c);
+
+        T pivot1 = array[p1];
+        T pivot2 = array[p2];
+
+        array[p1] = array[low];
+        array[p2] = array[high];
+
+        int L = low;
+        int G = high;
+
+        // noinspection StatementWithEmptyBody
+        while (c.compare(array[++L], pivot1) < 0);
+        // noinspection StatementWithEmptyBody
+        while (c.compare(array[--G], pivot2) > 0);
+
+        loop:
+        for (int K = L - 1; ++K <= G;) {
+            T aK = array[K];
+            if (c.compare(aK, pivot1) < 0) {
+                array[K] = array[L];
+                array[L++] = aK;
+            } else if (c.compare(aK, pivot2) > 0) {
+                // Since we don't know what's on this part, whe should skip the elements greater
+                // than the second pivot.
+                while (c.compare(array[G], pivot2) > 0) {
+                    if (G-- == K) break loop;
+                }
+
+                // Put array[G] in the right partition.
+                if (c.compare(array[G], pivot1) < 0) {
+                    array[K] = array[L];
+                    array[L++] = array[G];
+                } else array[K] = array[G];
+
+                // Put aK in the right place.
+                array[G] = aK;
+                --G;
+            }
+        }
+
+        array[low] = array[L - 1]; array[L - 1] = pivot1;
+        array[high] = array[G + 1]; array[G + 1] = pivot2;
+
+        return ((long) (L - 1) << 32) | (G + 1);
+    }
+
+    /**
+     * Normal insertion sort, called on the left part in order to not go out of bounds.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void insertionSort (T[] array, int low, int high, Comparator<? super T> c) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            T ai = array[i + 1];
+            while (c.compare(ai, array[j]) < 0) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort I shamelessly copied from JDK 8.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void pairInsertionSort (T[] array, int low, int high, Comparator<? super T> c) {
+        do {
+            if (low >= high) return;
+        } while (c.compare(array[++low], array[low - 1]) >= 0);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            T a1 = array[k], a2 = array[low];
+
+            if (c.compare(a1, a2) < 0) { a2 = a1; a1 = array[low]; }
+            while (c.compare(a1, array[--k]) < 0) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (c.compare(a2, array[--k]) < 0) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        T last = array[high];
+
+        while (c.compare(last, array[--high]) < 0) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * A very ugly insertion sort for the 5 elements.
+     *
+     * @param array being sorted;
+     * @param left index;
+     * @param p1 index of the first pivot;
+     * @param mid index;
+     * @param p2 index of the second pivot;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void sort5Elements (T[] array, int left, int p1, int mid, int p2,
+                                          int high, Comparator<? super T> c) {
+        if (c.compare(array[p1], array[left]) < 0) { T t = array[left]; array[left] = array[p1]; array[p1] = t; }
+
+        if (c.compare(array[mid], array[p1]) < 0) { T t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+            if (c.compare(array[p1], array[left]) < 0) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+        }
+
+        if (c.compare(array[p2], array[mid]) < 0) { T t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+            if (c.compare(array[mid], array[p1]) < 0) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                if (c.compare(array[p1], array[left]) < 0) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+            }
+        }
+
+        if (c.compare(array[high], array[p2]) < 0) { T t = array[p2]; array[p2] = array[high]; array[high] = t;
+            if (c.compare(array[p2], array[mid]) < 0) { t = array[mid]; array[mid] = array[p2]; array[p2] = t;
+                if (c.compare(array[mid], array[p1]) < 0) { t = array[p1]; array[p1] = array[mid]; array[mid] = t;
+                    if (c.compare(array[p1], array[left]) < 0) { t = array[left]; array[left] = array[p1]; array[p1] = t; }
+                }
+            }
+        }
+    }
+
 }
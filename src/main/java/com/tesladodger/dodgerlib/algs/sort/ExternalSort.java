@@ -0,0 +1,412 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * External merge sort of binary files of ints or longs, big-endian, for files that don't fit in
+ * the heap.
+ * The file is read in runs, through memory mapped windows, and each run is sorted in memory with
+ * {@link DualPivotQuickSort} and written to a temporary file. Then the runs are merged in a
+ * single pass with a loser tree: the tree keeps the loser of each match in its nodes, so
+ * replacing the winner only replays the matches on its path to the root, about log2(k)
+ * comparisons for k runs. Both the runs and the output are read and written through mapped
+ * windows, so nothing is copied through intermediate buffers.
+ */
+public class ExternalSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private ExternalSort () {}
+
+    /** Default number of elements in a run. */
+    public static final int DEFAULT_RUN_LENGTH = 1 << 24;
+
+    /** Size in bytes of the windows mapped while merging. A multiple of the size of a long. */
+    private static final int WINDOW = 1 << 22;
+
+    /**
+     * Sorts a file of ints, with the default run length and the default temporary directory.
+     *
+     * @param input file;
+     * @param output file, created or replaced;
+     *
+     * @throws IOException if the files can't be read or written;
+     */
+    public static void sortInts (Path input, Path output) throws IOException {
+        sortInts(input, output, DEFAULT_RUN_LENGTH, null);
+    }
+
+    /**
+     * Sorts a file of ints.
+     *
+     * @param input file;
+     * @param output file, created or replaced;
+     * @param runLength number of elements sorted in memory at a time;
+     * @param tempDir directory for the runs, null for the default temporary directory;
+     *
+     * @throws IOException if the files can't be read or written;
+     * @throws IllegalArgumentException if the run length is not positive or too large to map,
+     *                                  or if the length of the input is not a multiple of 4;
+     */
+    public static void sortInts (Path input, Path output, int runLength, Path tempDir)
+            throws IOException {
+        checkRunLength(runLength, Integer.BYTES);
+        List<Path> runs = new ArrayList<>();
+        Throwable failure = null;
+        try {
+            long n;
+            try (FileChannel in = FileChannel.open(input, READ)) {
+                n = length(in, Integer.BYTES);
+                int[] chunk = new int[(int) Math.min(runLength, n)];
+                for (long pos = 0; pos < n; pos += runLength) {
+                    int count = (int) Math.min(runLength, n - pos);
+                    in.map(READ_ONLY, pos * Integer.BYTES, (long) count * Integer.BYTES)
+                            .asIntBuffer().get(chunk, 0, count);
+                    DualPivotQuickSort.sort(chunk, 0, count);
+
+                    // A single run is the output itself.
+                    Path run = n <= runLength ? null : createRun(tempDir, runs);
+                    try (FileChannel out = FileChannel.open(run == null ? output : run,
+                            READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+                        out.map(READ_WRITE, 0, (long) count * Integer.BYTES)
+                                .asIntBuffer().put(chunk, 0, count);
+                    }
+                }
+            }
+            if (n == 0) Files.newOutputStream(output).close();
+            else if (!runs.isEmpty()) merge(runs, output, n, Integer.BYTES);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            deleteRuns(runs, failure);
+        }
+    }
+
+    /**
+     * Sorts a file of longs, with the default run length and the default temporary directory.
+     *
+     * @param input file;
+     * @param output file, created or replaced;
+     *
+     * @throws IOException if the files can't be read or written;
+     */
+    public static void sortLongs (Path input, Path output) throws IOException {
+        sortLongs(input, output, DEFAULT_RUN_LENGTH, null);
+    }
+
+    /**
+     * Sorts a file of longs.
+     *
+     * @param input file;
+     * @param output file, created or replaced;
+     * @param runLength number of elements sorted in memory at a time;
+     * @param tempDir directory for the runs, null for the default temporary directory;
+     *
+     * @throws IOException if the files can't be read or written;
+     * @throws IllegalArgumentException if the run length is not positive or too large to map,
+     *                                  or if the length of the input is not a multiple of 8;
+     */
+    public static void sortLongs (Path input, Path output, int runLength, Path tempDir)
+            throws IOException {
+        checkRunLength(runLength, Long.BYTES);
+        List<Path> runs = new ArrayList<>();
+        Throwable failure = null;
+        try {
+            long n;
+            try (FileChannel in = FileChannel.open(input, READ)) {
+                n = length(in, Long.BYTES);
+                long[] chunk = new long[(int) Math.min(runLength, n)];
+                for (long pos = 0; pos < n; pos += runLength) {
+                    int count = (int) Math.min(runLength, n - pos);
+                    in.map(READ_ONLY, pos * Long.BYTES, (long) count * Long.BYTES)
+                            .asLongBuffer().get(chunk, 0, count);
+                    DualPivotQuickSort.sort(chunk, 0, count);
+
+                    Path run = n <= runLength ? null : createRun(tempDir, runs);
+                    try (FileChannel out = FileChannel.open(run == null ? output : run,
+                            READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+                        out.map(READ_WRITE, 0, (long) count * Long.BYTES)
+                                .asLongBuffer().put(chunk, 0, count);
+                    }
+                }
+            }
+            if (n == 0) Files.newOutputStream(output).close();
+            else if (!runs.isEmpty()) merge(runs, output, n, Long.BYTES);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            deleteRuns(runs, failure);
+        }
+    }
+
+    /**
+     * Checks that a run can be mapped in a single buffer.
+     *
+     * @param runLength number of elements in a run;
+     * @param bytes size of an element;
+     *
+     * @throws IllegalArgumentException if it can't;
+     */
+    private static void checkRunLength (int runLength, int bytes) {
+        if (runLength <= 0 || runLength > Integer.MAX_VALUE / bytes)
+            throw new IllegalArgumentException("Invalid run length: " + runLength);
+    }
+
+    /**
+     * Number of elements in a file.
+     *
+     * @param channel of the file;
+     * @param bytes size of an element;
+     *
+     * @return number of elements;
+     *
+     * @throws IOException if the size can't be read;
+     * @throws IllegalArgumentException if the size is not a multiple of the element size;
+     */
+    private static long length (FileChannel channel, int bytes) throws IOException {
+        long size = channel.size();
+        if (size % bytes != 0)
+            throw new IllegalArgumentException("File length is not a multiple of " + bytes);
+        return size / bytes;
+    }
+
+    /**
+     * Creates a temporary file for a run and adds it to the list.
+     *
+     * @param tempDir directory, or null for the default one;
+     * @param runs created so far;
+     *
+     * @return the new file;
+     *
+     * @throws IOException if the file can't be created;
+     */
+    private static Path createRun (Path tempDir, List<Path> runs) throws IOException {
+        Path run = tempDir == null
+                ? Files.createTempFile("run", ".bin")
+                : Files.createTempFile(tempDir, "run", ".bin");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Deletes the runs. By then, no window of them is referenced anymore, but a mapping is only
+     * released when its buffer is collected, so on some systems, such as Windows, the deletion can
+     * still fail. Every run is tried anyway, and the failures are added as suppressed to the
+     * exception that ended the sort, if there's one, so they don't mask it.
+     *
+     * @param runs files to delete;
+     * @param failure exception thrown by the sort, or null;
+     *
+     * @throws IOException if a run can't be deleted and the sort didn't fail;
+     */
+    private static void deleteRuns (List<Path> runs, Throwable failure) throws IOException {
+        IOException error = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                if (failure != null) failure.addSuppressed(e);
+                else if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Merges sorted runs into the output.
+     *
+     * @param runs sorted files;
+     * @param output file;
+     * @param n total number of elements;
+     * @param bytes size of an element;
+     *
+     * @throws IOException if the files can't be read or written;
+     */
+    private static void merge (List<Path> runs, Path output, long n, int bytes)
+            throws IOException {
+        RunReader[] readers = new RunReader[runs.size()];
+        Throwable failure = null;
+        try (FileChannel out = FileChannel.open(output, READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            for (int i = 0; i < readers.length; i++)
+                readers[i] = new RunReader(runs.get(i), bytes);
+
+            LoserTree tree = new LoserTree(readers);
+            MappedByteBuffer window = null;
+            long position = 0;
+            long size = n * bytes;
+            for (long i = 0; i < n; i++) {
+                if (window == null || !window.hasRemaining()) {
+                    int length = (int) Math.min(WINDOW, size - position);
+                    window = out.map(READ_WRITE, position, length);
+                    position += length;
+                }
+                long x = tree.pop();
+                if (bytes == Integer.BYTES) window.putInt((int) x);
+                else window.putLong(x);
+            }
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            closeReaders(readers, failure);
+        }
+    }
+
+    /**
+     * Closes the readers of the runs and drops them, along with their windows, so the runs can
+     * be deleted. Like in {@link #deleteRuns(List, Throwable)}, failures don't mask the one that
+     * ended the merge.
+     *
+     * @param readers of the runs, some may be null;
+     * @param failure exception thrown by the merge, or null;
+     *
+     * @throws IOException if a reader can't be closed and the merge didn't fail;
+     */
+    private static void closeReaders (RunReader[] readers, Throwable failure) throws IOException {
+        IOException error = null;
+        for (int i = 0; i < readers.length; i++) {
+            if (readers[i] == null) continue;
+            try {
+                readers[i].close();
+            } catch (IOException e) {
+                if (failure != null) failure.addSuppressed(e);
+                else if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+            readers[i] = null;
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Reads the elements of a run through a mapped window that slides over the file.
+     */
+    private static final class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final int bytes;
+        private final long size;
+        private long position = 0;
+        private MappedByteBuffer window;
+
+        private RunReader (Path run, int bytes) throws IOException {
+            this.channel = FileChannel.open(run, READ);
+            this.bytes = bytes;
+            this.size = channel.size();
+        }
+
+        private boolean hasNext () {
+            return position < size || window != null && window.hasRemaining();
+        }
+
+        private long next () throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                int length = (int) Math.min(WINDOW, size - position);
+                window = channel.map(READ_ONLY, position, length);
+                position += length;
+            }
+            return bytes == Integer.BYTES ? window.getInt() : window.getLong();
+        }
+
+        public void close () throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Tournament tree over the heads of the runs. Leaf i, at index k + i, is run i, and each
+     * internal node holds the run that lost the match played there; the overall winner is at 0.
+     * Runs of any length work, the tree doesn't need to be complete.
+     * Ints are widened to longs, so the same tree merges both.
+     */
+    private static final class LoserTree {
+        private final RunReader[] runs;
+        private final long[] keys;
+        private final boolean[] done;
+        private final int[] tree;
+
+        private LoserTree (RunReader[] runs) throws IOException {
+            int k = runs.length;
+            this.runs = runs;
+            keys = new long[k];
+            done = new boolean[k];
+            for (int i = 0; i < k; i++) {
+                if (runs[i].hasNext()) keys[i] = runs[i].next();
+                else done[i] = true;
+            }
+            tree = new int[k];
+            tree[0] = k == 1 ? 0 : build(1);
+        }
+
+        /**
+         * Plays the matches of a subtree.
+         *
+         * @param node index;
+         *
+         * @return winner of the subtree;
+         */
+        private int build (int node) {
+            int k = runs.length;
+            if (node >= k) return node - k;
+            int left = build(node << 1);
+            int right = build((node << 1) + 1);
+            if (less(right, left)) {
+                tree[node] = left;
+                return right;
+            }
+            tree[node] = right;
+            return left;
+        }
+
+        /**
+         * Whether the head of run a goes before the head of run b. Finished runs always lose.
+         */
+        private boolean less (int a, int b) {
+            return !done[a] && (done[b] || keys[a] < keys[b]);
+        }
+
+        /**
+         * Removes the least head, advances its run and replays its path.
+         *
+         * @return the least head;
+         *
+         * @throws IOException if the run can't be read;
+         */
+        private long pop () throws IOException {
+            int winner = tree[0];
+            long key = keys[winner];
+            if (runs[winner].hasNext()) keys[winner] = runs[winner].next();
+            else done[winner] = true;
+
+            for (int node = (winner + runs.length) >>> 1; node > 0; node >>>= 1) {
+                if (less(tree[node], winner)) {
+                    int t = tree[node];
+                    tree[node] = winner;
+                    winner = t;
+                }
+            }
+            tree[0] = winner;
+            return key;
+        }
+    }
+
+}
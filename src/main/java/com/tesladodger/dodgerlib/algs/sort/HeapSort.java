@@ -0,0 +1,353 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.Comparator;
+
+
+/**
+ * In-place heap sort. O(n log n) in the worst case, with no extra memory, which is why the
+ * quicksorts fall back to it when their recursion gets too deep (introsort).
+ */
+public class HeapSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private HeapSort () {}
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (int[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of ints.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        heapSort(array, from, to - 1);
+    }
+
+    /**
+     * Sorts an array of longs.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (long[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of longs.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (long[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        heapSort(array, from, to - 1);
+    }
+
+    /**
+     * Sorts an array of doubles.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (double[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of doubles. -0.0 is placed before 0.0 and NaNs at the end,
+     * like {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (double[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        to = SortUtils.moveNaNsToEnd(array, from, to);
+        if (to - from <= 1) return;
+        int negativeZeros = SortUtils.clearNegativeZeros(array, from, to);
+        heapSort(array, from, to - 1);
+        SortUtils.restoreNegativeZeros(array, from, to, negativeZeros);
+    }
+
+    /**
+     * Sorts an array of objects.
+     *
+     * @param array to be sorted;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        if (array == null) return;
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * Sorts a range of an array of objects.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+        heapSort(array, from, to - 1, SortUtils.orNatural(c));
+    }
+
+    /**
+     * Heap sort of a range. Builds a max-heap in place, with the root at low, and then moves the
+     * root to the end of the heap until it's empty.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    static void heapSort (int[] array, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(array, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            int t = array[low];
+            array[low] = array[low + end];
+            array[low + end] = t;
+            siftDown(array, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param array with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (int[] array, int base, int i, int n) {
+        int x = array[base + i];
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && array[base + child + 1] > array[base + child]) child++;
+            if (x >= array[base + child]) break;
+            array[base + i] = array[base + child];
+            i = child;
+        }
+        array[base + i] = x;
+    }
+
+    // -------------------------------------------------------------------- Longs //
+
+    /**
+     * Heap sort of a range. Builds a max-heap in place, with the root at low, and then moves the
+     * root to the end of the heap until it's empty.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    static void heapSort (long[] array, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(array, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            long t = array[low];
+            array[low] = array[low + end];
+            array[low + end] = t;
+            siftDown(array, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param array with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (long[] array, int base, int i, int n) {
+        long x = array[base + i];
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && array[base + child + 1] > array[base + child]) child++;
+            if (x >= array[base + child]) break;
+            array[base + i] = array[base + child];
+            i = child;
+        }
+        array[base + i] = x;
+    }
+
+    // -------------------------------------------------------------------- Doubles //
+
+    /**
+     * Heap sort of a range. Builds a max-heap in place, with the root at low, and then moves the
+     * root to the end of the heap until it's empty.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    static void heapSort (double[] array, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(array, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            double t = array[low];
+            array[low] = array[low + end];
+            array[low + end] = t;
+            siftDown(array, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param array with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (double[] array, int base, int i, int n) {
+        double x = array[base + i];
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && array[base + child + 1] > array[base + child]) child++;
+            if (x >= array[base + child]) break;
+            array[base + i] = array[base + child];
+            i = child;
+        }
+        array[base + i] = x;
+    }
+
+    // -------------------------------------------------------------------- Objects //
+
+    /**
+     * Heap sort of a range. Builds a max-heap in place, with the root at low, and then moves the
+     * root to the end of the heap until it's empty.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    static <T> void heapSort (T[] array, int low, int high, Comparator<? super T> c) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(array, low, i, n, c);
+        for (int end = n - 1; end > 0; end--) {
+            T t = array[low];
+            array[low] = array[low + end];
+            array[low + end] = t;
+            siftDown(array, low, 0, end, c);
+        }
+    }
+
+    /**
+     * Moves an element down the heap until no child is larger.
+     *
+     * @param array with the heap;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     * @param c comparator;
+     */
+    private static <T> void siftDown (T[] array, int base, int i, int n, Comparator<? super T> c) {
+        T x = array[base + i];
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && c.compare(array[base + child + 1], array[base + child]) > 0)
+                child++;
+            if (c.compare(x, array[base + child]) >= 0) break;
+            array[base + i] = array[base + child];
+            i = child;
+        }
+        array[base + i] = x;
+    }
+
+
+    // -------------------------------------------------------------------- Key-value pairs //
+
+    /**
+     * Heap sort of a range of keys, moving the values along with them.
+     *
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param low index;
+     * @param high index;
+     */
+    static void heapSort (int[] keys, int[] values, int low, int high) {
+        int n = high - low + 1;
+        for (int i = (n >>> 1) - 1; i >= 0; i--)
+            siftDown(keys, values, low, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            int t = keys[low];
+            keys[low] = keys[low + end];
+            keys[low + end] = t;
+            t = values[low];
+            values[low] = values[low + end];
+            values[low + end] = t;
+            siftDown(keys, values, low, 0, end);
+        }
+    }
+
+    /**
+     * Moves a key and its value down the heap until no child is larger.
+     *
+     * @param keys with the heap;
+     * @param values moved with the keys;
+     * @param base index of the root;
+     * @param i index of the element, from the root;
+     * @param n size of the heap;
+     */
+    private static void siftDown (int[] keys, int[] values, int base, int i, int n) {
+        int x = keys[base + i];
+        int v = values[base + i];
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < n && keys[base + child + 1] > keys[base + child]) child++;
+            if (x >= keys[base + child]) break;
+            keys[base + i] = keys[base + child];
+            values[base + i] = values[base + child];
+            i = child;
+        }
+        keys[base + i] = x;
+        values[base + i] = v;
+    }
+
+}
@@ -1,8 +1,16 @@
 package com.tesladodger.dodgerlib.algs.sort;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 
 /**
- * Merge sort with a helper array.
+ * Merge sort with a helper array. The helper is allocated once per sort, as long as the range being
+ * sorted, and passed down the recursion, so concurrent sorts don't share it.
+ * The recursion stops at ranges of up to {@link SortingNetworks#MAX_LENGTH} elements. For
+ * primitives, those are sorted with a sorting network, or insertion sort when they're shorter
+ * than {@link SortingNetworks#CUTOFF}; key-value pairs always use insertion sort, which, unlike
+ * the networks, is stable.
  */
 public class MergeSort {
 
@@ -12,35 +20,282 @@ public class MergeSort {
     private MergeSort () {}
 
     /**
-     * Helper array to hold values.
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
      */
-    private static int[] helper;
+    public static void sort (int[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
 
     /**
-     * Sorts an array of ints.
+     * Sorts a range of an array of ints.
      *
      * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
      */
-    public static void sort (int[] array) {
-        if (array == null || array.length <= 1) return;
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        mergeSort(array, new int[to - from], from, from, to - 1);
+    }
+
+    /**
+     * Sorts an array of longs.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (long[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of longs.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (long[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        mergeSort(array, new long[to - from], from, from, to - 1);
+    }
+
+    /**
+     * Sorts an array of doubles.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (double[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of doubles. -0.0 is placed before 0.0 and NaNs at the end,
+     * like {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (double[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        to = SortUtils.moveNaNsToEnd(array, from, to);
+        if (to - from <= 1) return;
+
+        int negativeZeros = SortUtils.clearNegativeZeros(array, from, to);
+        mergeSort(array, new double[to - from], from, from, to - 1);
+        SortUtils.restoreNegativeZeros(array, from, to, negativeZeros);
+    }
+
+    /**
+     * Sorts an array of objects. The sort is stable.
+     *
+     * @param array to be sorted;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        if (array == null) return;
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * Sorts a range of an array of objects. The sort is stable.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        mergeSort(array, Arrays.copyOfRange(array, from, to), from, from, to - 1,
+                SortUtils.orNatural(c));
+    }
+
+    /**
+     * Sorts an array of int keys, and moves the values along with them, so that values[i] stays
+     * the value of keys[i]. The sort is stable.
+     *
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, int[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        if (keys.length <= 1) return;
+
+        mergeSort(keys, values, new int[keys.length], new int[keys.length], 0, 0,
+                keys.length - 1);
+    }
 
-        helper = new int[array.length];
-        mergeSort(array, 0, array.length - 1);
+    /**
+     * Sorts an array of int keys, and moves the values along with them. The sort is stable.
+     * The keys are sorted along with their indices, which are then applied to the values with
+     * {@link Permutation#apply(int[], long[])}.
+     *
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, long[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Sorts an array of int keys, and moves the values along with them. The sort is stable.
+     * The keys are sorted along with their indices, which are then applied to the values with
+     * {@link Permutation#apply(int[], Object[])}.
+     *
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     * @param <T> type of the values;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static <T> void sort (int[] keys, T[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Indices that would sort an array of ints: keys[p[0]], keys[p[1]], ... is in order, and
+     * equal keys keep the order of their indices. The keys are not changed.
+     * Applying the result with {@link Permutation} sorts the keys and any number of arrays
+     * parallel to them.
+     *
+     * @param keys to sort by;
+     *
+     * @return new permutation;
+     */
+    public static int[] argsort (int[] keys) {
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys.clone(), permutation);
+        return permutation;
     }
 
     /**
      * Recursive Merge Sort method.
      *
      * @param array array being sorted;
+     * @param helper array to hold values while merging;
+     * @param offset index of the array where the helper starts;
      * @param low index of the sub-array;
      * @param high index of the sub-array;
      */
-    private static void mergeSort (int[] array, int low, int high) {
-        if (low < high) {
+    private static void mergeSort (int[] array, int[] helper, int offset, int low, int high) {
+        if (high - low < SortingNetworks.MAX_LENGTH) {
+            if (high - low >= SortingNetworks.CUTOFF - 1)
+                SortingNetworks.sortingNetwork(array, low, high);
+            else insertionSort(array, low, high);
+        } else {
+            int middle = low + (high - low) / 2;
+            mergeSort(array, helper, offset, low, middle);
+            mergeSort(array, helper, offset, middle+1, high);
+            merge(array, helper, offset, low, middle, high);
+        }
+    }
+
+    /**
+     * Merging part of the algorithm.
+     *
+     * @param array being sorted;
+     * @param helper array to hold values;
+     * @param offset index of the array where the helper starts;
+     * @param low index;
+     * @param middle index;
+     * @param high index;
+     */
+    private static void merge (int[] array, int[] helper, int offset, int low, int middle,
+                               int high) {
+        if (high + 1 - low >= 0) System.arraycopy(array, low, helper, low - offset, high + 1 - low);
+
+        int i = low - offset;
+        int j = middle + 1 - offset;
+        int k = low;
+        middle -= offset;
+        high -= offset;
+
+        while (i <= middle && j <= high) {
+            if (helper[i] <= (helper[j]))
+                array[k++] = helper[i++];
+            else
+                array[k++] = helper[j++];
+        }
+
+        while (i <= middle)
+            array[k++] = helper[i++];
+    }
+
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (int[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            int ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j + 1] = array[j];
+                if (j-- == low) break;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    // -------------------------------------------------------------------- Longs //
+
+    /**
+     * Recursive Merge Sort method.
+     *
+     * @param array array being sorted;
+     * @param helper array to hold values while merging;
+     * @param offset index of the array where the helper starts;
+     * @param low index of the sub-array;
+     * @param high index of the sub-array;
+     */
+    private static void mergeSort (long[] array, long[] helper, int offset, int low, int high) {
+        if (high - low < SortingNetworks.MAX_LENGTH) {
+            if (high - low >= SortingNetworks.CUTOFF - 1)
+                SortingNetworks.sortingNetwork(array, low, high);
+            else insertionSort(array, low, high);
+        } else {
             int middle = low + (high - low) / 2;
-            mergeSort(array, low, middle);
-            mergeSort(array, middle+1, high);
-            merge(array, low, middle, high);
+            mergeSort(array, helper, offset, low, middle);
+            mergeSort(array, helper, offset, middle+1, high);
+            merge(array, helper, offset, low, middle, high);
         }
     }
 
@@ -48,16 +303,21 @@ public class MergeSort {
      * Merging part of the algorithm.
      *
      * @param array being sorted;
+     * @param helper array to hold values;
+     * @param offset index of the array where the helper starts;
      * @param low index;
      * @param middle index;
      * @param high index;
      */
-    private static void merge (int[] array, int low, int middle, int high) {
-        if (high + 1 - low >= 0) System.arraycopy(array, low, helper, low, high + 1 - low);
+    private static void merge (long[] array, long[] helper, int offset, int low, int middle,
+                               int high) {
+        if (high + 1 - low >= 0) System.arraycopy(array, low, helper, low - offset, high + 1 - low);
 
-        int i = low;
-        int j = middle + 1;
+        int i = low - offset;
+        int j = middle + 1 - offset;
         int k = low;
+        middle -= offset;
+        high -= offset;
 
         while (i <= middle && j <= high) {
             if (helper[i] <= (helper[j]))
@@ -70,4 +330,237 @@ public class MergeSort {
             array[k++] = helper[i++];
     }
 
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (long[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            long ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j + 1] = array[j];
+                if (j-- == low) break;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    // -------------------------------------------------------------------- Doubles //
+
+    /**
+     * Recursive Merge Sort method.
+     *
+     * @param array array being sorted;
+     * @param helper array to hold values while merging;
+     * @param offset index of the array where the helper starts;
+     * @param low index of the sub-array;
+     * @param high index of the sub-array;
+     */
+    private static void mergeSort (double[] array, double[] helper, int offset, int low, int high) {
+        if (high - low < SortingNetworks.MAX_LENGTH) {
+            if (high - low >= SortingNetworks.CUTOFF - 1)
+                SortingNetworks.sortingNetwork(array, low, high);
+            else insertionSort(array, low, high);
+        } else {
+            int middle = low + (high - low) / 2;
+            mergeSort(array, helper, offset, low, middle);
+            mergeSort(array, helper, offset, middle+1, high);
+            merge(array, helper, offset, low, middle, high);
+        }
+    }
+
+    /**
+     * Merging part of the algorithm.
+     *
+     * @param array being sorted;
+     * @param helper array to hold values;
+     * @param offset index of the array where the helper starts;
+     * @param low index;
+     * @param middle index;
+     * @param high index;
+     */
+    private static void merge (double[] array, double[] helper, int offset, int low, int middle,
+                               int high) {
+        if (high + 1 - low >= 0) System.arraycopy(array, low, helper, low - offset, high + 1 - low);
+
+        int i = low - offset;
+        int j = middle + 1 - offset;
+        int k = low;
+        middle -= offset;
+        high -= offset;
+
+        while (i <= middle && j <= high) {
+            if (helper[i] <= (helper[j]))
+                array[k++] = helper[i++];
+            else
+                array[k++] = helper[j++];
+        }
+
+        while (i <= middle)
+            array[k++] = helper[i++];
+    }
+
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (double[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            double ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j + 1] = array[j];
+                if (j-- == low) break;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    // -------------------------------------------------------------------- Objects //
+
+    /**
+     * Recursive Merge Sort method.
+     *
+     * @param array array being sorted;
+     * @param helper array to hold values while merging;
+     * @param offset index of the array where the helper starts;
+     * @param low index of the sub-array;
+     * @param high index of the sub-array;
+     * @param c comparator;
+     */
+    private static <T> void mergeSort (T[] array, T[] helper, int offset, int low, int high,
+                                       Comparator<? super T> c) {
+        if (low < high) {
+            int middle = low + (high - low) / 2;
+            mergeSort(array, helper, offset, low, middle, c);
+            mergeSort(array, helper, offset, middle+1, high, c);
+            merge(array, helper, offset, low, middle, high, c);
+        }
+    }
+
+    /**
+     * Merging part of the algorithm. Ties are taken from the left half, which keeps it stable.
+     *
+     * @param array being sorted;
+     * @param helper array to hold values;
+     * @param offset index of the array where the helper starts;
+     * @param low index;
+     * @param middle index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void merge (T[] array, T[] helper, int offset, int low, int middle, int high,
+                                   Comparator<? super T> c) {
+        if (high + 1 - low >= 0) System.arraycopy(array, low, helper, low - offset, high + 1 - low);
+
+        int i = low - offset;
+        int j = middle + 1 - offset;
+        int k = low;
+        middle -= offset;
+        high -= offset;
+
+        while (i <= middle && j <= high) {
+            if (c.compare(helper[i], helper[j]) <= 0)
+                array[k++] = helper[i++];
+            else
+                array[k++] = helper[j++];
+        }
+
+        while (i <= middle)
+            array[k++] = helper[i++];
+    }
+
+
+    // -------------------------------------------------------------------- Key-value pairs //
+
+    /**
+     * Recursive Merge Sort method, moving the values along with the keys.
+     *
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param keyHelper array to hold keys while merging;
+     * @param valueHelper array to hold values while merging;
+     * @param offset index of the arrays where the helpers start;
+     * @param low index of the sub-array;
+     * @param high index of the sub-array;
+     */
+    static void mergeSort (int[] keys, int[] values, int[] keyHelper, int[] valueHelper,
+                           int offset, int low, int high) {
+        if (high - low < SortingNetworks.MAX_LENGTH) {
+            insertionSort(keys, values, low, high);
+        } else {
+            int middle = low + (high - low) / 2;
+            mergeSort(keys, values, keyHelper, valueHelper, offset, low, middle);
+            mergeSort(keys, values, keyHelper, valueHelper, offset, middle+1, high);
+            merge(keys, values, keyHelper, valueHelper, offset, low, middle, high);
+        }
+    }
+
+    /**
+     * Merging part of the algorithm. Ties are taken from the left, so the sort is stable.
+     *
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param keyHelper array to hold keys;
+     * @param valueHelper array to hold values;
+     * @param offset index of the arrays where the helpers start;
+     * @param low index;
+     * @param middle index;
+     * @param high index;
+     */
+    private static void merge (int[] keys, int[] values, int[] keyHelper, int[] valueHelper,
+                               int offset, int low, int middle, int high) {
+        System.arraycopy(keys, low, keyHelper, low - offset, high + 1 - low);
+        System.arraycopy(values, low, valueHelper, low - offset, high + 1 - low);
+
+        int i = low - offset;
+        int j = middle + 1 - offset;
+        int k = low;
+        middle -= offset;
+        high -= offset;
+
+        while (i <= middle && j <= high) {
+            if (keyHelper[i] <= keyHelper[j]) {
+                keys[k] = keyHelper[i];
+                values[k++] = valueHelper[i++];
+            } else {
+                keys[k] = keyHelper[j];
+                values[k++] = valueHelper[j++];
+            }
+        }
+
+        while (i <= middle) {
+            keys[k] = keyHelper[i];
+            values[k++] = valueHelper[i++];
+        }
+    }
+
+    /**
+     * Insertion sort moving the values along with the keys. Equal keys aren't moved past each
+     * other, so it's stable.
+     *
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (int[] keys, int[] values, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            int k = keys[i + 1];
+            int v = values[i + 1];
+            while (k < keys[j]) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                if (j-- == low) break;
+            }
+            keys[j + 1] = k;
+            values[j + 1] = v;
+        }
+    }
+
 }
@@ -1,7 +1,12 @@
 package com.tesladodger.dodgerlib.algs.sort;
 
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class MultiThreadSort {
@@ -11,38 +16,249 @@ public class MultiThreadSort {
     private MultiThreadSort() {}
 
     public static void sort (int[] array) {
-        MultiThreadSortAction action = new MultiThreadSortAction(array);
+        sort(array, 0, array.length);
+    }
+
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        MultiThreadSortAction action = new MultiThreadSortAction(array, from, to);
+        action.compute();
+    }
+
+    public static void sort (long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    public static void sort (long[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        LongSortAction action = new LongSortAction(array, from, to);
+        action.compute();
+    }
+
+    public static void sort (double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * -0.0 is placed before 0.0 and NaNs at the end, like {@link java.util.Arrays#sort(double[])}.
+     */
+    public static void sort (double[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        to = SortUtils.moveNaNsToEnd(array, from, to);
+        int negativeZeros = SortUtils.clearNegativeZeros(array, from, to);
+        DoubleSortAction action = new DoubleSortAction(array, from, to);
+        action.compute();
+        SortUtils.restoreNegativeZeros(array, from, to, negativeZeros);
+    }
+
+    /**
+     * The sort is stable. A null comparator sorts by the natural ordering.
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * The sort is stable. A null comparator sorts by the natural ordering.
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        ObjectSortAction<T> action =
+                new ObjectSortAction<>(array, from, to, SortUtils.orNatural(c));
+        action.compute();
+    }
+
+    /**
+     * Moves the values along with the keys. The sort is stable.
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, int[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        KeyValueSortAction action = new KeyValueSortAction(keys, values, 0, keys.length);
         action.compute();
     }
 
+    /**
+     * Moves the values along with the keys, by applying the permutation of the keys to them.
+     * The sort is stable.
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, long[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Moves the values along with the keys, by applying the permutation of the keys to them.
+     * The sort is stable.
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static <T> void sort (int[] keys, T[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Indices that would stably sort the keys, which are not changed. See {@link Permutation}.
+     */
+    public static int[] argsort (int[] keys) {
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys.clone(), permutation);
+        return permutation;
+    }
+
+    /**
+     * Callback of the asynchronous sorts. It may be called from several threads at once.
+     */
+    @FunctionalInterface
+    public interface Progress {
+
+        /**
+         * Called every time a range is sorted or merged.
+         *
+         * @param processed elements sorted or merged so far, counting every level;
+         * @param total elements that will have been processed at the end;
+         */
+        void update (long processed, long total);
+    }
+
+    /**
+     * Sorts an array in the given pool, without waiting for it. Cancelling the future stops the
+     * sort the next time a range starts or is about to be merged, leaving the array in some
+     * order.
+     *
+     * @param array to be sorted;
+     * @param pool where the tasks are forked;
+     * @param progress callback, or null;
+     *
+     * @return future completed with the array once it's sorted;
+     */
+    public static CompletableFuture<int[]> sortAsync (int[] array, ForkJoinPool pool,
+                                                      Progress progress) {
+        CompletableFuture<int[]> future = new CompletableFuture<>();
+        Monitor monitor = new Monitor(future, progress, work(array.length));
+        MultiThreadSortAction action = new MultiThreadSortAction(array, 0, array.length, monitor);
+        pool.execute(() -> {
+            try {
+                action.invoke();
+                future.complete(array);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sorts an array in the given pool, without waiting for it. The sort is stable, and a null
+     * comparator sorts by the natural ordering. Cancelling the future stops the sort the next
+     * time a range starts or is about to be merged, leaving the array in some order.
+     *
+     * @param array to be sorted;
+     * @param c comparator, or null;
+     * @param pool where the tasks are forked;
+     * @param progress callback, or null;
+     * @param <T> type of the elements;
+     *
+     * @return future completed with the array once it's sorted, or with the exception thrown by
+     *         the comparator;
+     */
+    public static <T> CompletableFuture<T[]> sortAsync (T[] array, Comparator<? super T> c,
+                                                        ForkJoinPool pool, Progress progress) {
+        CompletableFuture<T[]> future = new CompletableFuture<>();
+        Monitor monitor = new Monitor(future, progress, work(array.length));
+        ObjectSortAction<T> action = new ObjectSortAction<>(array, 0, array.length,
+                SortUtils.orNatural(c), monitor);
+        pool.execute(() -> {
+            try {
+                action.invoke();
+                future.complete(array);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Elements processed by the recursion on a range: every element once at the leaves, and
+     * once more at each merge above them.
+     */
+    private static long work (int n) {
+        if (n < THRESHOLD) return n;
+        int half = n >>> 1;
+        return work(half) + work(n - half) + n;
+    }
+
+    /**
+     * Cancellation and progress of an asynchronous sort, shared by all of its tasks.
+     */
+    private static final class Monitor {
+        private final CompletableFuture<?> future;
+        private final Progress progress;
+        private final long total;
+        private final AtomicLong processed = new AtomicLong();
+
+        private Monitor (CompletableFuture<?> future, Progress progress, long total) {
+            this.future = future;
+            this.progress = progress;
+            this.total = total;
+        }
+
+        private void checkCancelled () {
+            if (future.isCancelled()) throw new CancellationException();
+        }
+
+        private void advance (int n) {
+            long p = processed.addAndGet(n);
+            if (progress != null) progress.update(p, total);
+        }
+    }
+
     private static final class MultiThreadSortAction extends RecursiveAction {
         private final int[] array;
         private final int lo, hi;
+        private final Monitor monitor;
 
         private MultiThreadSortAction (int[] array) {
             this(array, 0, array.length);
         }
 
         private MultiThreadSortAction (int[] array, int lo, int hi) {
+            this(array, lo, hi, null);
+        }
+
+        private MultiThreadSortAction (int[] array, int lo, int hi, Monitor monitor) {
             this.array = array;
             this.lo = lo;
             this.hi = hi;
+            this.monitor = monitor;
         }
 
         protected void compute () {
+            if (monitor != null) monitor.checkCancelled();
             if (hi - lo < THRESHOLD)
                 sortSequentially(lo, hi);
             else {
                 int mid = (lo + hi) >>> 1;
                 invokeAll(
-                        new MultiThreadSortAction(array, lo, mid),
-                        new MultiThreadSortAction(array, mid, hi));
+                        new MultiThreadSortAction(array, lo, mid, monitor),
+                        new MultiThreadSortAction(array, mid, hi, monitor));
+                if (monitor != null) monitor.checkCancelled();
                 merge(lo, mid, hi);
             }
+            if (monitor != null) monitor.advance(hi - lo);
         }
 
         private void sortSequentially (int lo, int hi) {
-            Arrays.sort(array, lo, hi);
+            DualPivotQuickSort.sort(array, lo, hi);
         }
 
         private void merge (int lo, int mid, int hi) {
@@ -53,4 +269,166 @@ public class MultiThreadSort {
         }
     }
 
+    private static final class LongSortAction extends RecursiveAction {
+        private final long[] array;
+        private final int lo, hi;
+
+        private LongSortAction (long[] array, int lo, int hi) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute () {
+            if (hi - lo < THRESHOLD)
+                sortSequentially(lo, hi);
+            else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(
+                        new LongSortAction(array, lo, mid),
+                        new LongSortAction(array, mid, hi));
+                merge(lo, mid, hi);
+            }
+        }
+
+        private void sortSequentially (int lo, int hi) {
+            DualPivotQuickSort.sort(array, lo, hi);
+        }
+
+        private void merge (int lo, int mid, int hi) {
+            long[] buf = Arrays.copyOfRange(array, lo, mid);
+            for (int i = 0, j = lo, k = mid; i < buf.length; j++)
+                array[j] = (k == hi || buf[i] < array[k]) ?
+                        buf[i++] : array[k++];
+        }
+    }
+
+    private static final class DoubleSortAction extends RecursiveAction {
+        private final double[] array;
+        private final int lo, hi;
+
+        private DoubleSortAction (double[] array, int lo, int hi) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute () {
+            if (hi - lo < THRESHOLD)
+                sortSequentially(lo, hi);
+            else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(
+                        new DoubleSortAction(array, lo, mid),
+                        new DoubleSortAction(array, mid, hi));
+                merge(lo, mid, hi);
+            }
+        }
+
+        private void sortSequentially (int lo, int hi) {
+            DualPivotQuickSort.sort(array, lo, hi);
+        }
+
+        private void merge (int lo, int mid, int hi) {
+            double[] buf = Arrays.copyOfRange(array, lo, mid);
+            for (int i = 0, j = lo, k = mid; i < buf.length; j++)
+                array[j] = (k == hi || buf[i] < array[k]) ?
+                        buf[i++] : array[k++];
+        }
+    }
+
+    private static final class ObjectSortAction<T> extends RecursiveAction {
+        private final T[] array;
+        private final int lo, hi;
+        private final Comparator<? super T> c;
+        private final Monitor monitor;
+
+        private ObjectSortAction (T[] array, int lo, int hi, Comparator<? super T> c) {
+            this(array, lo, hi, c, null);
+        }
+
+        private ObjectSortAction (T[] array, int lo, int hi, Comparator<? super T> c,
+                                  Monitor monitor) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+            this.c = c;
+            this.monitor = monitor;
+        }
+
+        protected void compute () {
+            if (monitor != null) monitor.checkCancelled();
+            if (hi - lo < THRESHOLD)
+                sortSequentially(lo, hi);
+            else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(
+                        new ObjectSortAction<>(array, lo, mid, c, monitor),
+                        new ObjectSortAction<>(array, mid, hi, c, monitor));
+                if (monitor != null) monitor.checkCancelled();
+                merge(lo, mid, hi);
+            }
+            if (monitor != null) monitor.advance(hi - lo);
+        }
+
+        private void sortSequentially (int lo, int hi) {
+            MergeSort.sort(array, lo, hi, c);
+        }
+
+        // Ties are taken from the left half, to keep it stable.
+        private void merge (int lo, int mid, int hi) {
+            T[] buf = Arrays.copyOfRange(array, lo, mid);
+            for (int i = 0, j = lo, k = mid; i < buf.length; j++)
+                array[j] = (k == hi || c.compare(buf[i], array[k]) <= 0) ?
+                        buf[i++] : array[k++];
+        }
+    }
+
+
+    private static final class KeyValueSortAction extends RecursiveAction {
+        private final int[] keys;
+        private final int[] values;
+        private final int lo, hi;
+
+        private KeyValueSortAction (int[] keys, int[] values, int lo, int hi) {
+            this.keys = keys;
+            this.values = values;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute () {
+            if (hi - lo < THRESHOLD)
+                sortSequentially(lo, hi);
+            else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(
+                        new KeyValueSortAction(keys, values, lo, mid),
+                        new KeyValueSortAction(keys, values, mid, hi));
+                merge(lo, mid, hi);
+            }
+        }
+
+        private void sortSequentially (int lo, int hi) {
+            if (hi - lo <= 1) return;
+            MergeSort.mergeSort(keys, values, new int[hi - lo], new int[hi - lo], lo, lo,
+                    hi - 1);
+        }
+
+        // Ties are taken from the left half, to keep it stable.
+        private void merge (int lo, int mid, int hi) {
+            int[] keyBuf = Arrays.copyOfRange(keys, lo, mid);
+            int[] valueBuf = Arrays.copyOfRange(values, lo, mid);
+            for (int i = 0, j = lo, k = mid; i < keyBuf.length; j++) {
+                if (k == hi || keyBuf[i] <= keys[k]) {
+                    keys[j] = keyBuf[i];
+                    values[j] = valueBuf[i++];
+                } else {
+                    keys[j] = keys[k];
+                    values[j] = values[k++];
+                }
+            }
+        }
+    }
+
 }
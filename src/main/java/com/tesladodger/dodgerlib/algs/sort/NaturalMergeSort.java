@@ -0,0 +1,1032 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.Comparator;
+
+
+/**
+ * Adaptive, stable natural merge sort, in the style of TimSort.
+ * The array is split in runs that are already in order: ascending runs are kept, strictly
+ * descending runs are reversed. Runs shorter than a minimum length are extended with a pair
+ * insertion sort. The runs are pushed on a stack and merged while keeping their lengths
+ * balanced, and the merges switch to galloping (exponential search) when one run keeps
+ * winning, so merging runs that barely interleave is close to a copy.
+ * Sorted or reversed input takes a single pass, and input made of a few long runs is sorted in
+ * about O(n log r), for r runs.
+ */
+public class NaturalMergeSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private NaturalMergeSort () {}
+
+    /** Ranges shorter than this are sorted with pair insertion sort alone. */
+    private static final int MIN_MERGE = 32;
+
+    /** Initial number of consecutive wins of a run after which the merge starts galloping. */
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (int[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of ints.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        int remaining = to - from;
+        if (remaining < 2) return;
+
+        if (remaining < MIN_MERGE) {
+            int run = countRunAndMakeAscending(array, from, to);
+            pairInsertionSort(array, from, from + run, to);
+            return;
+        }
+
+        IntMerger merger = new IntMerger(array, remaining);
+        int minRun = minRunLength(remaining);
+        int low = from;
+        do {
+            int run = countRunAndMakeAscending(array, low, to);
+            if (run < minRun) {
+                int force = Math.min(remaining, minRun);
+                pairInsertionSort(array, low, low + run, low + force);
+                run = force;
+            }
+
+            merger.pushRun(low, run);
+            merger.mergeCollapse();
+
+            low += run;
+            remaining -= run;
+        } while (remaining != 0);
+
+        merger.mergeForceCollapse();
+    }
+
+    /**
+     * Sorts an array of objects. The sort is stable.
+     *
+     * @param array to be sorted;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        if (array == null) return;
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * Sorts a range of an array of objects. The sort is stable.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if from is greater than to, or if the comparator is
+     *                                  found to be inconsistent;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        int remaining = to - from;
+        if (remaining < 2) return;
+        c = SortUtils.orNatural(c);
+
+        if (remaining < MIN_MERGE) {
+            int run = countRunAndMakeAscending(array, from, to, c);
+            pairInsertionSort(array, from, from + run, to, c);
+            return;
+        }
+
+        ObjectMerger<T> merger = new ObjectMerger<>(array, remaining, c);
+        int minRun = minRunLength(remaining);
+        int low = from;
+        do {
+            int run = countRunAndMakeAscending(array, low, to, c);
+            if (run < minRun) {
+                int force = Math.min(remaining, minRun);
+                pairInsertionSort(array, low, low + run, low + force, c);
+                run = force;
+            }
+
+            merger.pushRun(low, run);
+            merger.mergeCollapse();
+
+            low += run;
+            remaining -= run;
+        } while (remaining != 0);
+
+        merger.mergeForceCollapse();
+    }
+
+    /**
+     * Minimum length of a run, between MIN_MERGE / 2 and MIN_MERGE, chosen so that the length
+     * divided by it is a power of two, or slightly less. That keeps the final merges balanced.
+     *
+     * @param n length of the range;
+     *
+     * @return minimum run length;
+     */
+    private static int minRunLength (int n) {
+        int r = 0;  // Becomes 1 if any bit is shifted off.
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /**
+     * Size of the run stack. A run is always longer than the sum of the two above it, so the
+     * stack can't grow past the Fibonacci-like bound of the length.
+     *
+     * @param n length of the range;
+     *
+     * @return stack size;
+     */
+    private static int stackSize (int n) {
+        return n < 120 ? 5 : n < 1542 ? 10 : n < 119151 ? 24 : 49;
+    }
+
+    /**
+     * Length of the run starting at low. If the run is strictly descending, it is reversed.
+     * Descending runs must be strict, otherwise reversing them would break stability.
+     *
+     * @param array being sorted;
+     * @param low index where the run starts;
+     * @param high index, exclusive, of the end of the range;
+     *
+     * @return length of the run;
+     */
+    private static int countRunAndMakeAscending (int[] array, int low, int high) {
+        int runHigh = low + 1;
+        if (runHigh == high) return 1;
+
+        if (array[runHigh++] < array[low]) {
+            while (runHigh < high && array[runHigh] < array[runHigh - 1]) runHigh++;
+            reverse(array, low, runHigh);
+        } else {
+            while (runHigh < high && array[runHigh] >= array[runHigh - 1]) runHigh++;
+        }
+
+        return runHigh - low;
+    }
+
+    /**
+     * Reverses a range of the array.
+     *
+     * @param array being sorted;
+     * @param low index, inclusive;
+     * @param high index, exclusive;
+     */
+    private static void reverse (int[] array, int low, int high) {
+        high--;
+        while (low < high) {
+            int t = array[low];
+            array[low++] = array[high];
+            array[high--] = t;
+        }
+    }
+
+    /**
+     * Pair insertion sort of a range whose beginning is already sorted. Two elements are
+     * inserted at a time: the larger first, and then the smaller from where the larger stopped.
+     * There is no sentinel before the range, so the bound is checked. On ties, the later element
+     * is taken as the larger, which keeps it stable.
+     *
+     * @param array being sorted;
+     * @param low index, inclusive;
+     * @param start index of the first element not known to be sorted;
+     * @param high index, exclusive;
+     */
+    private static void pairInsertionSort (int[] array, int low, int start, int high) {
+        int k = start;
+        for (; k + 1 < high; k += 2) {
+            int a1 = array[k], a2 = array[k + 1];
+            if (a1 <= a2) { a1 = a2; a2 = array[k]; }
+
+            int j = k - 1;
+            while (j >= low && a1 < array[j]) {
+                array[j + 2] = array[j];
+                j--;
+            }
+            array[j + 2] = a1;
+
+            while (j >= low && a2 < array[j]) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = a2;
+        }
+
+        if (k < high) {
+            int last = array[k];
+            int j = k - 1;
+            while (j >= low && last < array[j]) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = last;
+        }
+    }
+
+    /**
+     * Stack of pending runs of an array of ints, and the merges between them.
+     */
+    private static final class IntMerger {
+        private final int[] array;
+        private final int maxTmp;
+        private int[] tmp = new int[0];
+
+        /** Number of consecutive wins before galloping, adapted to how well galloping pays. */
+        private int minGallop = MIN_GALLOP;
+
+        private final int[] runBase;
+        private final int[] runLength;
+        private int stackSize = 0;
+
+        private IntMerger (int[] array, int n) {
+            this.array = array;
+            this.maxTmp = n >>> 1;
+            int size = stackSize(n);
+            runBase = new int[size];
+            runLength = new int[size];
+        }
+
+        private void pushRun (int base, int length) {
+            runBase[stackSize] = base;
+            runLength[stackSize] = length;
+            stackSize++;
+        }
+
+        /**
+         * Merges runs until, for every three consecutive runs X, Y, Z, from the bottom:
+         * X > Y + Z and Y > Z. The second to last is merged with the smallest of its neighbours.
+         */
+        private void mergeCollapse () {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) n--;
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merges every run left on the stack.
+         */
+        private void mergeForceCollapse () {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merges the runs at i and i + 1 of the stack.
+         *
+         * @param i index of the first run in the stack;
+         */
+        private void mergeAt (int i) {
+            int base1 = runBase[i];
+            int length1 = runLength[i];
+            int base2 = runBase[i + 1];
+            int length2 = runLength[i + 1];
+
+            runLength[i] = length1 + length2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            stackSize--;
+
+            // Elements at the start of run 1 that are already in place.
+            int k = gallopRight(array[base2], array, base1, length1, 0);
+            base1 += k;
+            length1 -= k;
+            if (length1 == 0) return;
+
+            // Elements at the end of run 2 that are already in place.
+            length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1);
+            if (length2 == 0) return;
+
+            if (length1 <= length2) mergeLow(base1, length1, base2, length2);
+            else mergeHigh(base1, length1, base2, length2);
+        }
+
+        /**
+         * Merges two adjacent runs from the left, copying the first (shorter) one to the
+         * temporary array.
+         *
+         * @param base1 index of the first run;
+         * @param length1 of the first run;
+         * @param base2 index of the second run;
+         * @param length2 of the second run;
+         */
+        private void mergeLow (int base1, int length1, int base2, int length2) {
+            int[] a = array;
+            int[] tmp = ensureCapacity(length1);
+            System.arraycopy(a, base1, tmp, 0, length1);
+
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+
+            // The first element of run 2 goes first, otherwise it wouldn't be in the merge.
+            a[dest++] = a[cursor2++];
+            if (--length2 == 0) {
+                System.arraycopy(tmp, cursor1, a, dest, length1);
+                return;
+            }
+            if (length1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, length2);
+                a[dest + length2] = tmp[cursor1];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;  // Consecutive wins of run 1.
+                int count2 = 0;  // Consecutive wins of run 2.
+
+                // One element at a time, until a run starts winning consistently.
+                do {
+                    if (a[cursor2] < tmp[cursor1]) {
+                        a[dest++] = a[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 0) break outer;
+                    } else {
+                        a[dest++] = tmp[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 1) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                // Gallop, until it stops paying off.
+                do {
+                    count1 = gallopRight(a[cursor2], tmp, cursor1, length1, 0);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, cursor1, a, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        length1 -= count1;
+                        if (length1 <= 1) break outer;
+                    }
+                    a[dest++] = a[cursor2++];
+                    if (--length2 == 0) break outer;
+
+                    count2 = gallopLeft(tmp[cursor1], a, cursor2, length2, 0);
+                    if (count2 != 0) {
+                        System.arraycopy(a, cursor2, a, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        length2 -= count2;
+                        if (length2 == 0) break outer;
+                    }
+                    a[dest++] = tmp[cursor1++];
+                    if (--length1 == 1) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;  // Penalty for leaving gallop mode.
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if (length1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, length2);
+                a[dest + length2] = tmp[cursor1];
+            } else {
+                System.arraycopy(tmp, cursor1, a, dest, length1);
+            }
+        }
+
+        /**
+         * Merges two adjacent runs from the right, copying the second (shorter) one to the
+         * temporary array.
+         *
+         * @param base1 index of the first run;
+         * @param length1 of the first run;
+         * @param base2 index of the second run;
+         * @param length2 of the second run;
+         */
+        private void mergeHigh (int base1, int length1, int base2, int length2) {
+            int[] a = array;
+            int[] tmp = ensureCapacity(length2);
+            System.arraycopy(a, base2, tmp, 0, length2);
+
+            int cursor1 = base1 + length1 - 1;
+            int cursor2 = length2 - 1;
+            int dest = base2 + length2 - 1;
+
+            // The last element of run 1 goes last, otherwise it wouldn't be in the merge.
+            a[dest--] = a[cursor1--];
+            if (--length1 == 0) {
+                System.arraycopy(tmp, 0, a, dest - (length2 - 1), length2);
+                return;
+            }
+            if (length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+                a[dest] = tmp[cursor2];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (tmp[cursor2] < a[cursor1]) {
+                        a[dest--] = a[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 0) break outer;
+                    } else {
+                        a[dest--] = tmp[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 1) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = length1 - gallopRight(tmp[cursor2], a, base1, length1, length1 - 1);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        cursor1 -= count1;
+                        length1 -= count1;
+                        System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                        if (length1 == 0) break outer;
+                    }
+                    a[dest--] = tmp[cursor2--];
+                    if (--length2 == 1) break outer;
+
+                    count2 = length2 - gallopLeft(a[cursor1], tmp, 0, length2, length2 - 1);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        cursor2 -= count2;
+                        length2 -= count2;
+                        System.arraycopy(tmp, cursor2 + 1, a, dest + 1, count2);
+                        if (length2 <= 1) break outer;
+                    }
+                    a[dest--] = a[cursor1--];
+                    if (--length1 == 0) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if (length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+                a[dest] = tmp[cursor2];
+            } else {
+                System.arraycopy(tmp, 0, a, dest - (length2 - 1), length2);
+            }
+        }
+
+        /**
+         * The temporary array, grown to at least the given length.
+         *
+         * @param length needed;
+         *
+         * @return temporary array;
+         */
+        private int[] ensureCapacity (int length) {
+            if (tmp.length < length)
+                tmp = new int[Math.max(length, Math.min(tmp.length << 1, maxTmp))];
+            return tmp;
+        }
+    }
+
+    /**
+     * Index where the key would be inserted in a sorted range, before any equal elements.
+     * Gallops from the hint, checking offsets 1, 3, 7, 15..., and then does a binary search
+     * between the last two offsets.
+     *
+     * @param key to insert;
+     * @param array with the sorted range;
+     * @param base index of the range;
+     * @param length of the range;
+     * @param hint index in the range where the search starts;
+     *
+     * @return offset k from base, such that array[base + k - 1] < key <= array[base + k];
+     */
+    private static int gallopLeft (int key, int[] array, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (key > array[base + hint]) {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && key > array[base + hint + offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) offset = maxOffset;  // Overflow.
+            }
+            if (offset > maxOffset) offset = maxOffset;
+            lastOffset += hint;
+            offset += hint;
+        } else {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key <= array[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) offset = maxOffset;
+            }
+            if (offset > maxOffset) offset = maxOffset;
+            int t = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - t;
+        }
+
+        // Now array[base + lastOffset] < key <= array[base + offset].
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (key > array[base + mid]) lastOffset = mid + 1;
+            else offset = mid;
+        }
+        return offset;
+    }
+
+    /**
+     * Index where the key would be inserted in a sorted range, after any equal elements.
+     *
+     * @param key to insert;
+     * @param array with the sorted range;
+     * @param base index of the range;
+     * @param length of the range;
+     * @param hint index in the range where the search starts;
+     *
+     * @return offset k from base, such that array[base + k - 1] <= key < array[base + k];
+     */
+    private static int gallopRight (int key, int[] array, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (key < array[base + hint]) {
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && key < array[base + hint - offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) offset = maxOffset;
+            }
+            if (offset > maxOffset) offset = maxOffset;
+            int t = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - t;
+        } else {
+            int maxOffset = length - hint;
+            while (offset < maxOffset && key >= array[base + hint + offset]) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) offset = maxOffset;
+            }
+            if (offset > maxOffset) offset = maxOffset;
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        // Now array[base + lastOffset] <= key < array[base + offset].
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (key < array[base + mid]) offset = mid;
+            else lastOffset = mid + 1;
+        }
+        return offset;
+    }
+
+    // -------------------------------------------------------------------- Objects //
+
+    /**
+     * Length of the run starting at low. If the run is strictly descending, it is reversed.
+     *
+     * @param array being sorted;
+     * @param low index where the run starts;
+     * @param high index, exclusive, of the end of the range;
+     * @param c comparator;
+     *
+     * @return length of the run;
+     */
+    private static <T> int countRunAndMakeAscending (T[] array, int low, int high,
+                                                     Comparator<? super T> c) {
+        int runHigh = low + 1;
+        if (runHigh == high) return 1;
+
+        if (c.compare(array[runHigh++], array[low]) < 0) {
+            while (runHigh < high && c.compare(array[runHigh], array[runHigh - 1]) < 0) runHigh++;
+            reverse(array, low, runHigh);
+        } else {
+            while (runHigh < high && c.compare(array[runHigh], array[runHigh - 1]) >= 0) runHigh++;
+        }
+
+        return runHigh - low;
+    }
+
+    /**
+     * Reverses a range of the array.
+     *
+     * @param array being sorted;
+     * @param low index, inclusive;
+     * @param high index, exclusive;
+     */
+    private static void reverse (Object[] array, int low, int high) {
+        high--;
+        while (low < high) {
+            Object t = array[low];
+            array[low++] = array[high];
+            array[high--] = t;
+        }
+    }
+
+    /**
+     * Stable pair insertion sort of a range whose beginning is already sorted.
+     *
+     * @param array being sorted;
+     * @param low index, inclusive;
+     * @param start index of the first element not known to be sorted;
+     * @param high index, exclusive;
+     * @param c comparator;
+     */
+    private static <T> void pairInsertionSort (T[] array, int low, int start, int high,
+                                               Comparator<? super T> c) {
+        int k = start;
+        for (; k + 1 < high; k += 2) {
+            T a1 = array[k], a2 = array[k + 1];
+            if (c.compare(a1, a2) <= 0) { a1 = a2; a2 = array[k]; }
+
+            int j = k - 1;
+            while (j >= low && c.compare(a1, array[j]) < 0) {
+                array[j + 2] = array[j];
+                j--;
+            }
+            array[j + 2] = a1;
+
+            while (j >= low && c.compare(a2, array[j]) < 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = a2;
+        }
+
+        if (k < high) {
+            T last = array[k];
+            int j = k - 1;
+            while (j >= low && c.compare(last, array[j]) < 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = last;
+        }
+    }
+
+    /**
+     * Stack of pending runs of an array of objects, and the merges between them.
+     */
+    private static final class ObjectMerger<T> {
+        private final T[] array;
+        private final Comparator<? super T> c;
+        private final int maxTmp;
+        private T[] tmp;
+
+        private int minGallop = MIN_GALLOP;
+
+        private final int[] runBase;
+        private final int[] runLength;
+        private int stackSize = 0;
+
+        @SuppressWarnings("unchecked")
+        private ObjectMerger (T[] array, int n, Comparator<? super T> c) {
+            this.array = array;
+            this.c = c;
+            this.maxTmp = n >>> 1;
+            this.tmp = (T[]) new Object[0];
+            int size = stackSize(n);
+            runBase = new int[size];
+            runLength = new int[size];
+        }
+
+        private void pushRun (int base, int length) {
+            runBase[stackSize] = base;
+            runLength[stackSize] = length;
+            stackSize++;
+        }
+
+        private void mergeCollapse () {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) n--;
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeForceCollapse () {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        private void mergeAt (int i) {
+            int base1 = runBase[i];
+            int length1 = runLength[i];
+            int base2 = runBase[i + 1];
+            int length2 = runLength[i + 1];
+
+            runLength[i] = length1 + length2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            stackSize--;
+
+            int k = gallopRight(array[base2], array, base1, length1, 0);
+            base1 += k;
+            length1 -= k;
+            if (length1 == 0) return;
+
+            length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1);
+            if (length2 == 0) return;
+
+            if (length1 <= length2) mergeLow(base1, length1, base2, length2);
+            else mergeHigh(base1, length1, base2, length2);
+        }
+
+        private void mergeLow (int base1, int length1, int base2, int length2) {
+            T[] a = array;
+            T[] tmp = ensureCapacity(length1);
+            System.arraycopy(a, base1, tmp, 0, length1);
+
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+
+            a[dest++] = a[cursor2++];
+            if (--length2 == 0) {
+                System.arraycopy(tmp, cursor1, a, dest, length1);
+                return;
+            }
+            if (length1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, length2);
+                a[dest + length2] = tmp[cursor1];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (c.compare(a[cursor2], tmp[cursor1]) < 0) {
+                        a[dest++] = a[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 0) break outer;
+                    } else {
+                        a[dest++] = tmp[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 1) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = gallopRight(a[cursor2], tmp, cursor1, length1, 0);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, cursor1, a, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        length1 -= count1;
+                        if (length1 <= 1) break outer;
+                    }
+                    a[dest++] = a[cursor2++];
+                    if (--length2 == 0) break outer;
+
+                    count2 = gallopLeft(tmp[cursor1], a, cursor2, length2, 0);
+                    if (count2 != 0) {
+                        System.arraycopy(a, cursor2, a, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        length2 -= count2;
+                        if (length2 == 0) break outer;
+                    }
+                    a[dest++] = tmp[cursor1++];
+                    if (--length1 == 1) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if (length1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, length2);
+                a[dest + length2] = tmp[cursor1];
+            } else if (length1 == 0) {
+                // Only possible if the comparator says a < b and b <= a.
+                throw new IllegalArgumentException("Comparator is inconsistent.");
+            } else {
+                System.arraycopy(tmp, cursor1, a, dest, length1);
+            }
+        }
+
+        private void mergeHigh (int base1, int length1, int base2, int length2) {
+            T[] a = array;
+            T[] tmp = ensureCapacity(length2);
+            System.arraycopy(a, base2, tmp, 0, length2);
+
+            int cursor1 = base1 + length1 - 1;
+            int cursor2 = length2 - 1;
+            int dest = base2 + length2 - 1;
+
+            a[dest--] = a[cursor1--];
+            if (--length1 == 0) {
+                System.arraycopy(tmp, 0, a, dest - (length2 - 1), length2);
+                return;
+            }
+            if (length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+                a[dest] = tmp[cursor2];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (c.compare(tmp[cursor2], a[cursor1]) < 0) {
+                        a[dest--] = a[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 0) break outer;
+                    } else {
+                        a[dest--] = tmp[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 1) break outer;
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = length1 - gallopRight(tmp[cursor2], a, base1, length1, length1 - 1);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        cursor1 -= count1;
+                        length1 -= count1;
+                        System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                        if (length1 == 0) break outer;
+                    }
+                    a[dest--] = tmp[cursor2--];
+                    if (--length2 == 1) break outer;
+
+                    count2 = length2 - gallopLeft(a[cursor1], tmp, 0, length2, length2 - 1);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        cursor2 -= count2;
+                        length2 -= count2;
+                        System.arraycopy(tmp, cursor2 + 1, a, dest + 1, count2);
+                        if (length2 <= 1) break outer;
+                    }
+                    a[dest--] = a[cursor1--];
+                    if (--length1 == 0) break outer;
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;
+            }
+            this.minGallop = Math.max(minGallop, 1);
+
+            if (length2 == 1) {
+                dest -= length1;
+                cursor1 -= length1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, length1);
+                a[dest] = tmp[cursor2];
+            } else if (length2 == 0) {
+                throw new IllegalArgumentException("Comparator is inconsistent.");
+            } else {
+                System.arraycopy(tmp, 0, a, dest - (length2 - 1), length2);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private T[] ensureCapacity (int length) {
+            if (tmp.length < length)
+                tmp = (T[]) new Object[Math.max(length, Math.min(tmp.length << 1, maxTmp))];
+            return tmp;
+        }
+
+        private int gallopLeft (T key, T[] array, int base, int length, int hint) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (c.compare(key, array[base + hint]) > 0) {
+                int maxOffset = length - hint;
+                while (offset < maxOffset && c.compare(key, array[base + hint + offset]) > 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) offset = maxOffset;
+                }
+                if (offset > maxOffset) offset = maxOffset;
+                lastOffset += hint;
+                offset += hint;
+            } else {
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && c.compare(key, array[base + hint - offset]) <= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) offset = maxOffset;
+                }
+                if (offset > maxOffset) offset = maxOffset;
+                int t = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - t;
+            }
+
+            lastOffset++;
+            while (lastOffset < offset) {
+                int mid = lastOffset + ((offset - lastOffset) >>> 1);
+                if (c.compare(key, array[base + mid]) > 0) lastOffset = mid + 1;
+                else offset = mid;
+            }
+            return offset;
+        }
+
+        private int gallopRight (T key, T[] array, int base, int length, int hint) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (c.compare(key, array[base + hint]) < 0) {
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && c.compare(key, array[base + hint - offset]) < 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) offset = maxOffset;
+                }
+                if (offset > maxOffset) offset = maxOffset;
+                int t = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - t;
+            } else {
+                int maxOffset = length - hint;
+                while (offset < maxOffset && c.compare(key, array[base + hint + offset]) >= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) offset = maxOffset;
+                }
+                if (offset > maxOffset) offset = maxOffset;
+                lastOffset += hint;
+                offset += hint;
+            }
+
+            lastOffset++;
+            while (lastOffset < offset) {
+                int mid = lastOffset + ((offset - lastOffset) >>> 1);
+                if (c.compare(key, array[base + mid]) < 0) offset = mid;
+                else lastOffset = mid + 1;
+            }
+            return offset;
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Parallel stable merge sort.
+ * A single helper array is allocated up front, as a copy of the array. Each level of the
+ * recursion sorts the halves from one array into the other, and merges them back, alternating
+ * the roles of the two (ping-pong), so nothing is copied besides the merges themselves.
+ * The merges are also parallel: the middle element of the longer run is found in the other run
+ * with a binary search, which splits the merge in two independent ones.
+ */
+public class ParallelMergeSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private ParallelMergeSort () {}
+
+    /** Range length at which insertion sort is performed. */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /** Range length below which sorting is sequential. */
+    private static final int SORT_CUTOFF = 1 << 13;
+
+    /** Total length of two runs below which merging is sequential. */
+    private static final int MERGE_CUTOFF = 1 << 13;
+
+    /**
+     * Sorts an array of ints in the common pool.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (int[] array) {
+        sort(array, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
+     * @param pool where the tasks are forked;
+     */
+    public static void sort (int[] array, ForkJoinPool pool) {
+        if (array == null || array.length <= 1) return;
+        int[] helper = array.clone();
+        pool.invoke(new SortAction(helper, array, 0, array.length));
+    }
+
+    /**
+     * Sorts a range of src into dst. Both arrays must hold the same elements in the range.
+     */
+    private static final class SortAction extends RecursiveAction {
+        private final int[] src, dst;
+        private final int lo, hi;
+
+        private SortAction (int[] src, int[] dst, int lo, int hi) {
+            this.src = src;
+            this.dst = dst;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute () {
+            if (hi - lo < SORT_CUTOFF) {
+                mergeSort(src, dst, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            // Sort the halves into src, so they can be merged into dst.
+            invokeAll(
+                    new SortAction(dst, src, lo, mid),
+                    new SortAction(dst, src, mid, hi));
+            new MergeAction(src, lo, mid, mid, hi, dst, lo).compute();
+        }
+    }
+
+    /**
+     * Merges two sorted runs of src into dst, starting at out.
+     */
+    private static final class MergeAction extends RecursiveAction {
+        private final int[] src, dst;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        private MergeAction (int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.out = out;
+        }
+
+        protected void compute () {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 < MERGE_CUTOFF) {
+                merge(src, lo1, hi1, lo2, hi2, dst, out);
+                return;
+            }
+
+            // Split the longer run in the middle and find where that element goes in the other.
+            // Equal elements of the first run always end up before the ones of the second.
+            int mid1, mid2;
+            if (n1 >= n2) {
+                mid1 = (lo1 + hi1) >>> 1;
+                mid2 = lowerBound(src, lo2, hi2, src[mid1]);
+            } else {
+                mid2 = (lo2 + hi2) >>> 1;
+                mid1 = upperBound(src, lo1, hi1, src[mid2]);
+            }
+            int split = out + (mid1 - lo1) + (mid2 - lo2);
+
+            invokeAll(
+                    new MergeAction(src, lo1, mid1, lo2, mid2, dst, out),
+                    new MergeAction(src, mid1, hi1, mid2, hi2, dst, split));
+        }
+    }
+
+    /**
+     * Sequential ping-pong merge sort of a range of src into dst. Both arrays must hold the same
+     * elements in the range.
+     *
+     * @param src array where the halves are sorted;
+     * @param dst array where the range ends up sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void mergeSort (int[] src, int[] dst, int lo, int hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            if (hi - lo >= SortingNetworks.CUTOFF) SortingNetworks.sortingNetwork(dst, lo, hi - 1);
+            else insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(dst, src, lo, mid);
+        mergeSort(dst, src, mid, hi);
+
+        // Already in order, just copy.
+        if (src[mid - 1] <= src[mid]) {
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            return;
+        }
+        merge(src, lo, mid, mid, hi, dst, lo);
+    }
+
+    /**
+     * Stable merge of two sorted runs of src into dst.
+     *
+     * @param src array with the runs;
+     * @param lo1 start of the first run;
+     * @param hi1 end of the first run;
+     * @param lo2 start of the second run;
+     * @param hi2 end of the second run;
+     * @param dst destination array;
+     * @param out index of dst where the result starts;
+     */
+    private static void merge (int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out) {
+        while (lo1 < hi1 && lo2 < hi2)
+            dst[out++] = src[lo2] < src[lo1] ? src[lo2++] : src[lo1++];
+        if (lo1 < hi1) System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+        else if (lo2 < hi2) System.arraycopy(src, lo2, dst, out, hi2 - lo2);
+    }
+
+    /**
+     * Index of the first element in the range not less than the key.
+     *
+     * @param array sorted in the range;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param key to look for;
+     *
+     * @return index in [lo, hi];
+     */
+    private static int lowerBound (int[] array, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (array[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the first element in the range greater than the key.
+     *
+     * @param array sorted in the range;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param key to look for;
+     *
+     * @return index in [lo, hi];
+     */
+    private static int upperBound (int[] array, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (array[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void insertionSort (int[] array, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int ai = array[i];
+            int j = i - 1;
+            while (j >= lo && ai < array[j]) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Parallel in-place Dual-Pivot Quicksort. Ranges are partitioned with the same partition as
+ * {@link DualPivotQuickSort}, and the three parts are forked into a {@link ForkJoinPool}, whose
+ * idle workers steal them. Below the cutoff, ranges are sorted sequentially.
+ * Unlike {@link MultiThreadSort}, nothing is allocated besides the tasks.
+ */
+public class ParallelQuickSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private ParallelQuickSort () {}
+
+    /** Default range length below which the sort is sequential. */
+    public static final int DEFAULT_CUTOFF = 1 << 13;
+
+    /**
+     * Sorts an array of ints in the common pool, with the default cutoff.
+     *
+     * @param array being sorted;
+     */
+    public static void sort (int[] array) {
+        sort(array, ForkJoinPool.commonPool(), DEFAULT_CUTOFF);
+    }
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array being sorted;
+     * @param pool where the partitions are forked;
+     * @param cutoff range length below which the sort is sequential;
+     *
+     * @throws IllegalArgumentException if the cutoff is not greater than the insertion sort
+     *                                  threshold of {@link DualPivotQuickSort};
+     */
+    public static void sort (int[] array, ForkJoinPool pool, int cutoff) {
+        if (cutoff <= DualPivotQuickSort.INSERTION_SORT_THRESHOLD)
+            throw new IllegalArgumentException("Cutoff must be greater than " +
+                    DualPivotQuickSort.INSERTION_SORT_THRESHOLD);
+        if (array == null || array.length <= 1) return;
+        pool.invoke(new ParallelQuickSortAction(array, 0, array.length - 1, true,
+                SortUtils.depthLimit(array.length), cutoff));
+    }
+
+    private static final class ParallelQuickSortAction extends RecursiveAction {
+        private final int[] array;
+        private final int low, high;
+        private final boolean onTheLeft;
+        private final int depth;
+        private final int cutoff;
+
+        private ParallelQuickSortAction (int[] array, int low, int high, boolean onTheLeft,
+                                         int depth, int cutoff) {
+            this.array = array;
+            this.low = low;
+            this.high = high;
+            this.onTheLeft = onTheLeft;
+            this.depth = depth;
+            this.cutoff = cutoff;
+        }
+
+        protected void compute () {
+            // Past the depth limit, the sequential sort falls back to heap sort.
+            if (high - low < cutoff || depth == 0) {
+                DualPivotQuickSort.dualPivotQuickSort(array, low, high, onTheLeft, depth, null);
+                return;
+            }
+
+            // The pivots are in place before forking, so the parts never touch each other.
+            long pivots = DualPivotQuickSort.partition(array, low, high);
+            int L = (int) (pivots >>> 32) + 1;
+            int G = (int) pivots - 1;
+
+            ParallelQuickSortAction left =
+                    new ParallelQuickSortAction(array, low, L - 2, onTheLeft, depth - 1, cutoff);
+            ParallelQuickSortAction right =
+                    new ParallelQuickSortAction(array, G + 2, high, false, depth - 1, cutoff);
+            // If the pivots are equal, everything between them is too.
+            if (array[L - 1] == array[G + 1]) invokeAll(left, right);
+            else invokeAll(left,
+                    new ParallelQuickSortAction(array, L, G, false, depth - 1, cutoff), right);
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Parallel sample sort. Unlike {@link MultiThreadSort}, the array is split by value instead of by
+ * index, so there are no merges: once every element is in its bucket, the buckets are sorted
+ * independently.
+ * A random sample, a few times larger than the number of buckets, is sorted to pick the
+ * splitters, which are laid out as an implicit binary search tree. Then:
+ * <ol>
+ *     <li>each thread classifies a chunk of the array, remembering the bucket of every element
+ *     in a byte array and counting the size of each bucket in its chunk;</li>
+ *     <li>each thread scatters its chunk into its own slots of each bucket of a helper array;</li>
+ *     <li>each bucket is sorted with {@link DualPivotQuickSort} and copied back.</li>
+ * </ol>
+ * That's three passes over the array, and each chunk and each bucket is only touched by the
+ * thread that works on it.
+ * When the sample has repeated splitters, the input has values much more frequent than 1 in the
+ * number of buckets, which would all end up in a single bucket, sorted by a single thread. In
+ * that case, each bucket gets an equality bucket next to it, for the elements equal to its
+ * splitter, which is already sorted.
+ */
+public class ParallelSampleSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private ParallelSampleSort () {}
+
+    /** Array length below which the sort is sequential. */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    /** Buckets per thread, so that work stealing evens out the sizes of the buckets. */
+    private static final int BUCKETS_PER_THREAD = 4;
+
+    /**
+     * Maximum number of buckets, so that the index of a bucket fits in a byte, even with the
+     * equality buckets.
+     */
+    private static final int MAX_BUCKETS = 128;
+
+    /** Number of samples taken for each bucket. */
+    private static final int OVERSAMPLING = 32;
+
+    /**
+     * Sorts an array of ints in the common pool.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (int[] array) {
+        sort(array, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
+     * @param pool where the tasks are forked;
+     */
+    public static void sort (int[] array, ForkJoinPool pool) {
+        if (array == null || array.length <= 1) return;
+        int n = array.length;
+        int threads = pool.getParallelism();
+        if (n < SEQUENTIAL_THRESHOLD || threads == 1) {
+            DualPivotQuickSort.sort(array);
+            return;
+        }
+
+        // A power of two, so the splitter tree is complete.
+        int buckets = Math.min(MAX_BUCKETS,
+                Integer.highestOneBit(threads * BUCKETS_PER_THREAD - 1) << 1);
+        int[] splitters = splitters(array, buckets);
+        int[] tree = new int[buckets];
+        buildTree(tree, splitters, 1, 0, buckets - 1);
+
+        // Equality buckets, only when some splitters are repeated.
+        boolean equalBuckets = false;
+        for (int i = 1; i < buckets - 1; i++)
+            equalBuckets |= splitters[i] == splitters[i - 1];
+        int[] equal = equalBuckets ? splitters : null;
+        int classes = equalBuckets ? buckets << 1 : buckets;
+
+        int chunks = threads;
+        int[] bounds = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++)
+            bounds[c] = (int) ((long) n * c / chunks);
+
+        // Classify each chunk.
+        byte[] oracle = new byte[n];
+        int[][] counts = new int[chunks][classes];
+        pool.invoke(new ForEachAction(0, chunks, c ->
+                classify(array, tree, equal, oracle, counts[c], bounds[c], bounds[c + 1])));
+
+        // Offsets, by bucket and then by chunk.
+        int[] bucketStart = new int[classes + 1];
+        for (int b = 0, sum = 0; b < classes; b++) {
+            for (int c = 0; c < chunks; c++) {
+                int count = counts[c][b];
+                counts[c][b] = sum;
+                sum += count;
+            }
+            bucketStart[b + 1] = sum;
+        }
+
+        // Scatter each chunk.
+        int[] helper = new int[n];
+        pool.invoke(new ForEachAction(0, chunks, c ->
+                scatter(array, oracle, helper, counts[c], bounds[c], bounds[c + 1])));
+
+        // Sort each bucket. The equality buckets, at odd indices, are already sorted.
+        pool.invoke(new ForEachAction(0, classes, b -> {
+            int lo = bucketStart[b];
+            int hi = bucketStart[b + 1];
+            if (equal == null || (b & 1) == 0)
+                DualPivotQuickSort.sort(helper, lo, hi);
+            System.arraycopy(helper, lo, array, lo, hi - lo);
+        }));
+    }
+
+    /**
+     * Picks the splitters from a sorted random sample.
+     *
+     * @param array being sorted;
+     * @param buckets number of buckets, a power of two;
+     *
+     * @return sorted buckets - 1 splitters, followed by a copy of the last, which no element of
+     *         the last bucket can be equal to;
+     */
+    private static int[] splitters (int[] array, int buckets) {
+        ThreadLocalRandom ran = ThreadLocalRandom.current();
+        int[] sample = new int[buckets * OVERSAMPLING];
+        for (int i = 0; i < sample.length; i++)
+            sample[i] = array[ran.nextInt(array.length)];
+        DualPivotQuickSort.sort(sample);
+
+        int[] splitters = new int[buckets];
+        for (int i = 0; i < buckets - 1; i++)
+            splitters[i] = sample[(i + 1) * OVERSAMPLING];
+        splitters[buckets - 1] = splitters[buckets - 2];
+        return splitters;
+    }
+
+    /**
+     * Puts the middle splitter of a range at the node, and the halves in its children, so the
+     * splitters are laid out in breadth-first order: the root is at 1 and the children of i are
+     * at 2i and 2i + 1.
+     *
+     * @param tree being built;
+     * @param splitters sorted;
+     * @param node index in the tree;
+     * @param lo index of the first splitter, inclusive;
+     * @param hi index of the last splitter, exclusive;
+     */
+    private static void buildTree (int[] tree, int[] splitters, int node, int lo, int hi) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        tree[node] = splitters[mid];
+        buildTree(tree, splitters, node << 1, lo, mid);
+        buildTree(tree, splitters, (node << 1) + 1, mid + 1, hi);
+    }
+
+    /**
+     * Finds the bucket of every element of a chunk, and counts the elements in each bucket.
+     * Bucket b holds the elements greater than splitter b - 1 and less or equal to splitter b.
+     * With equality buckets, that's bucket 2b, or 2b + 1 for the elements equal to splitter b.
+     *
+     * @param array being sorted;
+     * @param tree of splitters;
+     * @param equal sorted splitters, or null without equality buckets;
+     * @param oracle where the bucket of each element is written;
+     * @param count of each bucket in the chunk;
+     * @param lo start of the chunk, inclusive;
+     * @param hi end of the chunk, exclusive;
+     */
+    private static void classify (int[] array, int[] tree, int[] equal, byte[] oracle,
+                                  int[] count, int lo, int hi) {
+        int buckets = tree.length;
+        for (int i = lo; i < hi; i++) {
+            int x = array[i];
+            int j = 1;
+            // The same number of steps for every element, and no branch to mispredict.
+            while (j < buckets)
+                j = (j << 1) + (x > tree[j] ? 1 : 0);
+            j -= buckets;
+            if (equal != null)
+                j = (j << 1) + (x == equal[j] ? 1 : 0);
+            oracle[i] = (byte) j;
+            count[j]++;
+        }
+    }
+
+    /**
+     * Writes the elements of a chunk to their buckets in the helper.
+     *
+     * @param array being sorted;
+     * @param oracle with the bucket of each element;
+     * @param helper array where the buckets are;
+     * @param offset where the next element of the chunk goes, for each bucket;
+     * @param lo start of the chunk, inclusive;
+     * @param hi end of the chunk, exclusive;
+     */
+    private static void scatter (int[] array, byte[] oracle, int[] helper, int[] offset,
+                                 int lo, int hi) {
+        for (int i = lo; i < hi; i++)
+            helper[offset[oracle[i] & 0xFF]++] = array[i];
+    }
+
+    /**
+     * Runs the body for every index of a range, splitting the range in halves so that the
+     * indices are stolen by idle workers.
+     */
+    private static final class ForEachAction extends RecursiveAction {
+        private final int lo, hi;
+        private final IntConsumer body;
+
+        private ForEachAction (int lo, int hi, IntConsumer body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        protected void compute () {
+            if (hi - lo == 1) {
+                body.accept(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(
+                    new ForEachAction(lo, mid, body),
+                    new ForEachAction(mid, hi, body));
+        }
+    }
+
+}
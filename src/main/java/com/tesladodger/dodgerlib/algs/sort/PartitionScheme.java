@@ -0,0 +1,20 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+
+/**
+ * How {@link QuickSort} and {@link DualPivotQuickSort} partition arrays of ints.
+ */
+public enum PartitionScheme {
+
+    /** The scanning loops, with a branch on every comparison. */
+    CLASSIC,
+
+    /**
+     * Block partitioning (BlockQuicksort, Edelkamp and Weiss). Comparisons are done over blocks of
+     * elements, only writing down the offsets of misplaced ones, and the offsets are then
+     * swapped in bulk. Neither step branches on the data, which avoids branch mispredictions on
+     * random input, at the cost of more instructions on input that is already ordered.
+     */
+    BLOCK
+
+}
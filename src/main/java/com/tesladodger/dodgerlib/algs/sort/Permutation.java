@@ -0,0 +1,150 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+
+/**
+ * Applies permutations, such as the ones returned by the argsorts, to arrays in place. A
+ * permutation p moves the element at p[i] to i, so applying the argsort of an array of keys to it
+ * sorts it, and applying it to any number of parallel arrays keeps them aligned with the keys.
+ * Each cycle of the permutation is followed once, with a single temporary, so nothing is boxed or
+ * copied. The visited indices are marked by complementing them in the permutation, which is
+ * restored before returning.
+ */
+public class Permutation {
+
+    /**
+     * Suppress constructor.
+     */
+    private Permutation () {}
+
+    /**
+     * The permutation that leaves everything in place.
+     *
+     * @param n length;
+     *
+     * @return array with the indices from 0 to n - 1;
+     */
+    public static int[] identity (int n) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) permutation[i] = i;
+        return permutation;
+    }
+
+    /**
+     * Moves the element at permutation[i] to i, for every i.
+     *
+     * @param permutation of the indices of the array;
+     * @param array to rearrange;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void apply (int[] permutation, int[] array) {
+        SortUtils.lengthCheck(permutation.length, array.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0) continue;
+            int x = array[start];
+            int i = start;
+            int j = permutation[i];
+            while (j != start) {
+                array[i] = array[j];
+                permutation[i] = ~j;
+                i = j;
+                j = permutation[i];
+            }
+            array[i] = x;
+            permutation[i] = ~j;
+        }
+        restore(permutation);
+    }
+
+    /**
+     * Moves the element at permutation[i] to i, for every i.
+     *
+     * @param permutation of the indices of the array;
+     * @param array to rearrange;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void apply (int[] permutation, long[] array) {
+        SortUtils.lengthCheck(permutation.length, array.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0) continue;
+            long x = array[start];
+            int i = start;
+            int j = permutation[i];
+            while (j != start) {
+                array[i] = array[j];
+                permutation[i] = ~j;
+                i = j;
+                j = permutation[i];
+            }
+            array[i] = x;
+            permutation[i] = ~j;
+        }
+        restore(permutation);
+    }
+
+    /**
+     * Moves the element at permutation[i] to i, for every i.
+     *
+     * @param permutation of the indices of the array;
+     * @param array to rearrange;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void apply (int[] permutation, double[] array) {
+        SortUtils.lengthCheck(permutation.length, array.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0) continue;
+            double x = array[start];
+            int i = start;
+            int j = permutation[i];
+            while (j != start) {
+                array[i] = array[j];
+                permutation[i] = ~j;
+                i = j;
+                j = permutation[i];
+            }
+            array[i] = x;
+            permutation[i] = ~j;
+        }
+        restore(permutation);
+    }
+
+    /**
+     * Moves the element at permutation[i] to i, for every i.
+     *
+     * @param permutation of the indices of the array;
+     * @param array to rearrange;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static <T> void apply (int[] permutation, T[] array) {
+        SortUtils.lengthCheck(permutation.length, array.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0) continue;
+            T x = array[start];
+            int i = start;
+            int j = permutation[i];
+            while (j != start) {
+                array[i] = array[j];
+                permutation[i] = ~j;
+                i = j;
+                j = permutation[i];
+            }
+            array[i] = x;
+            permutation[i] = ~j;
+        }
+        restore(permutation);
+    }
+
+    /**
+     * Undoes the marks left by following the cycles.
+     *
+     * @param permutation with every index complemented;
+     */
+    private static void restore (int[] permutation) {
+        for (int i = 0; i < permutation.length; i++) permutation[i] = ~permutation[i];
+    }
+
+}
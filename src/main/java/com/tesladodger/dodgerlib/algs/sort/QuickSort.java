@@ -1,5 +1,7 @@
 package com.tesladodger.dodgerlib.algs.sort;
 
+import java.util.Comparator;
+
 
 /**
  * QuickSort in-place, with median of three on the middle pivot, and insertion sort below a certain
@@ -14,60 +16,392 @@ public class QuickSort {
 
     /* Maximum array length at which insertion sort is performed. */
     @SuppressWarnings("FieldCanBeLocal")
-    private static final int INSERTION_SORT_THRESHOLD = 17;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
 
     /**
      * Sorts an array of ints.
      * @param array to be sorted;
      */
     public static void sort (int[] array) {
-        if (array == null || array.length <= 1) return;
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of ints.
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        quickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from));
+    }
+
+    /**
+     * Sorts an array of ints, choosing how to partition.
+     * @param array to be sorted;
+     * @param scheme of the partitions;
+     */
+    public static void sort (int[] array, PartitionScheme scheme) {
+        if (array == null) return;
+        sort(array, 0, array.length, scheme);
+    }
+
+    /**
+     * Sorts a range of an array of ints, choosing how to partition.
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param scheme of the partitions;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to, PartitionScheme scheme) {
+        if (scheme != PartitionScheme.BLOCK) {
+            sort(array, from, to);
+            return;
+        }
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        blockQuickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from),
+                BlockPartition.offsets());
+    }
+
+    /**
+     * Sorts an array of longs.
+     * @param array to be sorted;
+     */
+    public static void sort (long[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of longs.
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (long[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        quickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from));
+    }
+
+    /**
+     * Sorts an array of doubles.
+     * @param array to be sorted;
+     */
+    public static void sort (double[] array) {
+        if (array == null) return;
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts a range of an array of doubles. -0.0 is placed before 0.0 and NaNs at the end,
+     * like {@link java.util.Arrays#sort(double[])}.
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (double[] array, int from, int to) {
+        SortUtils.rangeCheck(array.length, from, to);
+        to = SortUtils.moveNaNsToEnd(array, from, to);
+        if (to - from <= 1) return;
+
+        int negativeZeros = SortUtils.clearNegativeZeros(array, from, to);
+        quickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from));
+        SortUtils.restoreNegativeZeros(array, from, to, negativeZeros);
+    }
+
+    /**
+     * Sorts an array of objects.
+     * @param array to be sorted;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     */
+    public static <T> void sort (T[] array, Comparator<? super T> c) {
+        if (array == null) return;
+        sort(array, 0, array.length, c);
+    }
+
+    /**
+     * Sorts a range of an array of objects.
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static <T> void sort (T[] array, int from, int to, Comparator<? super T> c) {
+        SortUtils.rangeCheck(array.length, from, to);
+        if (to - from <= 1) return;
+
+        quickSort(array, from, to - 1, true, SortUtils.depthLimit(to - from),
+                SortUtils.orNatural(c));
+    }
+
+    /**
+     * Finds the k-th smallest element of an array of ints (introselect). The array is
+     * rearranged so that the element is at index k, with no greater element before it and no
+     * smaller element after it.
+     * Each step partitions around the median of three, like the sort, but only keeps the part
+     * with k. If that takes too many steps, the pivots are chosen by median of medians instead,
+     * which bounds the time to O(n).
+     * @param array to select from;
+     * @param k index in the sorted order, from 0;
+     *
+     * @return the k-th smallest element;
+     *
+     * @throws ArrayIndexOutOfBoundsException if k is not an index of the array;
+     */
+    public static int select (int[] array, int k) {
+        if (k < 0 || k >= array.length)
+            throw new ArrayIndexOutOfBoundsException(k);
+
+        select(array, 0, array.length - 1, k);
+        return array[k];
+    }
+
+    /**
+     * Sorts the k smallest elements of an array of ints into its first k positions, in
+     * O(n + k log k). The order of the rest is undefined.
+     * @param array to be partially sorted;
+     * @param k number of elements to sort;
+     *
+     * @throws IllegalArgumentException if k is negative;
+     */
+    public static void partialSort (int[] array, int k) {
+        if (k < 0) throw new IllegalArgumentException("k (" + k + ") < 0");
+        if (k >= array.length) {
+            sort(array);
+            return;
+        }
+        if (k == 0) return;
+
+        select(array, 0, array.length - 1, k - 1);
+        if (k > 2) quickSort(array, 0, k - 2, true, SortUtils.depthLimit(k - 1));
+    }
+
+    /**
+     * Finds the k-th smallest element of an array of objects. See {@link #select(int[], int)}.
+     * @param array to select from;
+     * @param k index in the sorted order, from 0;
+     * @param c comparator, null for the natural ordering;
+     *
+     * @return the k-th smallest element;
+     *
+     * @throws ArrayIndexOutOfBoundsException if k is not an index of the array;
+     */
+    public static <T> T select (T[] array, int k, Comparator<? super T> c) {
+        if (k < 0 || k >= array.length)
+            throw new ArrayIndexOutOfBoundsException(k);
 
-        quickSort(array, 0, array.length - 1, true);
+        select(array, 0, array.length - 1, k, SortUtils.orNatural(c));
+        return array[k];
     }
 
     /**
-     * Recursive QuickSort method.
+     * Sorts the k smallest elements of an array of objects into its first k positions. The
+     * order of the rest is undefined.
+     * @param array to be partially sorted;
+     * @param k number of elements to sort;
+     * @param c comparator, null for the natural ordering;
+     *
+     * @throws IllegalArgumentException if k is negative;
+     */
+    public static <T> void partialSort (T[] array, int k, Comparator<? super T> c) {
+        if (k < 0) throw new IllegalArgumentException("k (" + k + ") < 0");
+        if (k >= array.length) {
+            sort(array, c);
+            return;
+        }
+        if (k == 0) return;
+
+        c = SortUtils.orNatural(c);
+        select(array, 0, array.length - 1, k - 1, c);
+        if (k > 2) quickSort(array, 0, k - 2, true, SortUtils.depthLimit(k - 1), c);
+    }
+
+    /**
+     * Sorts an array of int keys, and moves the values along with them, so that values[i] stays
+     * the value of keys[i].
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, int[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        if (keys.length <= 1) return;
+
+        quickSort(keys, values, 0, keys.length - 1, SortUtils.depthLimit(keys.length));
+    }
+
+    /**
+     * Sorts an array of int keys, and moves the values along with them. The keys are sorted
+     * along with their indices, which are then applied to the values with
+     * {@link Permutation#apply(int[], long[])}.
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static void sort (int[] keys, long[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Sorts an array of int keys, and moves the values along with them. The keys are sorted
+     * along with their indices, which are then applied to the values with
+     * {@link Permutation#apply(int[], Object[])}.
+     * @param keys to be sorted;
+     * @param values with the same length as the keys;
+     * @param <T> type of the values;
+     *
+     * @throws IllegalArgumentException if the lengths differ;
+     */
+    public static <T> void sort (int[] keys, T[] values) {
+        SortUtils.lengthCheck(keys.length, values.length);
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys, permutation);
+        Permutation.apply(permutation, values);
+    }
+
+    /**
+     * Indices that would sort an array of ints: keys[p[0]], keys[p[1]], ... is in order. The
+     * keys are not changed. The order of equal keys is not kept; see
+     * {@link MergeSort#argsort(int[])} for that.
+     * Applying the result with {@link Permutation} sorts the keys and any number of arrays
+     * parallel to them.
+     * @param keys to sort by;
+     *
+     * @return new permutation;
+     */
+    public static int[] argsort (int[] keys) {
+        int[] permutation = Permutation.identity(keys.length);
+        sort(keys.clone(), permutation);
+        return permutation;
+    }
+
+    /**
+     * Recursive QuickSort method. Falls back to heap sort when the recursion gets too deep.
      * @param array being sorted;
      * @param low index;
      * @param high index;
+     * @param onTheLeft whether the range is the leftmost, without a sentinel before it;
+     * @param depth partitions left before falling back to heap sort;
      */
-    private static void quickSort (int[] array, int low, int high, boolean onTheLeft) {
-        if ((high - low) < INSERTION_SORT_THRESHOLD) {
-            if (onTheLeft) insertionSort(array, low, high);
-            else pairInsertionSort(array, low, high);
-            return;
-        }
+    private static void quickSort (int[] array, int low, int high, boolean onTheLeft,
+                                   int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
 
-        // Since median of three is applied, low and high are already sorted.
-        int i = low+1;
-        int j = high-1;
-        int mid = (low + high) >>> 1;
+            // Since median of three is applied, low and high are already sorted.
+            int i = low+1;
+            int j = high-1;
+            int mid = (low + high) >>> 1;
 
-        medianOfThree(array, low, mid, high);
+            medianOfThree(array, low, mid, high);
 
-        int pivot = array[mid];
+            int pivot = array[mid];
 
-        // Partition.
-        while (i < j) {
-            // Find a value in the left list larger or equal to the pivot.
-            while (array[i] < pivot) i++;
+            // Partition.
+            while (i < j) {
+                // Find a value in the left list larger or equal to the pivot.
+                while (array[i] < pivot) i++;
 
-            // Find a value in the right list smaller or equal to the pivot.
-            while (array[j] > pivot) j--;
+                // Find a value in the right list smaller or equal to the pivot.
+                while (array[j] > pivot) j--;
 
-            // Swap them.
-            if (i <= j) {
-                swap(array, i, j);
-                i++; j--;
+                // Swap them.
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            // Recurse on the smaller partition and loop on the larger one, so the stack
+            // never holds more than log(n) calls.
+            if (j - low < high - i) {
+                if (low < j) quickSort(array, low, j, onTheLeft, depth);
+                low = i;
+                onTheLeft = false;
+            } else {
+                if (i < high) quickSort(array, i, high, false, depth);
+                high = j;
             }
         }
 
-        // Recursive call on both partitions.
-        if (low < j)
-            quickSort(array, low, j, onTheLeft);
-        if (i < high)
-            quickSort(array, i, high, false);
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * QuickSort with block partitions. The pivot is moved to the start of the range while the
+     * rest is partitioned, and then put between the parts.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft whether the range is the leftmost, without a sentinel before it;
+     * @param depth partitions left before falling back to heap sort;
+     * @param offsets buffer for the partitions;
+     */
+    private static void blockQuickSort (int[] array, int low, int high, boolean onTheLeft,
+                                        int depth, int[] offsets) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            int mid = (low + high) >>> 1;
+            medianOfThree(array, low, mid, high);
+            swap(array, low, mid);
+
+            int p = BlockPartition.partition(array, low + 1, high, array[low], offsets) - 1;
+            swap(array, low, p);
+
+            if (p - low < high - p) {
+                if (low < p - 1) blockQuickSort(array, low, p - 1, onTheLeft, depth, offsets);
+                low = p + 1;
+                onTheLeft = false;
+            } else {
+                if (p + 1 < high) blockQuickSort(array, p + 1, high, false, depth, offsets);
+                high = p - 1;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
     }
 
     /**
@@ -77,8 +411,8 @@ public class QuickSort {
      * @param high index;
      */
     private static void insertionSort (int[] array, int low, int high) {
-        for (int i = low, j = i; i <= high; j = ++i) {
-            int ai = array[i];
+        for (int i = low, j = i; i < high; j = ++i) {
+            int ai = array[i + 1];
             while (ai < array[j]) {
                 array[j+1] = array[j];
                 if (j-- == low) {
@@ -103,7 +437,7 @@ public class QuickSort {
         for (int k = low; ++low <= high; k = ++low) {
             int a1 = array[k], a2 = array[low];
 
-            if (a1 < a2) a2 = a1; a1 = array[low];
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
             while (a1 < array[--k]) array[k + 2] = array[k];
             array[++k + 1] = a1;
 
@@ -147,4 +481,626 @@ public class QuickSort {
         array[j] = temp;
     }
 
+    /**
+     * Iterative introselect. Partitions like the sort, but without the sentinels, since the
+     * pivot may come from anywhere in the range: the scans stop at the pivot itself on the first
+     * pass, and at the swapped elements afterwards.
+     * @param array to select from;
+     * @param low index;
+     * @param high index;
+     * @param k index being selected, between low and high;
+     */
+    private static void select (int[] array, int low, int high, int k) {
+        // Steps with median of three before switching to median of medians.
+        int budget = SortUtils.depthLimit(high - low + 1);
+
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            int pivot;
+            if (budget-- > 0) {
+                int mid = (low + high) >>> 1;
+                medianOfThree(array, low, mid, high);
+                pivot = array[mid];
+            } else {
+                pivot = array[medianOfMedians(array, low, high)];
+            }
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (array[i] < pivot) i++;
+                while (array[j] > pivot) j--;
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            // Everything between j and i is equal to the pivot.
+            if (k <= j) high = j;
+            else if (k >= i) low = i;
+            else return;
+        }
+        insertionSort(array, low, high);
+    }
+
+    /**
+     * Median of medians of groups of five. The medians are gathered at the start of the range,
+     * and their median is selected there.
+     * @param array to select from;
+     * @param low index;
+     * @param high index;
+     *
+     * @return index of the median of medians;
+     */
+    private static int medianOfMedians (int[] array, int low, int high) {
+        int medians = low;
+        for (int g = low; g <= high; g += 5) {
+            int groupHigh = Math.min(g + 4, high);
+            insertionSort(array, g, groupHigh);
+            swap(array, medians++, (g + groupHigh) >>> 1);
+        }
+        int mid = (low + medians - 1) >>> 1;
+        select(array, low, medians - 1, mid);
+        return mid;
+    }
+
+    // -------------------------------------------------------------------- Longs //
+
+    /**
+     * Recursive QuickSort method. Falls back to heap sort when the recursion gets too deep.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft whether the range is the leftmost, without a sentinel before it;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void quickSort (long[] array, int low, int high, boolean onTheLeft,
+                                   int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            // Since median of three is applied, low and high are already sorted.
+            int i = low+1;
+            int j = high-1;
+            int mid = (low + high) >>> 1;
+
+            medianOfThree(array, low, mid, high);
+
+            long pivot = array[mid];
+
+            // Partition.
+            while (i < j) {
+                // Find a value in the left list larger or equal to the pivot.
+                while (array[i] < pivot) i++;
+
+                // Find a value in the right list smaller or equal to the pivot.
+                while (array[j] > pivot) j--;
+
+                // Swap them.
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            // Recurse on the smaller partition and loop on the larger one, so the stack
+            // never holds more than log(n) calls.
+            if (j - low < high - i) {
+                if (low < j) quickSort(array, low, j, onTheLeft, depth);
+                low = i;
+                onTheLeft = false;
+            } else {
+                if (i < high) quickSort(array, i, high, false, depth);
+                high = j;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * Normal insertion sort, called on the left part in order to not go out of bounds.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (long[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            long ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort I shamelessly copied from JDK 8.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void pairInsertionSort (long[] array, int low, int high) {
+        do {
+            if (low >= high) return;
+        } while (array[++low] >= array[low - 1]);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            long a1 = array[k], a2 = array[low];
+
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
+            while (a1 < array[--k]) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (a2 < array[--k]) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        long last = array[high];
+
+        while (last < array[--high]) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * Swaps low, middle and high, so that the pivot (middle) is the median.
+     * The three elements are sorted, there's no need to check them further.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void medianOfThree (long[] array, int low, int mid, int high) {
+        if (array[high] < array[low]) {
+            swap(array, high, low);
+        }
+        if (array[mid] < array[low]) {
+            swap(array, mid, low);
+        }
+        if (array[high] < array[mid]) {
+            swap(array, high, mid);
+        }
+    }
+
+    /**
+     * Swap elements by index.
+     * @param array being sorted;
+     * @param i index;
+     * @param j index;
+     */
+    private static void swap (long[] array, int i, int j) {
+        long temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    // -------------------------------------------------------------------- Doubles //
+
+    /**
+     * Recursive QuickSort method. Falls back to heap sort when the recursion gets too deep.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft whether the range is the leftmost, without a sentinel before it;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void quickSort (double[] array, int low, int high, boolean onTheLeft,
+                                   int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high);
+                return;
+            }
+
+            // Since median of three is applied, low and high are already sorted.
+            int i = low+1;
+            int j = high-1;
+            int mid = (low + high) >>> 1;
+
+            medianOfThree(array, low, mid, high);
+
+            double pivot = array[mid];
+
+            // Partition.
+            while (i < j) {
+                // Find a value in the left list larger or equal to the pivot.
+                while (array[i] < pivot) i++;
+
+                // Find a value in the right list smaller or equal to the pivot.
+                while (array[j] > pivot) j--;
+
+                // Swap them.
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            // Recurse on the smaller partition and loop on the larger one, so the stack
+            // never holds more than log(n) calls.
+            if (j - low < high - i) {
+                if (low < j) quickSort(array, low, j, onTheLeft, depth);
+                low = i;
+                onTheLeft = false;
+            } else {
+                if (i < high) quickSort(array, i, high, false, depth);
+                high = j;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1)
+            SortingNetworks.sortingNetwork(array, low, high);
+        else if (onTheLeft) insertionSort(array, low, high);
+        else pairInsertionSort(array, low, high);
+    }
+
+    /**
+     * Normal insertion sort, called on the left part in order to not go out of bounds.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void insertionSort (double[] array, int low, int high) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            double ai = array[i + 1];
+            while (ai < array[j]) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort I shamelessly copied from JDK 8.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void pairInsertionSort (double[] array, int low, int high) {
+        do {
+            if (low >= high) return;
+        } while (array[++low] >= array[low - 1]);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            double a1 = array[k], a2 = array[low];
+
+            if (a1 < a2) { a2 = a1; a1 = array[low]; }
+            while (a1 < array[--k]) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (a2 < array[--k]) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        double last = array[high];
+
+        while (last < array[--high]) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * Swaps low, middle and high, so that the pivot (middle) is the median.
+     * The three elements are sorted, there's no need to check them further.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     */
+    private static void medianOfThree (double[] array, int low, int mid, int high) {
+        if (array[high] < array[low]) {
+            swap(array, high, low);
+        }
+        if (array[mid] < array[low]) {
+            swap(array, mid, low);
+        }
+        if (array[high] < array[mid]) {
+            swap(array, high, mid);
+        }
+    }
+
+    /**
+     * Swap elements by index.
+     * @param array being sorted;
+     * @param i index;
+     * @param j index;
+     */
+    private static void swap (double[] array, int i, int j) {
+        double temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    // -------------------------------------------------------------------- Objects //
+
+    /**
+     * Recursive QuickSort method for objects.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param onTheLeft whether the range is the leftmost, without a sentinel before it;
+     * @param depth partitions left before falling back to heap sort;
+     * @param c comparator;
+     */
+    private static <T> void quickSort (T[] array, int low, int high, boolean onTheLeft,
+                                       int depth, Comparator<? super T> c) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(array, low, high, c);
+                return;
+            }
+
+            // Since median of three is applied, low and high are already sorted.
+            int i = low+1;
+            int j = high-1;
+            int mid = (low + high) >>> 1;
+
+            medianOfThree(array, low, mid, high, c);
+
+            T pivot = array[mid];
+
+            // Partition.
+            while (i < j) {
+                // Find a value in the left list larger or equal to the pivot.
+                while (c.compare(array[i], pivot) < 0) i++;
+
+                // Find a value in the right list smaller or equal to the pivot.
+                while (c.compare(array[j], pivot) > 0) j--;
+
+                // Swap them.
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            // Recurse on the smaller partition and loop on the larger one, so the stack
+            // never holds more than log(n) calls.
+            if (j - low < high - i) {
+                if (low < j) quickSort(array, low, j, onTheLeft, depth, c);
+                low = i;
+                onTheLeft = false;
+            } else {
+                if (i < high) quickSort(array, i, high, false, depth, c);
+                high = j;
+            }
+        }
+
+        if (onTheLeft) insertionSort(array, low, high, c);
+        else pairInsertionSort(array, low, high, c);
+    }
+
+    /**
+     * Normal insertion sort for objects.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void insertionSort (T[] array, int low, int high, Comparator<? super T> c) {
+        for (int i = low, j = i; i < high; j = ++i) {
+            T ai = array[i + 1];
+            while (c.compare(ai, array[j]) < 0) {
+                array[j+1] = array[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            array[j+1] = ai;
+        }
+    }
+
+    /**
+     * Pair insertion sort for objects.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void pairInsertionSort (T[] array, int low, int high,
+                                               Comparator<? super T> c) {
+        do {
+            if (low >= high) return;
+        } while (c.compare(array[++low], array[low - 1]) >= 0);
+
+        for (int k = low; ++low <= high; k = ++low) {
+            T a1 = array[k], a2 = array[low];
+
+            if (c.compare(a1, a2) < 0) { a2 = a1; a1 = array[low]; }
+            while (c.compare(a1, array[--k]) < 0) array[k + 2] = array[k];
+            array[++k + 1] = a1;
+
+            while (c.compare(a2, array[--k]) < 0) array[k + 1] = array[k];
+            array[k + 1] = a2;
+        }
+        T last = array[high];
+
+        while (c.compare(last, array[--high]) < 0) array[high + 1] = array[high];
+        array[high + 1] = last;
+    }
+
+    /**
+     * Median of three for objects.
+     * @param array being sorted;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     */
+    private static <T> void medianOfThree (T[] array, int low, int mid, int high,
+                                           Comparator<? super T> c) {
+        if (c.compare(array[high], array[low]) < 0) {
+            swap(array, high, low);
+        }
+        if (c.compare(array[mid], array[low]) < 0) {
+            swap(array, mid, low);
+        }
+        if (c.compare(array[high], array[mid]) < 0) {
+            swap(array, high, mid);
+        }
+    }
+
+    /**
+     * Swap objects by index.
+     * @param array being sorted;
+     * @param i index;
+     * @param j index;
+     */
+    private static void swap (Object[] array, int i, int j) {
+        Object temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Iterative introselect for objects.
+     * @param array to select from;
+     * @param low index;
+     * @param high index;
+     * @param k index being selected, between low and high;
+     * @param c comparator;
+     */
+    private static <T> void select (T[] array, int low, int high, int k,
+                                    Comparator<? super T> c) {
+        int budget = SortUtils.depthLimit(high - low + 1);
+
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            T pivot;
+            if (budget-- > 0) {
+                int mid = (low + high) >>> 1;
+                medianOfThree(array, low, mid, high, c);
+                pivot = array[mid];
+            } else {
+                pivot = array[medianOfMedians(array, low, high, c)];
+            }
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (c.compare(array[i], pivot) < 0) i++;
+                while (c.compare(array[j], pivot) > 0) j--;
+                if (i <= j) {
+                    swap(array, i, j);
+                    i++; j--;
+                }
+            }
+
+            if (k <= j) high = j;
+            else if (k >= i) low = i;
+            else return;
+        }
+        insertionSort(array, low, high, c);
+    }
+
+    /**
+     * Median of medians of groups of five, for objects.
+     * @param array to select from;
+     * @param low index;
+     * @param high index;
+     * @param c comparator;
+     *
+     * @return index of the median of medians;
+     */
+    private static <T> int medianOfMedians (T[] array, int low, int high,
+                                            Comparator<? super T> c) {
+        int medians = low;
+        for (int g = low; g <= high; g += 5) {
+            int groupHigh = Math.min(g + 4, high);
+            insertionSort(array, g, groupHigh, c);
+            swap(array, medians++, (g + groupHigh) >>> 1);
+        }
+        int mid = (low + medians - 1) >>> 1;
+        select(array, low, medians - 1, mid, c);
+        return mid;
+    }
+
+
+    // -------------------------------------------------------------------- Key-value pairs //
+
+    /**
+     * Recursive QuickSort method, moving the values along with the keys. Falls back to heap
+     * sort when the recursion gets too deep.
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param low index;
+     * @param high index;
+     * @param depth partitions left before falling back to heap sort;
+     */
+    private static void quickSort (int[] keys, int[] values, int low, int high, int depth) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                HeapSort.heapSort(keys, values, low, high);
+                return;
+            }
+
+            int i = low+1;
+            int j = high-1;
+            int mid = (low + high) >>> 1;
+
+            if (keys[mid] < keys[low]) swap(keys, values, low, mid);
+            if (keys[high] < keys[low]) swap(keys, values, low, high);
+            if (keys[high] < keys[mid]) swap(keys, values, mid, high);
+
+            int pivot = keys[mid];
+
+            while (i < j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    swap(keys, values, i, j);
+                    i++; j--;
+                }
+            }
+
+            if (j - low < high - i) {
+                if (low < j) quickSort(keys, values, low, j, depth);
+                low = i;
+            } else {
+                if (i < high) quickSort(keys, values, i, high, depth);
+                high = j;
+            }
+        }
+
+        if (high - low >= SortingNetworks.CUTOFF - 1) {
+            SortingNetworks.sortingNetwork(keys, values, low, high);
+            return;
+        }
+
+        for (int i = low, j = i; i < high; j = ++i) {
+            int k = keys[i + 1];
+            int v = values[i + 1];
+            while (k < keys[j]) {
+                keys[j+1] = keys[j];
+                values[j+1] = values[j];
+                if (j-- == low) {
+                    break;
+                }
+            }
+            keys[j+1] = k;
+            values[j+1] = v;
+        }
+    }
+
+    /**
+     * Swaps two keys and their values.
+     * @param keys array;
+     * @param values array;
+     * @param i index;
+     * @param j index;
+     */
+    private static void swap (int[] keys, int[] values, int i, int j) {
+        int t = keys[i];
+        keys[i] = keys[j];
+        keys[j] = t;
+        t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+
 }
@@ -0,0 +1,615 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.stream.IntStream;
+
+
+/**
+ * Radix sort with 8 bit digits.
+ * The LSD (least significant digit first) sorts are stable and use a helper array, swapping
+ * roles with the original at each pass. Every histogram is counted in a single pass over the
+ * array, and passes where every element has the same digit are skipped.
+ * Signed keys are handled by flipping the sign bit of the most significant digit. Floats and
+ * doubles are mapped to ints and longs whose unsigned order is the order of the numbers (negative
+ * numbers have all their bits flipped, positive numbers only the sign bit).
+ * The MSD (most significant digit first) sorts are in-place (American flag sort), for when there's
+ * no memory for the helper array. Since floats and doubles can't hold their keys, the in-place
+ * sorts of those compute the key of an element each time they need one.
+ */
+public class RadixSort {
+
+    /**
+     * Suppress constructor.
+     */
+    private RadixSort () {}
+
+    /** Number of bits in a digit. */
+    private static final int DIGIT_BITS = 8;
+
+    /** Number of possible digits. */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /** Mask of a digit. */
+    private static final int MASK = RADIX - 1;
+
+    /** Range length below which the in-place sort uses insertion sort. */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /** Array length below which the parallel sort is sequential. */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Sorts an array of ints.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (int[] array) {
+        if (array == null || array.length <= 1) return;
+        lsd(array, new int[array.length], true);
+    }
+
+    /**
+     * Sorts an array of longs.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (long[] array) {
+        if (array == null || array.length <= 1) return;
+        lsd(array, new long[array.length], true);
+    }
+
+    /**
+     * Sorts an array of floats, in the same order as {@link java.util.Arrays#sort(float[])}:
+     * -0.0 before 0.0 and NaN at the end. NaNs are replaced by the canonical NaN.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (float[] array) {
+        if (array == null || array.length <= 1) return;
+        int n = array.length;
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            int bits = Float.floatToIntBits(array[i]);
+            keys[i] = bits ^ ((bits >> 31) | 0x80000000);
+        }
+        lsd(keys, new int[n], false);
+        for (int i = 0; i < n; i++) {
+            int key = keys[i];
+            array[i] = Float.intBitsToFloat(key ^ ((~key >> 31) | 0x80000000));
+        }
+    }
+
+    /**
+     * Sorts an array of doubles, in the same order as {@link java.util.Arrays#sort(double[])}:
+     * -0.0 before 0.0 and NaN at the end. NaNs are replaced by the canonical NaN.
+     *
+     * @param array to be sorted;
+     */
+    public static void sort (double[] array) {
+        if (array == null || array.length <= 1) return;
+        int n = array.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            long bits = Double.doubleToLongBits(array[i]);
+            keys[i] = bits ^ ((bits >> 63) | 0x8000000000000000L);
+        }
+        lsd(keys, new long[n], false);
+        for (int i = 0; i < n; i++) {
+            long key = keys[i];
+            array[i] = Double.longBitsToDouble(key ^ ((~key >> 63) | 0x8000000000000000L));
+        }
+    }
+
+    /**
+     * LSD radix sort of ints.
+     *
+     * @param array being sorted;
+     * @param helper array of the same length;
+     * @param signed whether the keys are signed;
+     */
+    private static void lsd (int[] array, int[] helper, boolean signed) {
+        int n = array.length;
+        int passes = Integer.SIZE / DIGIT_BITS;
+
+        // Count every digit in one go.
+        int[][] counts = new int[passes][RADIX];
+        for (int x : array) {
+            for (int p = 0; p < passes; p++)
+                counts[p][digit(x, p, signed && p == passes - 1)]++;
+        }
+
+        int[] src = array, dst = helper;
+        for (int p = 0; p < passes; p++) {
+            boolean flip = signed && p == passes - 1;
+            int[] count = counts[p];
+            if (count[digit(src[0], p, flip)] == n) continue;
+
+            toOffsets(count);
+            for (int x : src)
+                dst[count[digit(x, p, flip)]++] = x;
+
+            int[] t = src; src = dst; dst = t;
+        }
+        if (src != array) System.arraycopy(src, 0, array, 0, n);
+    }
+
+    /**
+     * LSD radix sort of longs.
+     *
+     * @param array being sorted;
+     * @param helper array of the same length;
+     * @param signed whether the keys are signed;
+     */
+    private static void lsd (long[] array, long[] helper, boolean signed) {
+        int n = array.length;
+        int passes = Long.SIZE / DIGIT_BITS;
+
+        int[][] counts = new int[passes][RADIX];
+        for (long x : array) {
+            for (int p = 0; p < passes; p++)
+                counts[p][digit(x, p, signed && p == passes - 1)]++;
+        }
+
+        long[] src = array, dst = helper;
+        for (int p = 0; p < passes; p++) {
+            boolean flip = signed && p == passes - 1;
+            int[] count = counts[p];
+            if (count[digit(src[0], p, flip)] == n) continue;
+
+            toOffsets(count);
+            for (long x : src)
+                dst[count[digit(x, p, flip)]++] = x;
+
+            long[] t = src; src = dst; dst = t;
+        }
+        if (src != array) System.arraycopy(src, 0, array, 0, n);
+    }
+
+    /**
+     * Sorts an array of ints in place, with MSD radix sort (American flag sort). Not stable, but
+     * for ints that makes no difference.
+     *
+     * @param array to be sorted;
+     */
+    public static void sortInPlace (int[] array) {
+        if (array == null || array.length <= 1) return;
+        americanFlag(array, 0, array.length, Integer.SIZE / DIGIT_BITS - 1);
+    }
+
+    /**
+     * Distributes the range in buckets by the digit in place, then sorts each bucket by the next
+     * digit.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param p index of the digit, from the least significant;
+     */
+    private static void americanFlag (int[] array, int lo, int hi, int p) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            if (hi - lo >= SortingNetworks.CUTOFF && hi - lo <= SortingNetworks.MAX_LENGTH)
+                SortingNetworks.sortingNetwork(array, lo, hi - 1);
+            else insertionSort(array, lo, hi);
+            return;
+        }
+        boolean flip = p == Integer.SIZE / DIGIT_BITS - 1;
+
+        int[] count = new int[RADIX];
+        for (int i = lo; i < hi; i++)
+            count[digit(array[i], p, flip)]++;
+
+        // next[d] is where the next element with digit d goes, end[d] is the end of its bucket.
+        int[] next = new int[RADIX];
+        int[] end = new int[RADIX];
+        for (int d = 0, sum = lo; d < RADIX; d++) {
+            next[d] = sum;
+            sum += count[d];
+            end[d] = sum;
+        }
+
+        // Swap each element to its bucket until every bucket is full.
+        for (int d = 0; d < RADIX; d++) {
+            while (next[d] < end[d]) {
+                int x = array[next[d]];
+                int xd = digit(x, p, flip);
+                if (xd == d) {
+                    next[d]++;
+                } else {
+                    array[next[d]] = array[next[xd]];
+                    array[next[xd]++] = x;
+                }
+            }
+        }
+
+        if (p > 0) {
+            for (int d = 0, start = lo; d < RADIX; start = end[d++]) {
+                if (end[d] - start > 1)
+                    americanFlag(array, start, end[d], p - 1);
+            }
+        }
+    }
+
+    /**
+     * Sorts an array of longs in place, with MSD radix sort (American flag sort).
+     *
+     * @param array to be sorted;
+     */
+    public static void sortInPlace (long[] array) {
+        if (array == null || array.length <= 1) return;
+        americanFlag(array, 0, array.length, Long.SIZE / DIGIT_BITS - 1);
+    }
+
+    /**
+     * Same as the int version.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param p index of the digit, from the least significant;
+     */
+    private static void americanFlag (long[] array, int lo, int hi, int p) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            if (hi - lo >= SortingNetworks.CUTOFF && hi - lo <= SortingNetworks.MAX_LENGTH)
+                SortingNetworks.sortingNetwork(array, lo, hi - 1);
+            else insertionSort(array, lo, hi);
+            return;
+        }
+        boolean flip = p == Long.SIZE / DIGIT_BITS - 1;
+
+        int[] count = new int[RADIX];
+        for (int i = lo; i < hi; i++)
+            count[digit(array[i], p, flip)]++;
+
+        int[] next = new int[RADIX];
+        int[] end = new int[RADIX];
+        for (int d = 0, sum = lo; d < RADIX; d++) {
+            next[d] = sum;
+            sum += count[d];
+            end[d] = sum;
+        }
+
+        for (int d = 0; d < RADIX; d++) {
+            while (next[d] < end[d]) {
+                long x = array[next[d]];
+                int xd = digit(x, p, flip);
+                if (xd == d) {
+                    next[d]++;
+                } else {
+                    array[next[d]] = array[next[xd]];
+                    array[next[xd]++] = x;
+                }
+            }
+        }
+
+        if (p > 0) {
+            for (int d = 0, start = lo; d < RADIX; start = end[d++]) {
+                if (end[d] - start > 1)
+                    americanFlag(array, start, end[d], p - 1);
+            }
+        }
+    }
+
+    /**
+     * Sorts an array of floats in place, with MSD radix sort (American flag sort).
+     * The order is the same as {@link #sort(float[])}, but NaNs are left as they are.
+     *
+     * @param array to be sorted;
+     */
+    public static void sortInPlace (float[] array) {
+        if (array == null || array.length <= 1) return;
+        americanFlag(array, 0, array.length, Integer.SIZE / DIGIT_BITS - 1);
+    }
+
+    /**
+     * Same as the int version.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param p index of the digit, from the least significant;
+     */
+    private static void americanFlag (float[] array, int lo, int hi, int p) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, lo, hi);
+            return;
+        }
+        boolean flip = p == Integer.SIZE / DIGIT_BITS - 1;
+
+        int[] count = new int[RADIX];
+        for (int i = lo; i < hi; i++)
+            count[digit(key(array[i]), p, flip)]++;
+
+        int[] next = new int[RADIX];
+        int[] end = new int[RADIX];
+        for (int d = 0, sum = lo; d < RADIX; d++) {
+            next[d] = sum;
+            sum += count[d];
+            end[d] = sum;
+        }
+
+        for (int d = 0; d < RADIX; d++) {
+            while (next[d] < end[d]) {
+                float x = array[next[d]];
+                int xd = digit(key(x), p, flip);
+                if (xd == d) {
+                    next[d]++;
+                } else {
+                    array[next[d]] = array[next[xd]];
+                    array[next[xd]++] = x;
+                }
+            }
+        }
+
+        if (p > 0) {
+            for (int d = 0, start = lo; d < RADIX; start = end[d++]) {
+                if (end[d] - start > 1)
+                    americanFlag(array, start, end[d], p - 1);
+            }
+        }
+    }
+
+    /**
+     * Sorts an array of doubles in place, with MSD radix sort (American flag sort).
+     * The order is the same as {@link #sort(double[])}, but NaNs are left as they are.
+     *
+     * @param array to be sorted;
+     */
+    public static void sortInPlace (double[] array) {
+        if (array == null || array.length <= 1) return;
+        americanFlag(array, 0, array.length, Long.SIZE / DIGIT_BITS - 1);
+    }
+
+    /**
+     * Same as the int version.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     * @param p index of the digit, from the least significant;
+     */
+    private static void americanFlag (double[] array, int lo, int hi, int p) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, lo, hi);
+            return;
+        }
+        boolean flip = p == Long.SIZE / DIGIT_BITS - 1;
+
+        int[] count = new int[RADIX];
+        for (int i = lo; i < hi; i++)
+            count[digit(key(array[i]), p, flip)]++;
+
+        int[] next = new int[RADIX];
+        int[] end = new int[RADIX];
+        for (int d = 0, sum = lo; d < RADIX; d++) {
+            next[d] = sum;
+            sum += count[d];
+            end[d] = sum;
+        }
+
+        for (int d = 0; d < RADIX; d++) {
+            while (next[d] < end[d]) {
+                double x = array[next[d]];
+                int xd = digit(key(x), p, flip);
+                if (xd == d) {
+                    next[d]++;
+                } else {
+                    array[next[d]] = array[next[xd]];
+                    array[next[xd]++] = x;
+                }
+            }
+        }
+
+        if (p > 0) {
+            for (int d = 0, start = lo; d < RADIX; start = end[d++]) {
+                if (end[d] - start > 1)
+                    americanFlag(array, start, end[d], p - 1);
+            }
+        }
+    }
+
+    /**
+     * Sorts an array of ints with LSD radix sort, counting and scattering in parallel. The array
+     * is split in one chunk per thread; each chunk counts its own histogram, and then writes its
+     * elements to its own slots of each bucket, so the sort is still stable.
+     *
+     * @param array to be sorted;
+     */
+    public static void parallelSort (int[] array) {
+        if (array == null || array.length <= 1) return;
+        int n = array.length;
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), n / PARALLEL_THRESHOLD);
+        if (chunks <= 1) {
+            sort(array);
+            return;
+        }
+        int passes = Integer.SIZE / DIGIT_BITS;
+
+        int[] bounds = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++)
+            bounds[c] = (int) ((long) n * c / chunks);
+
+        int[] src = array, dst = new int[n];
+        for (int p = 0; p < passes; p++) {
+            boolean flip = p == passes - 1;
+            int pass = p;
+            int[] from = src, to = dst;
+
+            // Histogram of each chunk.
+            int[][] counts = new int[chunks][RADIX];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] count = counts[c];
+                for (int i = bounds[c]; i < bounds[c + 1]; i++)
+                    count[digit(from[i], pass, flip)]++;
+            });
+
+            // Offsets, by digit and then by chunk. Skip the pass if there's a single digit.
+            boolean trivial = false;
+            for (int d = 0, sum = 0; d < RADIX; d++) {
+                int total = 0;
+                for (int c = 0; c < chunks; c++) {
+                    int count = counts[c][d];
+                    counts[c][d] = sum;
+                    sum += count;
+                    total += count;
+                }
+                if (total == n) trivial = true;
+            }
+            if (trivial) continue;
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] offset = counts[c];
+                for (int i = bounds[c]; i < bounds[c + 1]; i++) {
+                    int x = from[i];
+                    to[offset[digit(x, pass, flip)]++] = x;
+                }
+            });
+
+            src = to; dst = from;
+        }
+        if (src != array) System.arraycopy(src, 0, array, 0, n);
+    }
+
+    /**
+     * Turns counts into starting offsets.
+     *
+     * @param count of each digit;
+     */
+    private static void toOffsets (int[] count) {
+        for (int d = 0, sum = 0; d < RADIX; d++) {
+            int c = count[d];
+            count[d] = sum;
+            sum += c;
+        }
+    }
+
+    /**
+     * Digit of an int.
+     *
+     * @param x key;
+     * @param p index of the digit, from the least significant;
+     * @param flip whether to flip the sign bit, for the most significant digit of signed keys;
+     *
+     * @return digit;
+     */
+    private static int digit (int x, int p, boolean flip) {
+        int d = (x >>> (p * DIGIT_BITS)) & MASK;
+        return flip ? d ^ (RADIX >>> 1) : d;
+    }
+
+    /**
+     * Digit of a long.
+     *
+     * @param x key;
+     * @param p index of the digit, from the least significant;
+     * @param flip whether to flip the sign bit, for the most significant digit of signed keys;
+     *
+     * @return digit;
+     */
+    private static int digit (long x, int p, boolean flip) {
+        int d = (int) (x >>> (p * DIGIT_BITS)) & MASK;
+        return flip ? d ^ (RADIX >>> 1) : d;
+    }
+
+    /**
+     * Signed key of a float, in the order of {@link java.util.Arrays#sort(float[])}: negative
+     * numbers have every bit but the sign flipped.
+     *
+     * @param x number;
+     *
+     * @return key;
+     */
+    private static int key (float x) {
+        int bits = Float.floatToIntBits(x);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /**
+     * Signed key of a double, in the order of {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param x number;
+     *
+     * @return key;
+     */
+    private static long key (double x) {
+        long bits = Double.doubleToLongBits(x);
+        return bits ^ ((bits >> 63) & 0x7FFFFFFFFFFFFFFFL);
+    }
+
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void insertionSort (int[] array, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int ai = array[i];
+            int j = i - 1;
+            while (j >= lo && ai < array[j]) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    /**
+     * Normal insertion sort.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void insertionSort (long[] array, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            long ai = array[i];
+            int j = i - 1;
+            while (j >= lo && ai < array[j]) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    /**
+     * Insertion sort by the keys.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void insertionSort (float[] array, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            float ai = array[i];
+            int k = key(ai);
+            int j = i - 1;
+            while (j >= lo && k < key(array[j])) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+    /**
+     * Insertion sort by the keys.
+     *
+     * @param array being sorted;
+     * @param lo index, inclusive;
+     * @param hi index, exclusive;
+     */
+    private static void insertionSort (double[] array, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            double ai = array[i];
+            long k = key(ai);
+            int j = i - 1;
+            while (j >= lo && k < key(array[j])) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = ai;
+        }
+    }
+
+}
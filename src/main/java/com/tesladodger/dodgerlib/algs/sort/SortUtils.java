@@ -0,0 +1,146 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.Comparator;
+
+
+/**
+ * Checks and preparation steps shared by the sorting algorithms.
+ */
+final class SortUtils {
+
+    /**
+     * Suppress constructor.
+     */
+    private SortUtils () {}
+
+    /** Bits of -0.0. */
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0d);
+
+    /**
+     * Checks that a range is valid for an array.
+     *
+     * @param length of the array;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    static void rangeCheck (int length, int from, int to) {
+        if (from > to)
+            throw new IllegalArgumentException("from (" + from + ") > to (" + to + ")");
+        if (from < 0)
+            throw new ArrayIndexOutOfBoundsException(from);
+        if (to > length)
+            throw new ArrayIndexOutOfBoundsException(to);
+    }
+
+    /**
+     * Checks that an array of keys and an array sorted along with it have the same length.
+     *
+     * @param keys length of the keys;
+     * @param values length of the other array;
+     *
+     * @throws IllegalArgumentException if they don't;
+     */
+    static void lengthCheck (int keys, int values) {
+        if (keys != values)
+            throw new IllegalArgumentException("Lengths differ: " + keys + " and " + values);
+    }
+
+    /**
+     * Moves every NaN in the range to its end, since NaN can't be compared. The NaNs are then
+     * left out of the sort, which puts them after every other number, like
+     * {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @return end of the range without the NaNs;
+     */
+    static int moveNaNsToEnd (double[] array, int from, int to) {
+        while (from < to && Double.isNaN(array[to - 1])) to--;
+        for (int i = to - 1; --i >= from;) {
+            double ai = array[i];
+            if (ai != ai) {
+                array[i] = array[--to];
+                array[to] = ai;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Replaces every -0.0 in a range with 0.0, so the sorts don't have to tell them apart, since
+     * they compare as equal. They are put back after sorting, by
+     * {@link #restoreNegativeZeros(double[], int, int, int)}.
+     *
+     * @param array being sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @return number of negative zeros;
+     */
+    static int clearNegativeZeros (double[] array, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (Double.doubleToRawLongBits(array[i]) == NEGATIVE_ZERO_BITS) {
+                array[i] = 0.0d;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Turns the first zeros of a sorted range back into negative zeros, so -0.0 comes before 0.0,
+     * like {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param array sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     * @param count number of negative zeros, from {@link #clearNegativeZeros(double[], int, int)};
+     */
+    static void restoreNegativeZeros (double[] array, int from, int to, int count) {
+        if (count == 0) return;
+        // First index that isn't negative.
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (array[mid] < 0.0d) lo = mid + 1;
+            else hi = mid;
+        }
+        for (int i = lo; i < lo + count; i++)
+            array[i] = -0.0d;
+    }
+
+    /**
+     * Number of partitions a quicksort or quickselect of the given length may go through before
+     * falling back to an algorithm with a guaranteed worst case: twice the depth of a perfectly
+     * balanced recursion.
+     *
+     * @param length of the range;
+     *
+     * @return depth limit;
+     */
+    static int depthLimit (int length) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(length));
+    }
+
+    /**
+     * The given comparator, or the natural ordering if it's null.
+     *
+     * @param comparator or null;
+     * @param <T> type of the elements;
+     *
+     * @return comparator;
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Comparator<? super T> orNatural (Comparator<? super T> comparator) {
+        if (comparator != null) return comparator;
+        return (Comparator<? super T>) Comparator.naturalOrder();
+    }
+
+}
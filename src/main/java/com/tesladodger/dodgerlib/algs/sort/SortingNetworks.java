@@ -0,0 +1,239 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+
+/**
+ * Sorting networks for ranges of up to {@link #MAX_LENGTH} elements.
+ * A network is a fixed sequence of compare-exchanges, each putting the lesser of two elements in
+ * the lower index, that sorts any input of its length. The sequence doesn't depend on the data,
+ * and each compare-exchange is a min and a max, so there are no branches to mispredict; and the
+ * compare-exchanges of a layer are independent of each other, so they can run in parallel. The
+ * networks here have the fewest compare-exchanges known for each length.
+ * The sorts of primitives use them as the leaf kernel, from {@link #CUTOFF} elements on.
+ */
+public class SortingNetworks {
+
+    /**
+     * Suppress constructor.
+     */
+    private SortingNetworks () {}
+
+    /** Largest range with a network. */
+    public static final int MAX_LENGTH = 16;
+
+    /**
+     * Shortest range for which the sorts use a network instead of insertion sort. On shorter
+     * ranges, insertion sort does fewer comparisons than the network, and the few mispredicted
+     * branches cost less than the extra work. See SortingNetworkBenchmark.
+     */
+    static final int CUTOFF = 7;
+
+    /**
+     * Pairs of indices compared by the network for each length, layer by layer. Lengths 0 and 1
+     * have nothing to compare.
+     */
+    private static final byte[][] NETWORKS = {
+            {},
+            {},
+            // 2: 1 comparator, 1 layer.
+            {0, 1},
+            // 3: 3 comparators, 3 layers.
+            {0, 2, 0, 1, 1, 2},
+            // 4: 5 comparators, 3 layers.
+            {0, 2, 1, 3, 0, 1, 2, 3, 1, 2},
+            // 5: 9 comparators, 5 layers.
+            {0, 3, 1, 4, 0, 2, 1, 3, 0, 1, 2, 4, 1, 2, 3, 4, 2, 3},
+            // 6: 12 comparators, 5 layers.
+            {0, 5, 1, 3, 2, 4, 1, 2, 3, 4, 0, 3, 2, 5, 0, 1, 2, 3, 4, 5, 1, 2, 3, 4},
+            // 7: 16 comparators, 6 layers.
+            {0, 6, 2, 3, 4, 5, 0, 2, 1, 4, 3, 6, 0, 1, 2, 5, 3, 4, 1, 2, 4, 6, 2, 3, 4, 5, 1, 2,
+             3, 4, 5, 6},
+            // 8: 19 comparators, 6 layers.
+            {0, 2, 1, 3, 4, 6, 5, 7, 0, 4, 1, 5, 2, 6, 3, 7, 0, 1, 2, 3, 4, 5, 6, 7, 2, 4, 3, 5,
+             1, 4, 3, 6, 1, 2, 3, 4, 5, 6},
+            // 9: 25 comparators, 7 layers.
+            {0, 3, 1, 7, 2, 5, 4, 8, 0, 7, 2, 4, 3, 8, 5, 6, 0, 2, 1, 3, 4, 5, 7, 8, 1, 4, 3, 6,
+             5, 7, 0, 1, 2, 4, 3, 5, 6, 8, 2, 3, 4, 5, 6, 7, 1, 2, 3, 4, 5, 6},
+            // 10: 29 comparators, 8 layers.
+            {0, 8, 1, 9, 2, 7, 3, 5, 4, 6, 0, 2, 1, 4, 5, 8, 7, 9, 0, 3, 2, 4, 5, 7, 6, 9, 0, 1,
+             3, 6, 8, 9, 1, 5, 2, 3, 4, 8, 6, 7, 1, 2, 3, 5, 4, 6, 7, 8, 2, 3, 4, 5, 6, 7, 3, 4,
+             5, 6},
+            // 11: 35 comparators, 8 layers.
+            {0, 9, 1, 6, 2, 4, 3, 7, 5, 8, 0, 1, 3, 5, 4, 10, 6, 9, 7, 8, 1, 3, 2, 5, 4, 7,
+             8, 10, 0, 4, 1, 2, 3, 7, 5, 9, 6, 8, 0, 1, 2, 6, 4, 5, 7, 8, 9, 10, 2, 4, 3, 6,
+             5, 7, 8, 9, 1, 2, 3, 4, 5, 6, 7, 8, 2, 3, 4, 5, 6, 7},
+            // 12: 39 comparators, 9 layers.
+            {0, 8, 1, 7, 2, 6, 3, 11, 4, 10, 5, 9, 0, 1, 2, 5, 3, 4, 6, 9, 7, 8, 10, 11, 0, 2,
+             1, 6, 5, 10, 9, 11, 0, 3, 1, 2, 4, 6, 5, 7, 8, 11, 9, 10, 1, 4, 3, 5, 6, 8, 7, 10,
+             1, 3, 2, 5, 6, 9, 8, 10, 2, 3, 4, 5, 6, 7, 8, 9, 4, 6, 5, 7, 3, 4, 5, 6, 7, 8},
+            // 13: 45 comparators, 10 layers.
+            {0, 12, 1, 10, 2, 9, 3, 7, 5, 11, 6, 8, 1, 6, 2, 3, 4, 11, 7, 9, 8, 10, 0, 4, 1, 2,
+             3, 6, 7, 8, 9, 10, 11, 12, 4, 6, 5, 9, 8, 11, 10, 12, 0, 5, 3, 8, 4, 7, 6, 11,
+             9, 10, 0, 1, 2, 5, 6, 9, 7, 8, 10, 11, 1, 3, 2, 4, 5, 6, 9, 10, 1, 2, 3, 4, 5, 7,
+             6, 8, 2, 3, 4, 5, 6, 7, 8, 9, 3, 4, 5, 6},
+            // 14: 51 comparators, 10 layers.
+            {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 0, 2, 1, 3, 4, 8, 5, 9, 10, 12,
+             11, 13, 0, 4, 1, 2, 3, 7, 5, 8, 6, 10, 9, 13, 11, 12, 0, 6, 1, 5, 3, 9, 4, 10,
+             7, 13, 8, 12, 2, 10, 3, 11, 4, 6, 7, 9, 1, 3, 2, 8, 5, 11, 6, 7, 10, 12, 1, 4,
+             2, 6, 3, 5, 7, 11, 8, 10, 9, 12, 2, 4, 3, 6, 5, 8, 7, 10, 9, 11, 3, 4, 5, 6, 7, 8,
+             9, 10, 6, 7},
+            // 15: 56 comparators, 10 layers.
+            {0, 13, 1, 12, 3, 14, 4, 8, 5, 6, 7, 11, 9, 10, 0, 5, 1, 7, 2, 9, 3, 4, 6, 13,
+             8, 14, 11, 12, 0, 1, 2, 3, 4, 5, 6, 8, 7, 9, 10, 11, 12, 13, 0, 2, 1, 3, 4, 10,
+             5, 11, 6, 7, 8, 9, 12, 14, 1, 2, 3, 12, 4, 6, 5, 7, 8, 10, 9, 11, 13, 14, 1, 4,
+             2, 6, 5, 8, 7, 10, 9, 13, 11, 14, 2, 4, 3, 6, 9, 12, 11, 13, 3, 5, 6, 8, 7, 9,
+             10, 12, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 6, 7, 8, 9},
+            // 16: 60 comparators, 10 layers.
+            {0, 13, 1, 12, 2, 15, 3, 14, 4, 8, 5, 6, 7, 11, 9, 10, 0, 5, 1, 7, 2, 9, 3, 4,
+             6, 13, 8, 14, 10, 15, 11, 12, 0, 1, 2, 3, 4, 5, 6, 8, 7, 9, 10, 11, 12, 13, 14, 15,
+             0, 2, 1, 3, 4, 10, 5, 11, 6, 7, 8, 9, 12, 14, 13, 15, 1, 2, 3, 12, 4, 6, 5, 7,
+             8, 10, 9, 11, 13, 14, 1, 4, 2, 6, 5, 8, 7, 10, 9, 13, 11, 14, 2, 4, 3, 6, 9, 12,
+             11, 13, 3, 5, 6, 8, 7, 9, 10, 12, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 6, 7, 8, 9}
+    };
+
+    /**
+     * Sorts a range of an array of ints of at most {@link #MAX_LENGTH} elements.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to, or if the range is too long;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortingNetwork(array, from, to - 1);
+    }
+
+    /**
+     * Sorts a range of an array of longs of at most {@link #MAX_LENGTH} elements.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to, or if the range is too long;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortingNetwork(array, from, to - 1);
+    }
+
+    /**
+     * Sorts a range of an array of doubles of at most {@link #MAX_LENGTH} elements. There
+     * can't be NaNs in the range, and -0.0 and 0.0 are taken as equal, so they may end up in any
+     * order, unlike in the sorts of whole arrays.
+     *
+     * @param array to be sorted;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     *
+     * @throws IllegalArgumentException if from is greater than to, or if the range is too long;
+     * @throws ArrayIndexOutOfBoundsException if the range exceeds the bounds of the array;
+     */
+    public static void sort (double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        sortingNetwork(array, from, to - 1);
+    }
+
+    /**
+     * Checks a range, and that there's a network for its length.
+     *
+     * @param length of the array;
+     * @param from index, inclusive;
+     * @param to index, exclusive;
+     */
+    private static void checkRange (int length, int from, int to) {
+        SortUtils.rangeCheck(length, from, to);
+        if (to - from > MAX_LENGTH)
+            throw new IllegalArgumentException(
+                    "Range longer than " + MAX_LENGTH + ": " + (to - from));
+    }
+
+    /**
+     * Sorts a range with its network.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index, at most low + {@link #MAX_LENGTH} - 1;
+     */
+    static void sortingNetwork (int[] array, int low, int high) {
+        byte[] network = NETWORKS[high - low + 1];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = low + network[k];
+            int j = low + network[k + 1];
+            int x = array[i];
+            int y = array[j];
+            array[i] = Math.min(x, y);
+            array[j] = Math.max(x, y);
+        }
+    }
+
+    /**
+     * Sorts a range with its network.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index, at most low + {@link #MAX_LENGTH} - 1;
+     */
+    static void sortingNetwork (long[] array, int low, int high) {
+        byte[] network = NETWORKS[high - low + 1];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = low + network[k];
+            int j = low + network[k + 1];
+            long x = array[i];
+            long y = array[j];
+            array[i] = Math.min(x, y);
+            array[j] = Math.max(x, y);
+        }
+    }
+
+    /**
+     * Sorts a range with its network. Unlike Math.min and Math.max, the comparisons treat 0.0
+     * and -0.0 as equal, like the rest of the sorts.
+     *
+     * @param array being sorted;
+     * @param low index;
+     * @param high index, at most low + {@link #MAX_LENGTH} - 1;
+     */
+    static void sortingNetwork (double[] array, int low, int high) {
+        byte[] network = NETWORKS[high - low + 1];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = low + network[k];
+            int j = low + network[k + 1];
+            double x = array[i];
+            double y = array[j];
+            boolean swap = y < x;
+            array[i] = swap ? y : x;
+            array[j] = swap ? x : y;
+        }
+    }
+
+    /**
+     * Sorts a range of keys with its network, moving the values along with them. The network
+     * isn't stable, so equal keys may end up with their values in any order.
+     *
+     * @param keys being sorted;
+     * @param values moved with the keys;
+     * @param low index;
+     * @param high index, at most low + {@link #MAX_LENGTH} - 1;
+     */
+    static void sortingNetwork (int[] keys, int[] values, int low, int high) {
+        byte[] network = NETWORKS[high - low + 1];
+        for (int k = 0; k < network.length; k += 2) {
+            int i = low + network[k];
+            int j = low + network[k + 1];
+            int x = keys[i];
+            int y = keys[j];
+            int a = values[i];
+            int b = values[j];
+            boolean swap = y < x;
+            keys[i] = swap ? y : x;
+            keys[j] = swap ? x : y;
+            values[i] = swap ? b : a;
+            values[j] = swap ? a : b;
+        }
+    }
+
+}
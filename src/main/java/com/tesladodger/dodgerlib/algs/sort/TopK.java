@@ -0,0 +1,185 @@
+package com.tesladodger.dodgerlib.algs.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collector;
+
+
+/**
+ * Bounded collector of the k smallest elements of a stream, for when the stream is too long to
+ * keep, or only a few of its elements are wanted.
+ * The elements are kept in a binary max-heap of at most k elements, so the root is the largest
+ * one kept. A new element is only kept if it's smaller than the root, which it replaces. That's
+ * O(n log k) for n elements, and O(n) when most of them are rejected by the root alone.
+ *
+ * @param <T> type of the elements;
+ */
+public class TopK<T> {
+
+    /** Maximum number of elements kept. */
+    private final int k;
+
+    /** Order of the elements; the smallest are kept. */
+    private final Comparator<? super T> c;
+
+    /** Max-heap; the children of i are at 2i + 1 and 2i + 2. */
+    private final T[] heap;
+
+    /** Number of elements kept. */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param k maximum number of elements kept;
+     * @param c comparator, null for the natural ordering;
+     *
+     * @throws IllegalArgumentException if k is negative;
+     */
+    @SuppressWarnings("unchecked")
+    public TopK (int k, Comparator<? super T> c) {
+        if (k < 0) throw new IllegalArgumentException("k (" + k + ") < 0");
+        this.k = k;
+        this.c = SortUtils.orNatural(c);
+        heap = (T[]) new Object[k];
+        size = 0;
+    }
+
+    /**
+     * Offers an element.
+     *
+     * @param element to offer;
+     *
+     * @return true if the element is kept, for now;
+     */
+    public boolean add (T element) {
+        if (size < k) {
+            heap[size] = element;
+            siftUp(size++);
+            return true;
+        }
+        if (k == 0 || c.compare(element, heap[0]) >= 0) return false;
+        heap[0] = element;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Offers every element of an iterable.
+     *
+     * @param elements to offer;
+     */
+    public void addAll (Iterable<? extends T> elements) {
+        for (T element : elements) add(element);
+    }
+
+    /**
+     * Offers every element kept by another collector.
+     *
+     * @param other collector;
+     *
+     * @return this collector;
+     */
+    public TopK<T> merge (TopK<? extends T> other) {
+        for (int i = 0; i < other.size; i++) add(other.heap[i]);
+        return this;
+    }
+
+    /**
+     * Largest element kept. Once k elements are kept, anything not smaller than this is
+     * rejected.
+     *
+     * @return the largest element kept;
+     *
+     * @throws NoSuchElementException if nothing is kept;
+     */
+    public T peek () {
+        if (size == 0) throw new NoSuchElementException("Nothing is kept.");
+        return heap[0];
+    }
+
+    /**
+     * The elements kept, in ascending order.
+     *
+     * @return new list;
+     */
+    public List<T> toList () {
+        T[] sorted = Arrays.copyOf(heap, size);
+        MergeSort.sort(sorted, c);
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * @return the number of elements kept;
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * @return true if nothing is kept;
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * Collector of the k smallest elements of a stream, in ascending order. Parallel streams
+     * keep one heap per thread and merge them.
+     *
+     * @param k maximum number of elements;
+     * @param c comparator, null for the natural ordering;
+     * @param <T> type of the elements;
+     *
+     * @return collector;
+     *
+     * @throws IllegalArgumentException if k is negative;
+     */
+    public static <T> Collector<T, ?, List<T>> smallest (int k, Comparator<? super T> c) {
+        if (k < 0) throw new IllegalArgumentException("k (" + k + ") < 0");
+        return Collector.of(
+                () -> new TopK<T>(k, c),
+                TopK::add,
+                TopK::merge,
+                TopK::toList);
+    }
+
+    /**
+     * Moves an element up until its parent is not smaller.
+     *
+     * @param i index of the element;
+     */
+    private void siftUp (int i) {
+        T x = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (c.compare(x, heap[parent]) <= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = x;
+    }
+
+    /**
+     * Moves an element down until no child is larger.
+     *
+     * @param i index of the element;
+     */
+    private void siftDown (int i) {
+        T x = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < size && c.compare(heap[right], heap[child]) > 0) child = right;
+            if (c.compare(x, heap[child]) >= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = x;
+    }
+
+}
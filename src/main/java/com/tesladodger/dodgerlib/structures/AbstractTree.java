@@ -3,6 +3,7 @@ package com.tesladodger.dodgerlib.structures;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -42,6 +43,41 @@ abstract class AbstractTree<K extends Comparable<K>, V> implements Iterable <V>
     /** Number of elements in the tree. */
     protected int size;
 
+    /** Number of structural modifications, so that iterators can fail fast. */
+    protected int modCount;
+
+    /**
+     * Removes an element from the tree.
+     *
+     * @param key of the element to remove;
+     *
+     * @return the value of the element;
+     *
+     * @throws NoSuchElementException if the tree is empty or the key is not present;
+     */
+    public abstract V remove (K key);
+
+    /**
+     * Checks the input of a bulk load.
+     *
+     * @param keys to load;
+     * @param values of the keys;
+     *
+     * @throws IllegalArgumentException if the arrays have different lengths, or the keys are
+     *                                  null or not strictly ascending;
+     */
+    protected static <K extends Comparable<K>> void checkSorted (K[] keys, Object[] values) {
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("Different lengths: " + keys.length + " keys and "
+                    + values.length + " values.");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null)
+                throw new IllegalArgumentException("Key at " + i + " is null.");
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0)
+                throw new IllegalArgumentException("Keys are not strictly ascending at " + i + ".");
+        }
+    }
+
     /**
      * Public method that calls the iterative search method.
      *
@@ -141,7 +177,103 @@ abstract class AbstractTree<K extends Comparable<K>, V> implements Iterable <V>
     }
 
     /**
-     * Calls the recursive traverse method.
+     * The greatest key less than or equal to the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K floor (K key) {
+        return keyOf(floorNode(key, true));
+    }
+
+    /**
+     * The least key greater than or equal to the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K ceiling (K key) {
+        return keyOf(ceilingNode(key, true));
+    }
+
+    /**
+     * The greatest key strictly less than the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K lower (K key) {
+        return keyOf(floorNode(key, false));
+    }
+
+    /**
+     * The least key strictly greater than the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K higher (K key) {
+        return keyOf(ceilingNode(key, false));
+    }
+
+    private K keyOf (Node<K, V> n) {
+        return n == null ? null : n.key;
+    }
+
+    /**
+     * Finds the node with the greatest key below a bound, in a single descent.
+     *
+     * @param key bound;
+     * @param inclusive whether a node with the bound itself is accepted;
+     *
+     * @return the node, or null if every key is above the bound;
+     */
+    protected Node<K, V> floorNode (K key, boolean inclusive) {
+        Node<K, V> current = root;
+        Node<K, V> best = null;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp > 0 || cmp == 0 && inclusive) {
+                if (cmp == 0) return current;
+                best = current;
+                current = current.right;
+            }
+            else
+                current = current.left;
+        }
+        return best;
+    }
+
+    /**
+     * Finds the node with the least key above a bound, in a single descent.
+     *
+     * @param key bound;
+     * @param inclusive whether a node with the bound itself is accepted;
+     *
+     * @return the node, or null if every key is below the bound;
+     */
+    protected Node<K, V> ceilingNode (K key, boolean inclusive) {
+        Node<K, V> current = root;
+        Node<K, V> best = null;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0 || cmp == 0 && inclusive) {
+                if (cmp == 0) return current;
+                best = current;
+                current = current.left;
+            }
+            else
+                current = current.right;
+        }
+        return best;
+    }
+
+    /**
+     * Copies the values to a list, in order.
      *
      * @return sorted list of values;
      *
@@ -149,26 +281,43 @@ abstract class AbstractTree<K extends Comparable<K>, V> implements Iterable <V>
      */
     public List<V> traverse () {
         if (isEmpty()) throw new NoSuchElementException("Tree is empty.");
-        List<V> sorted = new ArrayList<>();
-        sorted = traverseRecursively(root, sorted);
+        List<V> sorted = new ArrayList<>(size);
+        for (V value : this) sorted.add(value);
         return sorted;
     }
 
     /**
-     * Recursive traverse.
+     * The node with the next key, in order.
      *
-     * @param current node being evaluated;
-     * @param sorted list of values;
+     * @param n node;
      *
-     * @return sorted list;
+     * @return the in-order successor, or null if n has the greatest key;
      */
-    private List<V> traverseRecursively (Node<K, V> current, List<V> sorted) {
-        if (current != null) {
-            traverseRecursively(current.left, sorted);
-            sorted.add(current.value);
-            traverseRecursively(current.right, sorted);
+    protected Node<K, V> successor (Node<K, V> n) {
+        if (n.right != null) return getMin(n.right);
+        Node<K, V> p = n.parent;
+        while (p != null && n == p.right) {
+            n = p;
+            p = p.parent;
         }
-        return sorted;
+        return p;
+    }
+
+    /**
+     * The node with the previous key, in order.
+     *
+     * @param n node;
+     *
+     * @return the in-order predecessor, or null if n has the least key;
+     */
+    protected Node<K, V> predecessor (Node<K, V> n) {
+        if (n.left != null) return getMax(n.left);
+        Node<K, V> p = n.parent;
+        while (p != null && n == p.left) {
+            n = p;
+            p = p.parent;
+        }
+        return p;
     }
 
     /**
@@ -195,41 +344,195 @@ abstract class AbstractTree<K extends Comparable<K>, V> implements Iterable <V>
     }
 
     /**
-     * Provide an iterator for the structure.
+     * Provide an iterator for the structure, over the values in the order of the keys.
      *
      * @return TreeIterator;
      */
     @NotNull
     @Override
     public Iterator<V> iterator () {
-        return new TreeIterator<>(this.traverse());
+        return new Range(null, null).iterator();
+    }
+
+    /**
+     * Iterator over the values in descending order of the keys.
+     *
+     * @return TreeIterator;
+     */
+    public Iterator<V> descendingIterator () {
+        return new Range(null, null).descendingIterator();
+    }
+
+    /**
+     * Iterator over the values with keys in a range, in order. Finding the first key is
+     * O(log n) for a balanced tree, and then each step is amortized constant time.
+     *
+     * @param from least key, inclusive, or null for no lower bound;
+     * @param to greatest key, exclusive, or null for no upper bound;
+     *
+     * @return TreeIterator;
+     */
+    public Iterator<V> rangeIterator (K from, K to) {
+        return range(from, to).iterator();
     }
 
     /**
-     * Iterator for the tree.
+     * View of the elements with keys in a range. Nothing is copied, and changes to the tree are
+     * seen by iterators created after them.
+     *
+     * @param from least key, inclusive, or null for no lower bound;
+     * @param to greatest key, exclusive, or null for no upper bound;
+     *
+     * @return the view;
      *
-     * @param <V>
+     * @throws IllegalArgumentException if from is greater than to;
      */
-    protected static class TreeIterator<V> implements Iterator<V> {
+    public RangeView<V> range (K from, K to) {
+        if (from != null && to != null && from.compareTo(to) > 0)
+            throw new IllegalArgumentException("from (" + from + ") > to (" + to + ")");
+        return new Range(from, to);
+    }
 
-        private final List<V> list;
-        private int current;
+    /**
+     * View of the elements with keys less than a bound.
+     *
+     * @param to greatest key, exclusive;
+     *
+     * @return the view;
+     */
+    public RangeView<V> head (K to) {
+        return new Range(null, to);
+    }
 
-        public TreeIterator (List<V> list) {
-            this.list = list;
-            current = 0;
+    /**
+     * View of the elements with keys greater than or equal to a bound.
+     *
+     * @param from least key, inclusive;
+     *
+     * @return the view;
+     */
+    public RangeView<V> tail (K from) {
+        return new Range(from, null);
+    }
+
+    /**
+     * Live view of the elements of the tree with keys in [from, to), like the head and tail maps
+     * of a NavigableMap. The bounds are found each time an iterator is created.
+     */
+    private class Range implements RangeView<V> {
+
+        /** Least key, inclusive, null for no bound. */
+        private final K from;
+
+        /** Greatest key, exclusive, null for no bound. */
+        private final K to;
+
+        private Range (K from, K to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Iterator over the values in the range, in ascending order of the keys.
+         *
+         * @return TreeIterator;
+         */
+        @NotNull
+        @Override
+        public Iterator<V> iterator () {
+            Node<K, V> first;
+            if (root == null) first = null;
+            else if (from == null) first = getMin(root);
+            else first = ceilingNode(from, true);
+            return new TreeIterator(first, to, false);
+        }
+
+        /**
+         * Iterator over the values in the range, in descending order of the keys.
+         *
+         * @return TreeIterator;
+         */
+        @Override
+        public Iterator<V> descendingIterator () {
+            Node<K, V> first;
+            if (root == null) first = null;
+            else if (to == null) first = getMax(root);
+            else first = floorNode(to, false);
+            return new TreeIterator(first, from, true);
+        }
+    }
+
+    /**
+     * In-order iterator that walks the tree through the parent pointers, so it takes constant
+     * memory, and each step is amortized constant time. It goes in either direction, and stops
+     * at a bound: the exclusive upper bound going up, or the inclusive lower bound going down.
+     * Fails fast with a ConcurrentModificationException if the tree is structurally modified
+     * other than through the iterator itself.
+     */
+    protected class TreeIterator implements Iterator<V> {
+
+        /** Node returned by the next call to next, null at the end. */
+        private Node<K, V> next;
+
+        /** Node returned by the last call to next, null after a removal. */
+        private Node<K, V> lastReturned;
+
+        /** Key where the iteration stops, null for none. */
+        private final K bound;
+
+        /** True if the iteration goes from the greatest key to the least. */
+        private final boolean descending;
+
+        private int expectedModCount = modCount;
+
+        /**
+         * Constructor.
+         *
+         * @param first node of the iteration, null for none;
+         * @param bound upper bound, exclusive, or lower bound, inclusive, if descending;
+         * @param descending direction;
+         */
+        protected TreeIterator (Node<K, V> first, K bound, boolean descending) {
+            this.bound = bound;
+            this.descending = descending;
+            next = outOfBounds(first) ? null : first;
+        }
+
+        private boolean outOfBounds (Node<K, V> n) {
+            if (n == null || bound == null) return false;
+            int cmp = n.key.compareTo(bound);
+            return descending ? cmp < 0 : cmp >= 0;
         }
 
         @Override
         public boolean hasNext () {
-            return current < list.size();
+            return next != null;
         }
 
         @Override
         public V next () {
-            V data = list.get(current);
-            current++;
-            return data;
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (next == null) throw new NoSuchElementException();
+            lastReturned = next;
+            next = descending ? predecessor(next) : successor(next);
+            if (outOfBounds(next)) next = null;
+            return lastReturned.value;
+        }
+
+        @Override
+        public void remove () {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // A node with two children is replaced by its successor's key and value, and the
+            // successor's node is the one unlinked, so the next element is now in this node,
+            // unless the successor was past the bound. The predecessor, next when descending,
+            // is not moved.
+            boolean copied = !descending
+                    && lastReturned.left != null && lastReturned.right != null;
+            AbstractTree.this.remove(lastReturned.key);
+            if (copied) next = outOfBounds(lastReturned) ? null : lastReturned;
+            expectedModCount = modCount;
+            lastReturned = null;
         }
     }
 
@@ -239,6 +542,7 @@ abstract class AbstractTree<K extends Comparable<K>, V> implements Iterable <V>
     public void clear () {
         root = null;
         size = 0;
+        modCount++;
     }
 
     /**
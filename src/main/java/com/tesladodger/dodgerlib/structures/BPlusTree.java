@@ -0,0 +1,906 @@
+package com.tesladodger.dodgerlib.structures;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * B+ tree, an ordered map with wide nodes.
+ * Every node keeps its keys in a sorted array, searched with a binary search, so a lookup
+ * touches one node per level, and there are only log_fanout(n) levels, instead of the
+ * log2(n) scattered nodes of a {@link RedBlackTree}. The elements are only in the leaves, which
+ * are linked in both directions, so iterating over a range is a walk along the arrays of the
+ * leaves, without going back up the tree.
+ * Every node but the root is at least half full: a node that overflows is split in two, and one
+ * that underflows borrows an element from a sibling, or is merged with it.
+ * The surface is the same as {@link AbstractTree}'s.
+ *
+ * @param <K> key type;
+ * @param <V> value type;
+ */
+public class BPlusTree<K extends Comparable<K>, V> implements Iterable<V> {
+
+    /**
+     * Node of the tree, with its keys sorted in the first n slots.
+     */
+    private abstract static class Node {
+        final Object[] keys;
+        int n;
+
+        Node (int capacity) {
+            keys = new Object[capacity];
+        }
+    }
+
+    /**
+     * Inner node, with n keys and n + 1 children. Child i holds the keys in
+     * [keys[i - 1], keys[i]).
+     */
+    private static final class Inner extends Node {
+        final Node[] children;
+
+        Inner (int fanout) {
+            // One more slot than allowed, so a node can overflow before it's split.
+            super(fanout);
+            children = new Node[fanout + 1];
+        }
+    }
+
+    /**
+     * Leaf, with n keys and their values, and links to its neighbours.
+     */
+    private static final class Leaf extends Node {
+        final Object[] values;
+        Leaf prev;
+        Leaf next;
+
+        Leaf (int fanout) {
+            super(fanout + 1);
+            values = new Object[fanout + 1];
+        }
+    }
+
+    /** Default maximum number of children of an inner node, and of elements in a leaf. */
+    public static final int DEFAULT_FANOUT = 64;
+
+    /** Maximum number of children of an inner node, and of elements in a leaf. */
+    private final int fanout;
+
+    /** Entry point to the tree, null if it's empty. */
+    private Node root;
+
+    /** Key that separates the two halves of the last node split. */
+    private Object splitKey;
+
+    /** Number of elements in the tree. */
+    private int size;
+
+    /** Number of structural modifications, so that iterators can fail fast. */
+    private int modCount;
+
+    /**
+     * Constructor with the default fanout.
+     */
+    public BPlusTree () {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param fanout maximum number of children of an inner node, and of elements in a leaf;
+     *
+     * @throws IllegalArgumentException if the fanout is less than 4;
+     */
+    public BPlusTree (int fanout) {
+        if (fanout < 4) throw new IllegalArgumentException("Fanout (" + fanout + ") < 4");
+        this.fanout = fanout;
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Inserts an element. When the key is already present, its value is updated.
+     *
+     * @param key new key;
+     * @param value new value;
+     *
+     * @throws IllegalArgumentException if the key is null;
+     */
+    public void insert (K key, V value) {
+        if (key == null) throw new IllegalArgumentException("New key cannot be null.");
+        if (root == null) root = new Leaf(fanout);
+
+        Node right = insert(root, key, value);
+        // The root was split, the tree grows a level.
+        if (right != null) {
+            Inner newRoot = new Inner(fanout);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.n = 1;
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Inserts an element in the subtree of a node.
+     *
+     * @param node root of the subtree;
+     * @param key new key;
+     * @param value new value;
+     *
+     * @return the new right half if the node was split, with its separator in splitKey, or null;
+     */
+    private Node insert (Node node, K key, V value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = search(leaf, key);
+            if (i >= 0) {
+                leaf.values[i] = value;
+                return null;
+            }
+            i = -(i + 1);
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.n - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.n - i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.n++;
+            size++;
+            modCount++;
+            return leaf.n > fanout ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) node;
+        int i = childIndex(inner, key);
+        Node right = insert(inner.children[i], key, value);
+        if (right == null) return null;
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.n - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.n - i);
+        inner.keys[i] = splitKey;
+        inner.children[i + 1] = right;
+        inner.n++;
+        return inner.n >= fanout ? splitInner(inner) : null;
+    }
+
+    /**
+     * Moves the upper half of an overflowing leaf to a new leaf, linked after it.
+     *
+     * @param leaf with fanout + 1 elements;
+     *
+     * @return the new leaf, whose first key is in splitKey;
+     */
+    private Leaf splitLeaf (Leaf leaf) {
+        Leaf right = new Leaf(fanout);
+        int mid = (leaf.n + 1) >>> 1;
+        right.n = leaf.n - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.n);
+        System.arraycopy(leaf.values, mid, right.values, 0, right.n);
+        Arrays.fill(leaf.keys, mid, leaf.n, null);
+        Arrays.fill(leaf.values, mid, leaf.n, null);
+        leaf.n = mid;
+
+        right.next = leaf.next;
+        if (right.next != null) right.next.prev = right;
+        right.prev = leaf;
+        leaf.next = right;
+
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    /**
+     * Moves the upper half of an overflowing inner node to a new node. The middle key goes up
+     * to the parent.
+     *
+     * @param inner with fanout + 1 children;
+     *
+     * @return the new node, with the middle key in splitKey;
+     */
+    private Inner splitInner (Inner inner) {
+        Inner right = new Inner(fanout);
+        // Number of children kept on the left.
+        int mid = (inner.n + 2) >>> 1;
+        right.n = inner.n - mid;
+        System.arraycopy(inner.keys, mid, right.keys, 0, right.n);
+        System.arraycopy(inner.children, mid, right.children, 0, right.n + 1);
+        splitKey = inner.keys[mid - 1];
+        Arrays.fill(inner.keys, mid - 1, inner.n, null);
+        Arrays.fill(inner.children, mid, inner.n + 1, null);
+        inner.n = mid - 1;
+        return right;
+    }
+
+    /**
+     * Finds the value of a key.
+     *
+     * @param key to find;
+     *
+     * @return value of that key;
+     *
+     * @throws NoSuchElementException if the tree is empty or the key is not present;
+     */
+    @SuppressWarnings("unchecked")
+    public V find (K key) {
+        if (isEmpty()) throw new NoSuchElementException("The tree is empty.");
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        if (i < 0) throw new NoSuchElementException("The key " + key + " is not in the tree.");
+        return (V) leaf.values[i];
+    }
+
+    /**
+     * @param key to look for;
+     *
+     * @return true if the tree contains the key;
+     */
+    public boolean containsKey (K key) {
+        return !isEmpty() && search(findLeaf(key), key) >= 0;
+    }
+
+    /**
+     * Removes an element from the tree.
+     *
+     * @param key of the element to remove;
+     *
+     * @return the value of the element;
+     *
+     * @throws NoSuchElementException if the tree is empty or the key is not present;
+     */
+    public V remove (K key) {
+        if (isEmpty()) throw new NoSuchElementException("The tree is empty.");
+        V result = remove(root, key);
+        // The root is allowed to underflow, until it's empty or has a single child.
+        if (root.n == 0)
+            root = root instanceof Leaf ? null : ((Inner) root).children[0];
+        return result;
+    }
+
+    /**
+     * Removes an element from the subtree of a node, and fixes the child it was removed from
+     * if it underflowed.
+     *
+     * @param node root of the subtree;
+     * @param key of the element to remove;
+     *
+     * @return the value of the element;
+     *
+     * @throws NoSuchElementException if the key is not present;
+     */
+    @SuppressWarnings("unchecked")
+    private V remove (Node node, K key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = search(leaf, key);
+            if (i < 0) throw new NoSuchElementException("The key " + key + " is not in the tree.");
+            V result = (V) leaf.values[i];
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.n - i - 1);
+            System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.n - i - 1);
+            leaf.n--;
+            leaf.keys[leaf.n] = null;
+            leaf.values[leaf.n] = null;
+            size--;
+            modCount++;
+            return result;
+        }
+
+        Inner inner = (Inner) node;
+        int i = childIndex(inner, key);
+        V result = remove(inner.children[i], key);
+        if (inner.children[i].n < minKeys(inner.children[i])) rebalance(inner, i);
+        return result;
+    }
+
+    /**
+     * Least number of keys of a node other than the root: half of the elements of a leaf, or
+     * half of the children of an inner node.
+     *
+     * @param node to check;
+     *
+     * @return the minimum;
+     */
+    private int minKeys (Node node) {
+        return node instanceof Leaf ? fanout >>> 1 : (fanout >>> 1) - 1;
+    }
+
+    /**
+     * Fixes a child that underflowed, by moving a key from a sibling with keys to spare, or
+     * else by merging it with a sibling.
+     *
+     * @param parent of the child;
+     * @param i index of the child;
+     */
+    private void rebalance (Inner parent, int i) {
+        Node child = parent.children[i];
+        Node left = i > 0 ? parent.children[i - 1] : null;
+        Node right = i < parent.n ? parent.children[i + 1] : null;
+
+        if (left != null && left.n > minKeys(left))
+            borrowFromLeft(parent, i, left, child);
+        else if (right != null && right.n > minKeys(right))
+            borrowFromRight(parent, i, child, right);
+        else if (left != null)
+            merge(parent, i, left, child);
+        else
+            merge(parent, i + 1, child, right);
+    }
+
+    /**
+     * Moves the last key of the left sibling to the front of a child.
+     */
+    private void borrowFromLeft (Inner parent, int i, Node left, Node child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.n);
+        if (child instanceof Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf l = (Leaf) left;
+            System.arraycopy(c.values, 0, c.values, 1, c.n);
+            c.keys[0] = l.keys[l.n - 1];
+            c.values[0] = l.values[l.n - 1];
+            l.keys[l.n - 1] = null;
+            l.values[l.n - 1] = null;
+            parent.keys[i - 1] = c.keys[0];
+        }
+        else {
+            Inner c = (Inner) child;
+            Inner l = (Inner) left;
+            // The separator comes down, and the last key of the sibling goes up.
+            System.arraycopy(c.children, 0, c.children, 1, c.n + 1);
+            c.keys[0] = parent.keys[i - 1];
+            c.children[0] = l.children[l.n];
+            parent.keys[i - 1] = l.keys[l.n - 1];
+            l.keys[l.n - 1] = null;
+            l.children[l.n] = null;
+        }
+        left.n--;
+        child.n++;
+    }
+
+    /**
+     * Moves the first key of the right sibling to the end of a child.
+     */
+    private void borrowFromRight (Inner parent, int i, Node child, Node right) {
+        if (child instanceof Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf r = (Leaf) right;
+            c.keys[c.n] = r.keys[0];
+            c.values[c.n] = r.values[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.values, 1, r.values, 0, r.n - 1);
+            r.keys[r.n - 1] = null;
+            r.values[r.n - 1] = null;
+            parent.keys[i] = r.keys[0];
+        }
+        else {
+            Inner c = (Inner) child;
+            Inner r = (Inner) right;
+            // The separator comes down, and the first key of the sibling goes up.
+            c.keys[c.n] = parent.keys[i];
+            c.children[c.n + 1] = r.children[0];
+            parent.keys[i] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.n);
+            r.keys[r.n - 1] = null;
+            r.children[r.n] = null;
+        }
+        right.n--;
+        child.n++;
+    }
+
+    /**
+     * Merges a child into its left sibling, and removes it and its separator from the parent.
+     *
+     * @param parent of both;
+     * @param j index of the right one;
+     * @param left sibling, which is kept;
+     * @param right sibling, which is removed;
+     */
+    private void merge (Inner parent, int j, Node left, Node right) {
+        if (left instanceof Leaf) {
+            Leaf l = (Leaf) left;
+            Leaf r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.values, 0, l.values, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+            if (l.next != null) l.next.prev = l;
+        }
+        else {
+            Inner l = (Inner) left;
+            Inner r = (Inner) right;
+            l.keys[l.n] = parent.keys[j - 1];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+        System.arraycopy(parent.keys, j, parent.keys, j - 1, parent.n - j);
+        System.arraycopy(parent.children, j + 1, parent.children, j, parent.n - j);
+        parent.n--;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n + 1] = null;
+    }
+
+    /**
+     * Binary search of a key in a node.
+     *
+     * @param node to search;
+     * @param key to find;
+     *
+     * @return index of the key, or -(insertion point) - 1 if it's not there;
+     */
+    private int search (Node node, K key) {
+        return Arrays.binarySearch(node.keys, 0, node.n, key);
+    }
+
+    /**
+     * Index of the child of an inner node whose subtree would hold a key.
+     *
+     * @param inner node;
+     * @param key to find;
+     *
+     * @return index of the child;
+     */
+    private int childIndex (Inner inner, K key) {
+        int i = search(inner, key);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    /**
+     * Descends to the leaf that would hold a key. The tree must not be empty.
+     *
+     * @param key to find;
+     *
+     * @return the leaf;
+     */
+    private Leaf findLeaf (K key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf) node;
+    }
+
+    private Leaf firstLeaf () {
+        Node node = root;
+        while (node instanceof Inner) node = ((Inner) node).children[0];
+        return (Leaf) node;
+    }
+
+    private Leaf lastLeaf () {
+        Node node = root;
+        while (node instanceof Inner) node = ((Inner) node).children[node.n];
+        return (Leaf) node;
+    }
+
+    /**
+     * Gets the value of the element with the smallest key.
+     *
+     * @return value of the element with the least key;
+     *
+     * @throws NoSuchElementException when the tree is empty;
+     */
+    @SuppressWarnings("unchecked")
+    public V findMin () {
+        if (isEmpty()) throw new NoSuchElementException("The tree is empty.");
+        return (V) firstLeaf().values[0];
+    }
+
+    /**
+     * Gets the value of the element with the largest key.
+     *
+     * @return value of the element with the most key;
+     *
+     * @throws NoSuchElementException when the tree is empty;
+     */
+    @SuppressWarnings("unchecked")
+    public V findMax () {
+        if (isEmpty()) throw new NoSuchElementException("The tree is empty.");
+        Leaf last = lastLeaf();
+        return (V) last.values[last.n - 1];
+    }
+
+    /**
+     * The greatest key less than or equal to the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K floor (K key) {
+        return keyAt(floorPosition(key, true));
+    }
+
+    /**
+     * The least key greater than or equal to the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K ceiling (K key) {
+        return keyAt(ceilingPosition(key, true));
+    }
+
+    /**
+     * The greatest key strictly less than the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K lower (K key) {
+        return keyAt(floorPosition(key, false));
+    }
+
+    /**
+     * The least key strictly greater than the given key.
+     *
+     * @param key to search for;
+     *
+     * @return the key, or null if there is no such key;
+     */
+    public K higher (K key) {
+        return keyAt(ceilingPosition(key, false));
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt (Position p) {
+        return p == null ? null : (K) p.leaf.keys[p.index];
+    }
+
+    /**
+     * An element in a leaf.
+     */
+    private static final class Position {
+        final Leaf leaf;
+        final int index;
+
+        Position (Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Finds the element with the least key above a bound. Every key in the leaves before the
+     * leaf of the bound is less than it, so the element is in that leaf or the next.
+     *
+     * @param key bound;
+     * @param inclusive whether an element with the bound itself is accepted;
+     *
+     * @return the position, or null if every key is below the bound;
+     */
+    private Position ceilingPosition (K key, boolean inclusive) {
+        if (isEmpty()) return null;
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        i = i >= 0 ? (inclusive ? i : i + 1) : -(i + 1);
+        if (i < leaf.n) return new Position(leaf, i);
+        return leaf.next == null ? null : new Position(leaf.next, 0);
+    }
+
+    /**
+     * Finds the element with the greatest key below a bound. Every key in the leaves after the
+     * leaf of the bound is greater than it, so the element is in that leaf or the previous.
+     *
+     * @param key bound;
+     * @param inclusive whether an element with the bound itself is accepted;
+     *
+     * @return the position, or null if every key is above the bound;
+     */
+    private Position floorPosition (K key, boolean inclusive) {
+        if (isEmpty()) return null;
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        i = i >= 0 ? (inclusive ? i : i - 1) : -(i + 1) - 1;
+        if (i >= 0) return new Position(leaf, i);
+        return leaf.prev == null ? null : new Position(leaf.prev, leaf.prev.n - 1);
+    }
+
+    /**
+     * Copies the values to a list, in order.
+     *
+     * @return sorted list of values;
+     *
+     * @throws NoSuchElementException when the tree is empty;
+     */
+    public List<V> traverse () {
+        if (isEmpty()) throw new NoSuchElementException("Tree is empty.");
+        List<V> sorted = new ArrayList<>(size);
+        for (V value : this) sorted.add(value);
+        return sorted;
+    }
+
+    /**
+     * Provide an iterator for the structure, over the values in the order of the keys.
+     *
+     * @return LeafIterator;
+     */
+    @NotNull
+    @Override
+    public Iterator<V> iterator () {
+        return new Range(null, null).iterator();
+    }
+
+    /**
+     * Iterator over the values in descending order of the keys.
+     *
+     * @return LeafIterator;
+     */
+    public Iterator<V> descendingIterator () {
+        return new Range(null, null).descendingIterator();
+    }
+
+    /**
+     * Iterator over the values with keys in a range, in order. Finding the first key takes a
+     * descent from the root, and then the iterator only walks along the leaves.
+     *
+     * @param from least key, inclusive, or null for no lower bound;
+     * @param to greatest key, exclusive, or null for no upper bound;
+     *
+     * @return LeafIterator;
+     */
+    public Iterator<V> rangeIterator (K from, K to) {
+        return range(from, to).iterator();
+    }
+
+    /**
+     * View of the elements with keys in a range. Nothing is copied, and changes to the tree are
+     * seen by iterators created after them.
+     *
+     * @param from least key, inclusive, or null for no lower bound;
+     * @param to greatest key, exclusive, or null for no upper bound;
+     *
+     * @return the view;
+     *
+     * @throws IllegalArgumentException if from is greater than to;
+     */
+    public RangeView<V> range (K from, K to) {
+        if (from != null && to != null && from.compareTo(to) > 0)
+            throw new IllegalArgumentException("from (" + from + ") > to (" + to + ")");
+        return new Range(from, to);
+    }
+
+    /**
+     * View of the elements with keys less than a bound.
+     *
+     * @param to greatest key, exclusive;
+     *
+     * @return the view;
+     */
+    public RangeView<V> head (K to) {
+        return new Range(null, to);
+    }
+
+    /**
+     * View of the elements with keys greater than or equal to a bound.
+     *
+     * @param from least key, inclusive;
+     *
+     * @return the view;
+     */
+    public RangeView<V> tail (K from) {
+        return new Range(from, null);
+    }
+
+    /**
+     * Live view of the elements with keys in [from, to).
+     */
+    private class Range implements RangeView<V> {
+
+        /** Least key, inclusive, null for no bound. */
+        private final K from;
+
+        /** Greatest key, exclusive, null for no bound. */
+        private final K to;
+
+        private Range (K from, K to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<V> iterator () {
+            Position first;
+            if (isEmpty()) first = null;
+            else if (from == null) first = new Position(firstLeaf(), 0);
+            else first = ceilingPosition(from, true);
+            return new LeafIterator(first, to, false);
+        }
+
+        @Override
+        public Iterator<V> descendingIterator () {
+            Position first;
+            if (isEmpty()) first = null;
+            else if (to == null) {
+                Leaf last = lastLeaf();
+                first = new Position(last, last.n - 1);
+            }
+            else first = floorPosition(to, false);
+            return new LeafIterator(first, from, true);
+        }
+    }
+
+    /**
+     * Iterator that walks along the arrays of the leaves, in either direction, and stops at a
+     * bound: the exclusive upper bound going up, or the inclusive lower bound going down.
+     * Fails fast with a ConcurrentModificationException if the tree is structurally modified
+     * other than through the iterator itself.
+     */
+    private class LeafIterator implements Iterator<V> {
+
+        /** Leaf of the next element, null at the end. */
+        private Leaf leaf;
+
+        /** Index of the next element in its leaf. */
+        private int index;
+
+        /** Key of the element returned by the last call to next, null after a removal. */
+        private K lastReturned;
+
+        /** Key where the iteration stops, null for none. */
+        private final K bound;
+
+        /** True if the iteration goes from the greatest key to the least. */
+        private final boolean descending;
+
+        private int expectedModCount = modCount;
+
+        private LeafIterator (Position first, K bound, boolean descending) {
+            this.bound = bound;
+            this.descending = descending;
+            moveTo(first);
+        }
+
+        private void moveTo (Position p) {
+            if (p == null) leaf = null;
+            else moveTo(p.leaf, p.index);
+        }
+
+        /**
+         * Points the iterator at an element, or at the end if it's out of bounds.
+         *
+         * @param l leaf of the element, null for the end;
+         * @param i index of the element in the leaf;
+         */
+        @SuppressWarnings("unchecked")
+        private void moveTo (Leaf l, int i) {
+            leaf = null;
+            if (l == null) return;
+            if (bound != null) {
+                int cmp = ((K) l.keys[i]).compareTo(bound);
+                if (descending ? cmp < 0 : cmp >= 0) return;
+            }
+            leaf = l;
+            index = i;
+        }
+
+        @Override
+        public boolean hasNext () {
+            return leaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next () {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (leaf == null) throw new NoSuchElementException();
+            lastReturned = (K) leaf.keys[index];
+            V value = (V) leaf.values[index];
+
+            Leaf l = leaf;
+            int i = descending ? index - 1 : index + 1;
+            if (i < 0) {
+                l = l.prev;
+                i = l == null ? 0 : l.n - 1;
+            }
+            else if (i >= l.n) {
+                l = l.next;
+                i = 0;
+            }
+            moveTo(l, i);
+            return value;
+        }
+
+        /**
+         * Removes the last element returned. The leaves may be merged or rebalanced, so the
+         * next element is found again from its key, which is O(log n).
+         */
+        @Override
+        public void remove () {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            BPlusTree.this.remove(lastReturned);
+            if (leaf != null)
+                moveTo(descending
+                        ? floorPosition(lastReturned, false)
+                        : ceilingPosition(lastReturned, false));
+            expectedModCount = modCount;
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * Used for debugging, to assert that the tree is valid: the keys are sorted, within the
+     * bounds of the separators, every node but the root is at least half full, and all the
+     * leaves are at the same depth and linked in order.
+     *
+     * @return true if the tree is valid;
+     */
+    public final boolean isValid () {
+        if (root == null) return size == 0;
+        int[] count = new int[1];
+        Leaf[] previous = new Leaf[1];
+        return check(root, null, null, true, depth(), count, previous) && count[0] == size
+                && previous[0].next == null;
+    }
+
+    private int depth () {
+        int depth = 0;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) depth++;
+        return depth;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean check (Node node, K lo, K hi, boolean isRoot, int depth, int[] count,
+                           Leaf[] previous) {
+        if (!isRoot && node.n < minKeys(node)) return false;
+        for (int i = 0; i < node.n; i++) {
+            K key = (K) node.keys[i];
+            if (i > 0 && ((K) node.keys[i - 1]).compareTo(key) >= 0) return false;
+            if (lo != null && key.compareTo(lo) < 0 || hi != null && key.compareTo(hi) >= 0)
+                return false;
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if (depth != 0 || leaf.prev != previous[0]) return false;
+            if (previous[0] != null && previous[0].next != leaf) return false;
+            previous[0] = leaf;
+            count[0] += leaf.n;
+            return true;
+        }
+        Inner inner = (Inner) node;
+        for (int i = 0; i <= inner.n; i++) {
+            K childLo = i == 0 ? lo : (K) inner.keys[i - 1];
+            K childHi = i == inner.n ? hi : (K) inner.keys[i];
+            if (!check(inner.children[i], childLo, childHi, false, depth - 1, count, previous))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Logically clears the tree by nullifying its root.
+     */
+    public void clear () {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Check if there are any elements in the tree.
+     *
+     * @return true if the tree is empty;
+     */
+    public boolean isEmpty () {
+        return root == null;
+    }
+
+    /**
+     * Number of elements in the tree.
+     *
+     * @return size;
+     */
+    public int size () {
+        return size;
+    }
+
+}
@@ -10,7 +10,7 @@ import java.util.NoSuchElementException;
  * some deletions.
  * I really don't like deleting elements in this tree, it's way too complex...
  * On the other hand, traversing (which returns a sorted List) is very fast.
- * Traversing is the only recursive method.
+ * Nothing is recursive, so a degenerate tree is only slow, it does not overflow the stack.
  *
  * @param <K>
  * @param <V>
@@ -25,6 +25,51 @@ public class BinaryTree<K extends Comparable<K>, V> extends AbstractTree<K, V> {
         size = 0;
     }
 
+    /**
+     * Builds a perfectly balanced tree from sorted keys in O(n), with each middle key as the root
+     * of its range. Inserting sorted keys one by one would make a linked list instead.
+     *
+     * @param keys strictly ascending;
+     * @param values of the keys, in the same order;
+     * @param <K> key type;
+     * @param <V> value type;
+     *
+     * @return new tree;
+     *
+     * @throws IllegalArgumentException if the arrays have different lengths, or the keys are
+     *                                  null or not strictly ascending;
+     */
+    public static <K extends Comparable<K>, V> BinaryTree<K, V> fromSorted (K[] keys, V[] values) {
+        checkSorted(keys, values);
+        BinaryTree<K, V> tree = new BinaryTree<>();
+        tree.root = build(keys, values, 0, keys.length - 1, null);
+        tree.size = keys.length;
+        return tree;
+    }
+
+    /**
+     * Builds the subtree of a range of the keys. The depth of the recursion is log2(n).
+     *
+     * @param keys sorted;
+     * @param values of the keys;
+     * @param lo first index, inclusive;
+     * @param hi last index, inclusive;
+     * @param parent of the subtree;
+     *
+     * @return root of the subtree;
+     */
+    private static <K extends Comparable<K>, V> Node<K, V> build (K[] keys, V[] values,
+                                                                  int lo, int hi,
+                                                                  Node<K, V> parent) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node<K, V> n = new Node<>(keys[mid], values[mid]);
+        n.parent = parent;
+        n.left = build(keys, values, lo, mid - 1, n);
+        n.right = build(keys, values, mid + 1, hi, n);
+        return n;
+    }
+
     /**
      * Public method to call the recursive insertion method.
      * If this tree is empty, create the root.
@@ -36,6 +81,7 @@ public class BinaryTree<K extends Comparable<K>, V> extends AbstractTree<K, V> {
         if (isEmpty()) {
             root = new Node<>(key, value);
             root.parent = null;
+            modCount++;
         }
         else
             insertIteratively(key, value);
@@ -56,6 +102,7 @@ public class BinaryTree<K extends Comparable<K>, V> extends AbstractTree<K, V> {
                 if (current.left == null) {
                     current.left = new Node<>(key, value);
                     current.left.parent = current;
+                    modCount++;
                     break;
                 }
                 current = current.left;
@@ -63,6 +110,7 @@ public class BinaryTree<K extends Comparable<K>, V> extends AbstractTree<K, V> {
                 if (current.right == null) {
                     current.right = new Node<>(key, value);
                     current.right.parent = current;
+                    modCount++;
                     break;
                 }
                 current = current.right;
@@ -123,6 +171,7 @@ public class BinaryTree<K extends Comparable<K>, V> extends AbstractTree<K, V> {
             }
         }
         size--;
+        modCount++;
         return result;
     }
 
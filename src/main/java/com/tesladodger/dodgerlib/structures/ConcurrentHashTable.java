@@ -0,0 +1,510 @@
+package com.tesladodger.dodgerlib.structures;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+
+/**
+ * Thread safe hash table with lock striping.
+ * The buckets are split in stripes, each guarded by its own lock, so writers only contend when
+ * they touch the same stripe. Reads never lock: buckets are read through an atomic array and the
+ * values of the nodes are volatile.
+ * Resizing takes every lock, so it blocks writers, but builds a new array of buckets with copies
+ * of the nodes, so readers keep using the old one until the new one is published. A reader that
+ * notices the array changed while it was looking simply retries on the new one.
+ * Null keys and null values are not allowed, so a null return always means the key is absent.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ConcurrentHashTable<K, V> {
+
+    /**
+     * Element of a bucket. The key and hash never change, the value and the next pointer are
+     * volatile so they can be read without locking.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node (int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Default initial capacity. */
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    private static final float DEFAULT_FULLNESS_THRESHOLD = .75f;
+
+    /** Largest power of two that can be the length of an array. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** If number of elements exceeds this percentage of the capacity the array is resized. */
+    private final float FULLNESS_THRESHOLD;
+
+    /** Array of buckets, replaced when resizing. */
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+
+    /** One lock per stripe. A bucket's stripe is given by the lower bits of its index. */
+    private final ReentrantLock[] locks;
+
+    /** Number of elements in each stripe, only written while holding the stripe's lock. */
+    private final AtomicIntegerArray counts;
+
+    /**
+     * Constructor with default values: capacity of 64, threshold of 75% and four stripes per
+     * available processor.
+     */
+    public ConcurrentHashTable () {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor with specified capacity and default threshold and stripes.
+     *
+     * @param capacity initial size of the array;
+     */
+    public ConcurrentHashTable (int capacity) {
+        this(capacity, DEFAULT_FULLNESS_THRESHOLD,
+                Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructor with specified values. The capacity and stripes are rounded up to powers of
+     * two, and the capacity is never less than the number of stripes.
+     *
+     * @param capacity initial size of the array;
+     * @param threshold specified threshold;
+     * @param stripes number of locks, which is the maximum number of concurrent writers;
+     *
+     * @throws IllegalArgumentException if the threshold is not positive;
+     */
+    public ConcurrentHashTable (int capacity, float threshold, int stripes) {
+        if (!(threshold > 0)) throw new IllegalArgumentException("Threshold must be positive.");
+        this.FULLNESS_THRESHOLD = threshold;
+        stripes = tableSizeFor(stripes);
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++)
+            locks[i] = new ReentrantLock();
+        counts = new AtomicIntegerArray(stripes);
+        table = new AtomicReferenceArray<>(Math.max(tableSizeFor(capacity), stripes));
+    }
+
+    /**
+     * Returns the value of an element in the table. Never locks.
+     *
+     * @param key of that element;
+     *
+     * @return value or null if the element is not present;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    public V get (K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int h = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            V result = null;
+            for (Node<K, V> e = tab.get(h & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == h && e.key.equals(key)) {
+                    result = e.value;
+                    break;
+                }
+            }
+            // If the table was resized in the meantime, the result may be stale.
+            AtomicReferenceArray<Node<K, V>> current = table;
+            if (current == tab) return result;
+            tab = current;
+        }
+    }
+
+    /**
+     * Check if a key is present in the table.
+     *
+     * @param key to look for;
+     *
+     * @return true if the key is in the table;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    public boolean containsKey (K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Inserts a new element in the table. When an existing key is provided, the corresponding
+     * value is updated.
+     *
+     * @param key of the new element;
+     * @param value of the new element;
+     *
+     * @return previous value of the key or null if it wasn't present;
+     *
+     * @throws IllegalArgumentException if the provided key or value is null;
+     */
+    public V put (K key, V value) {
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        return putValue(key, value, false);
+    }
+
+    /**
+     * Inserts a new element in the table, only if the key is not present, atomically.
+     *
+     * @param key of the new element;
+     * @param value of the new element;
+     *
+     * @return current value of the key or null if the new element was inserted;
+     *
+     * @throws IllegalArgumentException if the provided key or value is null;
+     */
+    public V putIfAbsent (K key, V value) {
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        return putValue(key, value, true);
+    }
+
+    /**
+     * Common implementation of put and putIfAbsent.
+     *
+     * @param key of the new element;
+     * @param value of the new element;
+     * @param onlyIfAbsent don't update existing keys;
+     *
+     * @return previous value;
+     */
+    private V putValue (K key, V value, boolean onlyIfAbsent) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int h = hash(key);
+        int stripe = h & (locks.length - 1);
+        AtomicReferenceArray<Node<K, V>> tab;
+        locks[stripe].lock();
+        try {
+            tab = table;
+            int i = h & (tab.length() - 1);
+            Node<K, V> e = find(tab.get(i), h, key);
+            if (e != null) {
+                V old = e.value;
+                if (!onlyIfAbsent) e.value = value;
+                return old;
+            }
+            tab.set(i, new Node<>(h, key, value, tab.get(i)));
+            counts.incrementAndGet(stripe);
+        } finally {
+            locks[stripe].unlock();
+        }
+        resizeIfNeeded(tab, stripe);
+        return null;
+    }
+
+    /**
+     * If the key is not present, computes its value and inserts it, atomically. The function is
+     * called while holding the stripe's lock, so it should be short and must not modify this
+     * table.
+     *
+     * @param key of the element;
+     * @param function to compute the value from the key;
+     *
+     * @return current value of the key, which is the computed one if it was absent, or null if
+     *         the function returned null;
+     *
+     * @throws IllegalArgumentException if the provided key or function is null;
+     */
+    public V computeIfAbsent (K key, Function<? super K, ? extends V> function) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (function == null) throw new IllegalArgumentException("Function cannot be null");
+
+        V existing = get(key);
+        if (existing != null) return existing;
+
+        int h = hash(key);
+        int stripe = h & (locks.length - 1);
+        AtomicReferenceArray<Node<K, V>> tab;
+        V value;
+        locks[stripe].lock();
+        try {
+            tab = table;
+            int i = h & (tab.length() - 1);
+            Node<K, V> e = find(tab.get(i), h, key);
+            if (e != null) return e.value;
+            if ((value = function.apply(key)) == null) return null;
+            tab.set(i, new Node<>(h, key, value, tab.get(i)));
+            counts.incrementAndGet(stripe);
+        } finally {
+            locks[stripe].unlock();
+        }
+        resizeIfNeeded(tab, stripe);
+        return value;
+    }
+
+    /**
+     * Inserts the value if the key is absent, otherwise combines the current value with the
+     * given one, atomically. If the combined value is null the element is removed. The function
+     * is called while holding the stripe's lock, so it should be short and must not modify this
+     * table.
+     *
+     * @param key of the element;
+     * @param value to insert or combine;
+     * @param function to combine the current value (first argument) with the given one;
+     *
+     * @return new value of the key or null if it was removed;
+     *
+     * @throws IllegalArgumentException if the provided key, value or function is null;
+     */
+    public V merge (K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        if (function == null) throw new IllegalArgumentException("Function cannot be null");
+
+        int h = hash(key);
+        int stripe = h & (locks.length - 1);
+        AtomicReferenceArray<Node<K, V>> tab;
+        locks[stripe].lock();
+        try {
+            tab = table;
+            int i = h & (tab.length() - 1);
+            Node<K, V> e = find(tab.get(i), h, key);
+            if (e != null) {
+                V merged = function.apply(e.value, value);
+                if (merged != null)
+                    e.value = merged;
+                else
+                    unlink(tab, i, e, stripe);
+                return merged;
+            }
+            tab.set(i, new Node<>(h, key, value, tab.get(i)));
+            counts.incrementAndGet(stripe);
+        } finally {
+            locks[stripe].unlock();
+        }
+        resizeIfNeeded(tab, stripe);
+        return value;
+    }
+
+    /**
+     * Removes an element from the table.
+     *
+     * @param key of that element;
+     *
+     * @return value of the element or null, if the element is not present;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    public V remove (K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int h = hash(key);
+        int stripe = h & (locks.length - 1);
+        locks[stripe].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int i = h & (tab.length() - 1);
+            Node<K, V> e = find(tab.get(i), h, key);
+            if (e == null) return null;
+            unlink(tab, i, e, stripe);
+            return e.value;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Searches a bucket for a key.
+     *
+     * @param first node of the bucket;
+     * @param h hash of the key;
+     * @param key to find;
+     *
+     * @return node with the key or null;
+     */
+    private Node<K, V> find (Node<K, V> first, int h, K key) {
+        for (Node<K, V> e = first; e != null; e = e.next) {
+            if (e.hash == h && e.key.equals(key))
+                return e;
+        }
+        return null;
+    }
+
+    /**
+     * Removes a node from its bucket. Must hold the stripe's lock. The removed node keeps its
+     * next pointer, so readers currently on it still reach the rest of the bucket.
+     *
+     * @param tab current array of buckets;
+     * @param i index of the bucket;
+     * @param node to remove;
+     * @param stripe of the bucket;
+     */
+    private void unlink (AtomicReferenceArray<Node<K, V>> tab, int i, Node<K, V> node, int stripe) {
+        Node<K, V> first = tab.get(i);
+        if (first == node) {
+            tab.set(i, node.next);
+        } else {
+            Node<K, V> p = first;
+            while (p.next != node) p = p.next;
+            p.next = node.next;
+        }
+        counts.decrementAndGet(stripe);
+    }
+
+    /**
+     * Resizes the table if it got too full. Each stripe owns an equal share of the buckets, so
+     * the total is only summed when the stripe that grew is over its share of the threshold.
+     *
+     * @param tab array of buckets where the element was inserted;
+     * @param stripe that grew;
+     */
+    private void resizeIfNeeded (AtomicReferenceArray<Node<K, V>> tab, int stripe) {
+        int share = tab.length() / locks.length;
+        if (counts.get(stripe) > share * FULLNESS_THRESHOLD &&
+                size() > tab.length() * FULLNESS_THRESHOLD && tab.length() < MAXIMUM_CAPACITY)
+            resize(tab);
+    }
+
+    /**
+     * Doubles the size of the table, holding every lock. The nodes are copied, so concurrent
+     * readers of the old array are not affected.
+     *
+     * @param old array of buckets that was found to be too full;
+     */
+    private void resize (AtomicReferenceArray<Node<K, V>> old) {
+        lockAll();
+        try {
+            // Someone else already resized it.
+            if (table != old) return;
+
+            int capacity = old.length() << 1;
+            AtomicReferenceArray<Node<K, V>> tab = new AtomicReferenceArray<>(capacity);
+            for (int j = 0; j < old.length(); j++) {
+                for (Node<K, V> e = old.get(j); e != null; e = e.next) {
+                    int i = e.hash & (capacity - 1);
+                    tab.lazySet(i, new Node<>(e.hash, e.key, e.value, tab.get(i)));
+                }
+            }
+            table = tab;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Acquire every lock, always in the same order.
+     */
+    private void lockAll () {
+        for (ReentrantLock lock : locks)
+            lock.lock();
+    }
+
+    /**
+     * Release every lock.
+     */
+    private void unlockAll () {
+        for (int i = locks.length - 1; i >= 0; i--)
+            locks[i].unlock();
+    }
+
+    /**
+     * {@link LinkedList} with the keys present in the table. Not a snapshot, concurrent
+     * modifications may or may not be reflected.
+     *
+     * @return list of the keys in the table;
+     */
+    public LinkedList<K> keys () {
+        LinkedList<K> result = new LinkedList<>();
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            for (Node<K, V> e = tab.get(i); e != null; e = e.next)
+                result.addFirst(e.key);
+        }
+        return result;
+    }
+
+    /**
+     * {@link LinkedList} with the values present in the table. Not a snapshot, concurrent
+     * modifications may or may not be reflected.
+     *
+     * @return list of values in the table;
+     */
+    public LinkedList<V> values () {
+        LinkedList<V> result = new LinkedList<>();
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            for (Node<K, V> e = tab.get(i); e != null; e = e.next)
+                result.addFirst(e.value);
+        }
+        return result;
+    }
+
+    /**
+     * Clear the table, keeping the current capacity.
+     */
+    public void clear () {
+        lockAll();
+        try {
+            table = new AtomicReferenceArray<>(table.length());
+            for (int i = 0; i < locks.length; i++)
+                counts.set(i, 0);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Return whether are any values in the table.
+     *
+     * @return true if empty;
+     */
+    public boolean isEmpty () {
+        return size() == 0;
+    }
+
+    /**
+     * Return the number of elements in this table. With concurrent writers this is only an
+     * estimate.
+     *
+     * @return number of elements;
+     */
+    public int size () {
+        int size = 0;
+        for (int i = 0; i < locks.length; i++)
+            size += counts.get(i);
+        return size;
+    }
+
+    /**
+     * Smallest power of two greater or equal to the requested value.
+     *
+     * @param n requested;
+     *
+     * @return power of two;
+     */
+    private static int tableSizeFor (int n) {
+        if (n <= 1) return 1;
+        if (n >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of the hash code, see {@link OpenHashTable}.
+     *
+     * @param key to be hashed;
+     *
+     * @return spread hash (int);
+     */
+    private static int hash (Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
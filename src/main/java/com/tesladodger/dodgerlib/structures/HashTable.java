@@ -1,13 +1,47 @@
 package com.tesladodger.dodgerlib.structures;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Hash table to map keys to values.
+ * In incremental mode, resizing doesn't rehash every bucket at once: the old array is kept
+ * alongside the new one, and each put, get and remove moves a few buckets from the old to the
+ * new, so the cost of the resize is spread over the following operations. The number of buckets
+ * moved is chosen on each resize so the migration ends before the next resize is due.
+ * Iterating over the table walks the array of buckets in place, returning the nodes themselves as
+ * entries. During an incremental resize, the buckets of the old array that weren't migrated yet
+ * are walked too, so iterating doesn't finish the resize. Since a get can migrate buckets, the
+ * table must not be used at all while iterating in that state.
  *
  * @param <K>
  * @param <V>
  */
-public class HashTable<K, V> {
+public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
+
+    /**
+     * Key-value pair of the table, as seen when iterating.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    public interface Entry<K, V> {
+
+        /**
+         * @return key of the entry;
+         */
+        K getKey ();
+
+        /**
+         * @return value of the entry;
+         */
+        V getValue ();
+    }
 
     /**
      * Each element in the table points to the root of a basic linked list, usually called bucket. In
@@ -16,7 +50,7 @@ public class HashTable<K, V> {
      * @param <K>
      * @param <V>
      */
-    private static class Node<K, V> {
+    private static class Node<K, V> implements Entry<K, V> {
         K key;
         V value;
         Node<K, V> next;
@@ -26,6 +60,16 @@ public class HashTable<K, V> {
             this.value = value;
             this.next = next;
         }
+
+        @Override
+        public K getKey () {
+            return key;
+        }
+
+        @Override
+        public V getValue () {
+            return value;
+        }
     }
 
     /** Size of the array. It's also used as modulo for hashing. */
@@ -48,6 +92,24 @@ public class HashTable<K, V> {
     /** List of prime numbers. */
     private static final int[] primes = {11, 53, 101, 251, 503, 1009, 1499, 2069, 3001, 4001, 5003};
 
+    /** Whether to resize incrementally. */
+    private final boolean incremental;
+
+    /** Array being migrated, only present while an incremental resize is in progress. */
+    private Node<K, V>[] oldTable;
+
+    /** Size of the array being migrated. */
+    private int oldCapacity;
+
+    /** Buckets of the old array below this index were already migrated. */
+    private int migrated;
+
+    /**
+     * Number of old buckets moved to the new array in each operation, set on every resize so the
+     * migration ends before the next resize is due.
+     */
+    private int migrationStep;
+
     /**
      * Constructor with default values: capacity of 11 and threshold of 75%.
      */
@@ -70,11 +132,23 @@ public class HashTable<K, V> {
      * @param capacity specified size of the array;
      * @param threshold specified threshold;
      */
-    @SuppressWarnings("unchecked")
     public HashTable (int capacity, float threshold) {
+        this(capacity, threshold, false);
+    }
+
+    /**
+     * Constructor with specified values and resizing mode.
+     *
+     * @param capacity specified size of the array;
+     * @param threshold specified threshold;
+     * @param incremental whether to spread the resizing over the following operations;
+     */
+    @SuppressWarnings("unchecked")
+    public HashTable (int capacity, float threshold, boolean incremental) {
         if (capacity < 1) capacity = 1;
         this.capacity = capacity;
         this.FULLNESS_THRESHOLD = threshold;
+        this.incremental = incremental;
         table = ( Node<K, V>[] ) new Node[capacity];
     }
 
@@ -89,23 +163,20 @@ public class HashTable<K, V> {
      */
     public void put (K key, V value) {
         if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (oldTable != null) migrate();
 
-        int i = hash(key, capacity);
-
-        // Check for duplicate keys in the bucket.
-        Node<K, V> current = table[i];
-        while (current != null) {
-            if (current.key.equals(key)) {
-                current.value = value;
-                return;
-            }
-            current = current.next;
+        // Check for duplicate keys.
+        Node<K, V> current = findNode(key);
+        if (current != null) {
+            current.value = value;
+            return;
         }
 
+        int i = hash(key, capacity);
         table[i] = new Node<>(key, value, table[i]);
         size++;
 
-        if (capacity <= 5003 && (float) size / capacity > FULLNESS_THRESHOLD)
+        if ((float) size / capacity > FULLNESS_THRESHOLD)
             resize();
     }
 
@@ -120,15 +191,39 @@ public class HashTable<K, V> {
      */
     public V get (K key) {
         if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (oldTable != null) migrate();
 
-        int i = hash(key, capacity);
+        Node<K, V> current = findNode(key);
+        return current == null ? null : current.value;
+    }
 
-        Node<K, V> current = table[i];
+    /**
+     * Finds the node with a key, in the array or in the part of the old array that wasn't
+     * migrated yet.
+     *
+     * @param key of the node;
+     *
+     * @return node or null if the key is not present;
+     */
+    private Node<K, V> findNode (K key) {
+        Node<K, V> current = table[hash(key, capacity)];
         while (current != null) {
             if (current.key.equals(key))
-                return current.value;
+                return current;
             current = current.next;
         }
+
+        if (oldTable != null) {
+            int i = hash(key, oldCapacity);
+            if (i >= migrated) {
+                current = oldTable[i];
+                while (current != null) {
+                    if (current.key.equals(key))
+                        return current;
+                    current = current.next;
+                }
+            }
+        }
         return null;
     }
 
@@ -143,21 +238,42 @@ public class HashTable<K, V> {
      */
     public V remove (K key) {
         if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (oldTable != null) migrate();
 
-        int i = hash(key, capacity);
+        Node<K, V> removed = removeNode(table, hash(key, capacity), key);
+        if (removed == null && oldTable != null) {
+            int i = hash(key, oldCapacity);
+            if (i >= migrated)
+                removed = removeNode(oldTable, i, key);
+        }
+        if (removed == null)
+            return null;
+        size--;
+        return removed.value;
+    }
 
+    /**
+     * Unlinks the node with a key from a bucket.
+     *
+     * @param table array of buckets;
+     * @param i index of the bucket;
+     * @param key of the node;
+     *
+     * @return removed node or null if the key is not in the bucket;
+     */
+    private static <K, V> Node<K, V> removeNode (Node<K, V>[] table, int i, K key) {
         Node<K, V> current = table[i];
+        if (current == null)
+            return null;
         if (current.key.equals(key)) {
             table[i] = current.next;
-            size--;
-            return current.value;
+            return current;
         }
         while (current.next != null) {
             if (current.next.key.equals(key)) {
-                V toRet = current.next.value;
-                current.next = current.next.next;
-                size--;
-                return toRet;
+                Node<K, V> removed = current.next;
+                current.next = removed.next;
+                return removed;
             }
             current = current.next;
         }
@@ -166,11 +282,21 @@ public class HashTable<K, V> {
 
     /**
      * Method to resize the internal array when the 'fullness' surpasses the threshold.
+     * In incremental mode, the current array becomes the old one and is migrated over the next
+     * operations.
      */
     private void resize () {
-        // Select the next prime on the list.
+        // A resize can't start while another is in progress. The migration step is set so this
+        // never has to finish one at once.
+        assert oldTable == null : "Resize started before the previous migration ended";
+        while (oldTable != null) migrate();
+
+        int previous = capacity;
+
+        // Select the next prime on the list. Past the list, use the next odd size after doubling.
+        capacity = 2 * capacity + 1;
         for (int prime : primes) {
-            if (prime > capacity) {
+            if (prime > previous) {
                 capacity = prime;
                 break;
             }
@@ -179,22 +305,59 @@ public class HashTable<K, V> {
         // noinspection unchecked
         Node<K, V>[] newTable = (Node<K, V>[]) new Node[capacity];
 
+        if (incremental) {
+            oldTable = table;
+            oldCapacity = previous;
+            migrated = 0;
+            // About threshold * (capacity - previous) puts are left until the next resize, and
+            // each of them migrates a step. The extra bucket covers the rounding.
+            double operations = FULLNESS_THRESHOLD * (double) (capacity - previous);
+            migrationStep = (int) Math.min(Math.ceil(previous / operations) + 1, previous);
+            table = newTable;
+            return;
+        }
+
         // Populate the new table with new hashes.
         for (Node<K, V> entry : table) {
-            if (entry != null) {
-                Node<K, V> current = entry;
-                while (current != null) {
-                    int i = hash(current.key, capacity);
-                    Node<K, V> temp = current.next;
-                    current.next = newTable[i];
-                    newTable[i] = current;
-                    current = temp;
-                }
-            }
+            if (entry != null)
+                rehashBucket(entry, newTable);
         }
         table = newTable;
     }
 
+    /**
+     * Moves the next few buckets of the old array to the current one, and drops the old array
+     * when every bucket was moved.
+     */
+    private void migrate () {
+        int end = Math.min(migrated + migrationStep, oldCapacity);
+        for (; migrated < end; migrated++) {
+            if (oldTable[migrated] != null) {
+                rehashBucket(oldTable[migrated], table);
+                oldTable[migrated] = null;
+            }
+        }
+        if (migrated == oldCapacity)
+            oldTable = null;
+    }
+
+    /**
+     * Inserts every node of a bucket in another array.
+     *
+     * @param first node of the bucket;
+     * @param newTable destination array;
+     */
+    private void rehashBucket (Node<K, V> first, Node<K, V>[] newTable) {
+        Node<K, V> current = first;
+        while (current != null) {
+            int i = hash(current.key, capacity);
+            Node<K, V> temp = current.next;
+            current.next = newTable[i];
+            newTable[i] = current;
+            current = temp;
+        }
+    }
+
     /**
      * {@link LinkedList} with the keys present in the table.
      *
@@ -202,14 +365,7 @@ public class HashTable<K, V> {
      */
     public LinkedList<K> keys () {
         LinkedList<K> result = new LinkedList<>();
-        for (Node<K, V> n : table) {
-            if (n != null) {
-                Node<K, V> c = n;
-                do {
-                    result.add(c.key);
-                } while ((c = c.next) != null);
-            }
-        }
+        forEach((key, value) -> result.addFirst(key));
         return result;
     }
 
@@ -220,15 +376,183 @@ public class HashTable<K, V> {
      */
     public LinkedList<V> values () {
         LinkedList<V> result = new LinkedList<>();
+        forEach((key, value) -> result.addFirst(value));
+        return result;
+    }
+
+    /**
+     * Performs an action for each key and value in the table, walking the buckets in place.
+     *
+     * @param action to perform;
+     */
+    public void forEach (BiConsumer<? super K, ? super V> action) {
+        if (oldTable != null) {
+            for (int i = migrated; i < oldCapacity; i++) {
+                for (Node<K, V> c = oldTable[i]; c != null; c = c.next)
+                    action.accept(c.key, c.value);
+            }
+        }
         for (Node<K, V> n : table) {
-            if (n != null) {
-                Node<K, V> c = n;
-                do {
-                    result.add(c.value);
-                } while ((c = c.next) != null);
+            for (Node<K, V> c = n; c != null; c = c.next)
+                action.accept(c.key, c.value);
+        }
+    }
+
+    /**
+     * Provide an iterator over the entries of the table. The entries are the nodes of the table
+     * themselves, so nothing is allocated per element. The table must not be modified while
+     * iterating.
+     *
+     * @return EntryIterator for the table;
+     */
+    @NotNull
+    @Override
+    public Iterator<Entry<K, V>> iterator () {
+        return new EntryIterator<>(new Buckets<>(oldTable, migrated, oldCapacity, table));
+    }
+
+    /**
+     * Provide a spliterator over the entries of the table, which splits the array of buckets in
+     * halves, for parallel streams. The table must not be modified while it's in use.
+     *
+     * @return EntrySpliterator for the table;
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator () {
+        Buckets<K, V> buckets = new Buckets<>(oldTable, migrated, oldCapacity, table);
+        return new EntrySpliterator<>(buckets, 0, buckets.length, size);
+    }
+
+    /**
+     * The buckets to walk: the ones of the old array that weren't migrated yet, if a resize is in
+     * progress, followed by the ones of the current array, as a single range of indices.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static final class Buckets<K, V> {
+        private final Node<K, V>[] old;
+        private final int oldFrom;
+        private final int oldCount;
+        private final Node<K, V>[] table;
+        private final int length;
+
+        Buckets (Node<K, V>[] old, int oldFrom, int oldCapacity, Node<K, V>[] table) {
+            this.old = old;
+            this.oldFrom = oldFrom;
+            this.oldCount = old == null ? 0 : oldCapacity - oldFrom;
+            this.table = table;
+            this.length = oldCount + table.length;
+        }
+
+        Node<K, V> get (int i) {
+            return i < oldCount ? old[oldFrom + i] : table[i - oldCount];
+        }
+    }
+
+    /**
+     * Cursor over the buckets of the table.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Buckets<K, V> buckets;
+        private Node<K, V> next;
+        private int index;
+
+        EntryIterator (Buckets<K, V> buckets) {
+            this.buckets = buckets;
+            advance();
+        }
+
+        /**
+         * Moves to the next non empty bucket.
+         */
+        private void advance () {
+            while (next == null && index < buckets.length)
+                next = buckets.get(index++);
+        }
+
+        @Override
+        public boolean hasNext () {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next () {
+            if (next == null) throw new NoSuchElementException();
+            Node<K, V> current = next;
+            next = current.next;
+            advance();
+            return current;
+        }
+    }
+
+    /**
+     * Spliterator over a range of buckets.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static class EntrySpliterator<K, V> implements Spliterator<Entry<K, V>> {
+        private final Buckets<K, V> buckets;
+        private Node<K, V> current;
+        private int index;
+        private final int fence;
+        private long estimate;
+
+        EntrySpliterator (Buckets<K, V> buckets, int origin, int fence, long estimate) {
+            this.buckets = buckets;
+            this.index = origin;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance (Consumer<? super Entry<K, V>> action) {
+            while (current == null && index < fence)
+                current = buckets.get(index++);
+            if (current == null)
+                return false;
+            Node<K, V> n = current;
+            current = n.next;
+            action.accept(n);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining (Consumer<? super Entry<K, V>> action) {
+            for (Node<K, V> n = current; n != null; n = n.next)
+                action.accept(n);
+            current = null;
+            for (; index < fence; index++) {
+                for (Node<K, V> n = buckets.get(index); n != null; n = n.next)
+                    action.accept(n);
             }
         }
-        return result;
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit () {
+            // Can't split in the middle of a bucket.
+            if (current != null) return null;
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) return null;
+            EntrySpliterator<K, V> prefix =
+                    new EntrySpliterator<>(buckets, index, mid, estimate >>>= 1);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize () {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics () {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
     }
 
     /**
@@ -237,6 +561,7 @@ public class HashTable<K, V> {
     @SuppressWarnings("unchecked")
     public void clear () {
         table = (Node<K, V> []) new Node[capacity];
+        oldTable = null;
         size = 0;
     }
 
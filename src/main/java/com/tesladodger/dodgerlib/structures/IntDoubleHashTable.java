@@ -0,0 +1,342 @@
+package com.tesladodger.dodgerlib.structures;
+
+
+/**
+ * Hash table that maps int keys to double values, without boxing.
+ * Same layout as {@link OpenHashTable}: flat arrays, power of two capacity, linear probing and
+ * backward shift deletion. Since there's no null for primitives, the key 0 marks a free slot, and
+ * the entry with that key (if any) is kept in separate fields.
+ */
+public class IntDoubleHashTable {
+
+    /** Default initial capacity. */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private static final float DEFAULT_FULLNESS_THRESHOLD = .5f;
+
+    /** Largest power of two that can be the length of an array. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** If number of elements exceeds this percentage of the capacity the arrays are resized. */
+    private final float FULLNESS_THRESHOLD;
+
+    /** Keys of the table, 0 means the slot is free. */
+    private int[] keys;
+
+    /** Values of the table, in the same index as their key. */
+    private double[] values;
+
+    /** Whether the key 0 is in the table. */
+    private boolean hasZeroKey;
+
+    /** Value of the key 0. */
+    private double zeroValue;
+
+    /** Capacity - 1, used instead of modulo to find the index. */
+    private int mask;
+
+    /** Number of elements after which the table is resized. */
+    private int resizeAt;
+
+    /** Number of elements in the table. */
+    private int size;
+
+    /**
+     * Constructor with default values: capacity of 16 and threshold of 50%.
+     */
+    public IntDoubleHashTable () {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_FULLNESS_THRESHOLD);
+    }
+
+    /**
+     * Constructor with specified capacity and default threshold of 50%.
+     *
+     * @param capacity minimum size of the arrays;
+     */
+    public IntDoubleHashTable (int capacity) {
+        this(capacity, DEFAULT_FULLNESS_THRESHOLD);
+    }
+
+    /**
+     * Constructor with specified values. The capacity is rounded up to a power of two.
+     *
+     * @param capacity minimum size of the arrays;
+     * @param threshold specified threshold, must be in ]0, 1[;
+     *
+     * @throws IllegalArgumentException if the threshold is not in the valid range;
+     */
+    public IntDoubleHashTable (int capacity, float threshold) {
+        if (!(threshold > 0 && threshold < 1))
+            throw new IllegalArgumentException("Threshold must be between 0 and 1.");
+        this.FULLNESS_THRESHOLD = threshold;
+        allocate(tableSizeFor(capacity));
+    }
+
+    /**
+     * Inserts a new element in the table. When an existing key is provided, the corresponding
+     * value is updated.
+     *
+     * @param key of the new element;
+     * @param value of the new element;
+     *
+     * @throws IllegalStateException if the table is full and can't grow any further;
+     */
+    public void put (int key, double value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = hash(key) & mask;
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // Grow first, so a put that doesn't fit leaves the table as it was.
+        if (size + 1 > resizeAt) {
+            resize();
+            i = hash(key) & mask;
+            while (keys[i] != 0)
+                i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Returns the value of an element in the table.
+     *
+     * @param key of that element;
+     *
+     * @return value or 0 if the element is not present;
+     */
+    public double get (int key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Returns the value of an element in the table, or a default if it's not present.
+     *
+     * @param key of that element;
+     * @param defaultValue returned when the key is not present;
+     *
+     * @return value or the default;
+     */
+    public double getOrDefault (int key, double defaultValue) {
+        if (key == 0) return hasZeroKey ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * Check if a key is present in the table.
+     *
+     * @param key to look for;
+     *
+     * @return true if the key is in the table;
+     */
+    public boolean containsKey (int key) {
+        if (key == 0) return hasZeroKey;
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Removes an element from the table.
+     *
+     * @param key of that element;
+     *
+     * @return value of the element or 0, if the element is not present;
+     */
+    public double remove (int key) {
+        if (key == 0) {
+            if (!hasZeroKey) return 0;
+            hasZeroKey = false;
+            size--;
+            double result = zeroValue;
+            zeroValue = 0;
+            return result;
+        }
+
+        int i = indexOf(key);
+        if (i < 0) return 0;
+
+        double result = values[i];
+        shiftBack(i);
+        size--;
+        return result;
+    }
+
+    /**
+     * Probes the table for a non zero key.
+     *
+     * @param key to find;
+     *
+     * @return index of the key or -1 if it's not present;
+     */
+    private int indexOf (int key) {
+        int i = hash(key) & mask;
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Frees a slot by moving back the following elements of the cluster that would no longer be
+     * reachable from their home index.
+     *
+     * @param free index of the slot being freed;
+     */
+    private void shiftBack (int free) {
+        int i = free;
+        int k;
+        while ((k = keys[i = (i + 1) & mask]) != 0) {
+            int home = hash(k) & mask;
+            // Move the element if its home is not in the cyclic interval ]free, i].
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = k;
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+    }
+
+    /**
+     * Doubles the size of the arrays and reinserts every element.
+     *
+     * @throws IllegalStateException if the table can't grow any further;
+     */
+    private void resize () {
+        if (keys.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("The table has reached its maximum capacity.");
+
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(oldKeys.length << 1);
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (keys[i] != 0)
+                    i = (i + 1) & mask;
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Creates new arrays with the given capacity.
+     *
+     * @param capacity power of two;
+     */
+    private void allocate (int capacity) {
+        keys = new int[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+        // Always leave at least one free slot, so probing terminates.
+        resizeAt = Math.min(capacity - 1, (int) (capacity * FULLNESS_THRESHOLD));
+    }
+
+    /**
+     * Array with the keys present in the table.
+     *
+     * @return keys in the table;
+     */
+    public int[] keys () {
+        int[] result = new int[size];
+        int j = 0;
+        if (hasZeroKey) result[j++] = 0;
+        for (int k : keys) {
+            if (k != 0)
+                result[j++] = k;
+        }
+        return result;
+    }
+
+    /**
+     * Array with the values present in the table, in the same order as {@link #keys()}.
+     *
+     * @return values in the table;
+     */
+    public double[] values () {
+        double[] result = new double[size];
+        int j = 0;
+        if (hasZeroKey) result[j++] = zeroValue;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                result[j++] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Clear the table, keeping the current capacity.
+     */
+    public void clear () {
+        allocate(keys.length);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    /**
+     * Return whether are any values in the table.
+     *
+     * @return true if empty;
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of elements in this table.
+     *
+     * @return number of elements;
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Smallest power of two greater or equal to the requested capacity.
+     *
+     * @param capacity requested;
+     *
+     * @return power of two;
+     */
+    private static int tableSizeFor (int capacity) {
+        if (capacity <= 2) return 2;
+        if (capacity >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Fibonacci hashing of the key, see {@link OpenHashTable}.
+     *
+     * @param key to be hashed;
+     *
+     * @return spread hash (int);
+     */
+    private static int hash (int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.tesladodger.dodgerlib.structures;
+
+
+/**
+ * Hash table with open addressing and linear probing.
+ * Keys and values are stored in two flat arrays, instead of a node per entry, and the capacity is
+ * always a power of two, so the index is a mask of the spread hash. The table doubles whenever
+ * the threshold is surpassed, without an upper bound on the capacity (other than the maximum size
+ * of an array).
+ * Removal uses backward shifting, so there are no tombstones and the probe sequences never
+ * degrade after deletions.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class OpenHashTable<K, V> {
+
+    /** Default initial capacity. */
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private static final float DEFAULT_FULLNESS_THRESHOLD = .5f;
+
+    /** Largest power of two that can be the length of an array. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** If number of elements exceeds this percentage of the capacity the arrays are resized. */
+    private final float FULLNESS_THRESHOLD;
+
+    /** Keys of the table, a null key means the slot is free. */
+    private Object[] keys;
+
+    /** Values of the table, in the same index as their key. */
+    private Object[] values;
+
+    /** Capacity - 1, used instead of modulo to find the index. */
+    private int mask;
+
+    /** Number of elements after which the table is resized. */
+    private int resizeAt;
+
+    /** Number of elements in the table. */
+    private int size;
+
+    /**
+     * Constructor with default values: capacity of 16 and threshold of 50%.
+     */
+    public OpenHashTable () {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_FULLNESS_THRESHOLD);
+    }
+
+    /**
+     * Constructor with specified capacity and default threshold of 50%.
+     *
+     * @param capacity minimum size of the arrays;
+     */
+    public OpenHashTable (int capacity) {
+        this(capacity, DEFAULT_FULLNESS_THRESHOLD);
+    }
+
+    /**
+     * Constructor with specified values. The capacity is rounded up to a power of two.
+     *
+     * @param capacity minimum size of the arrays;
+     * @param threshold specified threshold, must be in ]0, 1[;
+     *
+     * @throws IllegalArgumentException if the threshold is not in the valid range;
+     */
+    public OpenHashTable (int capacity, float threshold) {
+        if (!(threshold > 0 && threshold < 1))
+            throw new IllegalArgumentException("Threshold must be between 0 and 1.");
+        this.FULLNESS_THRESHOLD = threshold;
+        allocate(tableSizeFor(capacity));
+    }
+
+    /**
+     * Inserts a new element in the table. When an existing key is provided, the corresponding
+     * value is updated.
+     *
+     * @param key of the new element;
+     * @param value of the new element;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     * @throws IllegalStateException if the table is full and can't grow any further;
+     */
+    public void put (K key, V value) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int i = hash(key) & mask;
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k.equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // Grow first, so a put that doesn't fit leaves the table as it was.
+        if (size + 1 > resizeAt) {
+            resize();
+            i = hash(key) & mask;
+            while (keys[i] != null)
+                i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Returns the value of an element in the table.
+     *
+     * @param key of that element;
+     *
+     * @return value or null if the element is not present;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    @SuppressWarnings("unchecked")
+    public V get (K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * Check if a key is present in the table.
+     *
+     * @param key to look for;
+     *
+     * @return true if the key is in the table;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    public boolean containsKey (K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Removes an element from the table.
+     *
+     * @param key of that element;
+     *
+     * @return value of the element or null, if the element is not present;
+     *
+     * @throws IllegalArgumentException if the provided key is null;
+     */
+    @SuppressWarnings("unchecked")
+    public V remove (K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+        int i = indexOf(key);
+        if (i < 0) return null;
+
+        V result = (V) values[i];
+        shiftBack(i);
+        size--;
+        return result;
+    }
+
+    /**
+     * Probes the table for a key.
+     *
+     * @param key to find;
+     *
+     * @return index of the key or -1 if it's not present;
+     */
+    private int indexOf (Object key) {
+        int i = hash(key) & mask;
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k.equals(key))
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Frees a slot by moving back the following elements of the cluster that would no longer be
+     * reachable from their home index.
+     *
+     * @param free index of the slot being freed;
+     */
+    private void shiftBack (int free) {
+        int i = free;
+        Object k;
+        while ((k = keys[i = (i + 1) & mask]) != null) {
+            int home = hash(k) & mask;
+            // Move the element if its home is not in the cyclic interval ]free, i].
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = k;
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = null;
+        values[free] = null;
+    }
+
+    /**
+     * Doubles the size of the arrays and reinserts every element.
+     *
+     * @throws IllegalStateException if the table can't grow any further;
+     */
+    private void resize () {
+        if (keys.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("The table has reached its maximum capacity.");
+
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k != null) {
+                int i = hash(k) & mask;
+                while (keys[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Creates new arrays with the given capacity.
+     *
+     * @param capacity power of two;
+     */
+    private void allocate (int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        // Always leave at least one free slot, so probing terminates.
+        resizeAt = Math.min(capacity - 1, (int) (capacity * FULLNESS_THRESHOLD));
+    }
+
+    /**
+     * {@link LinkedList} with the keys present in the table.
+     *
+     * @return list of the keys in the table;
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedList<K> keys () {
+        LinkedList<K> result = new LinkedList<>();
+        for (Object k : keys) {
+            if (k != null)
+                result.addFirst((K) k);
+        }
+        return result;
+    }
+
+    /**
+     * {@link LinkedList} with the values present in the table.
+     *
+     * @return list of values in the table;
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedList<V> values () {
+        LinkedList<V> result = new LinkedList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null)
+                result.addFirst((V) values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Clear the table, keeping the current capacity.
+     */
+    public void clear () {
+        allocate(keys.length);
+        size = 0;
+    }
+
+    /**
+     * Return whether are any values in the table.
+     *
+     * @return true if empty;
+     */
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of elements in this table.
+     *
+     * @return number of elements;
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Smallest power of two greater or equal to the requested capacity.
+     *
+     * @param capacity requested;
+     *
+     * @return power of two;
+     */
+    private static int tableSizeFor (int capacity) {
+        if (capacity <= 2) return 2;
+        if (capacity >= MAXIMUM_CAPACITY) return MAXIMUM_CAPACITY;
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of the hash code, since only the lower bits are used for the index.
+     * Multiplying by the golden ratio mixes the higher bits into the lower ones (Fibonacci
+     * hashing).
+     *
+     * @param key to be hashed;
+     *
+     * @return spread hash (int);
+     */
+    private static int hash (Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
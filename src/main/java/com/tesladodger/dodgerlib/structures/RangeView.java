@@ -0,0 +1,29 @@
+package com.tesladodger.dodgerlib.structures;
+
+import java.util.Iterator;
+
+
+/**
+ * Ordered view of part of a structure, that can be iterated in either direction.
+ *
+ * @param <V> value type;
+ */
+public interface RangeView<V> extends Iterable<V> {
+
+    /**
+     * Iterator over the values, in descending order of the keys.
+     *
+     * @return iterator;
+     */
+    Iterator<V> descendingIterator ();
+
+    /**
+     * The same view, in descending order of the keys.
+     *
+     * @return iterable view;
+     */
+    default Iterable<V> descending () {
+        return this::descendingIterator;
+    }
+
+}
@@ -5,6 +5,9 @@ import java.util.NoSuchElementException;
 
 /**
  * Self balancing Red-Black Tree.
+ * Every node also keeps the number of nodes in its subtree, so that it's an order-statistic tree:
+ * the rank of a key and the element of a given rank are found in a single descent. The sizes
+ * are updated on the path of every insertion and removal, and locally by the rotations.
  *
  * @param <K> key type;
  * @param <V> value type;
@@ -25,6 +28,9 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         /** Color of this node */
         Color color;
 
+        /** Number of nodes in the subtree of this node, itself included. */
+        int count;
+
         /**
          * Constructor.
          *
@@ -35,6 +41,42 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
             super(key, value);
             // Default color of a new node is red
             this.color = Color.RED;
+            this.count = 1;
+        }
+    }
+
+    /**
+     * A detached subtree, with a black root, and its black height: the number of black nodes in
+     * every path from the root to a null node.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static final class Subtree<K, V> {
+        final RBNode<K, V> root;
+        final int blackHeight;
+
+        Subtree (RBNode<K, V> root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+    }
+
+    /**
+     * The two sides of a subtree split by a key, and the node with that key, if there was one.
+     *
+     * @param <K>
+     * @param <V>
+     */
+    private static final class Split<K, V> {
+        final Subtree<K, V> lesser;
+        final Subtree<K, V> greater;
+        final RBNode<K, V> equal;
+
+        Split (Subtree<K, V> lesser, Subtree<K, V> greater, RBNode<K, V> equal) {
+            this.lesser = lesser;
+            this.greater = greater;
+            this.equal = equal;
         }
     }
 
@@ -46,6 +88,60 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         size = 0;
     }
 
+    /**
+     * Builds a tree from sorted keys in O(n), without any rotation. The middle key of each range
+     * is the root of its subtree, so every level is full except maybe the last one, whose nodes
+     * are red, and all the others black.
+     *
+     * @param keys strictly ascending;
+     * @param values of the keys, in the same order;
+     * @param <K> key type;
+     * @param <V> value type;
+     *
+     * @return new tree;
+     *
+     * @throws IllegalArgumentException if the arrays have different lengths, or the keys are
+     *                                  null or not strictly ascending;
+     */
+    public static <K extends Comparable<K>, V> RedBlackTree<K, V> fromSorted (K[] keys,
+                                                                            V[] values) {
+        checkSorted(keys, values);
+        // Depth of the last level, if it's not full.
+        int redLevel = 0;
+        for (int m = keys.length - 1; m >= 0; m = m / 2 - 1) redLevel++;
+
+        RedBlackTree<K, V> tree = new RedBlackTree<>();
+        tree.root = build(keys, values, 0, keys.length - 1, 0, redLevel);
+        tree.size = keys.length;
+        return tree;
+    }
+
+    /**
+     * Builds the subtree of a range of the keys. The depth of the recursion is log2(n).
+     *
+     * @param keys sorted;
+     * @param values of the keys;
+     * @param lo first index, inclusive;
+     * @param hi last index, inclusive;
+     * @param level depth of the root of the subtree;
+     * @param redLevel depth of the red nodes;
+     *
+     * @return root of the subtree;
+     */
+    private static <K, V> RBNode<K, V> build (K[] keys, V[] values, int lo, int hi,
+                                              int level, int redLevel) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        RBNode<K, V> n = new RBNode<>(keys[mid], values[mid]);
+        n.color = level == redLevel ? RBNode.Color.RED : RBNode.Color.BLACK;
+        n.count = hi - lo + 1;
+        n.left = build(keys, values, lo, mid - 1, level + 1, redLevel);
+        n.right = build(keys, values, mid + 1, hi, level + 1, redLevel);
+        if (n.left != null) n.left.parent = n;
+        if (n.right != null) n.right.parent = n;
+        return n;
+    }
+
     /**
      * Creates a new red node, calls the iterative insertion method.
      *
@@ -59,8 +155,10 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
 
         RBNode<K, V> n = new RBNode<>(key, value);
 
-        if (isEmpty())
+        if (isEmpty()) {
             ((RBNode<K, V>) (root = n)).color = RBNode.Color.BLACK;
+            modCount++;
+        }
         else
             insertIteratively(n);
 
@@ -81,6 +179,8 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
                 if (current.left == null) {
                     current.left = n;
                     n.parent = current;
+                    modCount++;
+                    updateCounts(current, 1);
                     insertRepair(n);
                     break;
                 }
@@ -90,6 +190,8 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
                 if (current.right == null) {
                     current.right = n;
                     n.parent = current;
+                    modCount++;
+                    updateCounts(current, 1);
                     insertRepair(n);
                     break;
                 }
@@ -108,8 +210,11 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
      * Restores balance after the insertion of a node. Can be recursive.
      *
      * @param n newly inserted node or current node.
+     *
+     * @return true if the root was red and was made black, so the black height grew;
      */
-    private void insertRepair (RBNode<K, V> n) {
+    private boolean insertRepair (RBNode<K, V> n) {
+        boolean grew = false;
         RBNode<K, V> p = parent(n);
         RBNode<K, V> g = grandParent(n);
         while (n != root && p.color == RBNode.Color.RED) {
@@ -125,17 +230,19 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
                     p.color = RBNode.Color.BLACK;
                     g.color = RBNode.Color.RED;
                     u.color = RBNode.Color.BLACK;
-                    insertRepair(g);
+                    grew = insertRepair(g);
                 }
                 // Uncle is black or null.
                 else {
-                    // Triangle case.
+                    // Triangle case, turned into the line case with p and n swapped.
                     if (n == p.right) {
                         rotateLeft(p);
+                        n = p;
+                        p = parent(n);
                     }
                     // Case 2 falls to case 3, line case.
                     rotateRight(g);
-                    n.color = RBNode.Color.BLACK;
+                    p.color = RBNode.Color.BLACK;
                     g.color = RBNode.Color.RED;
                     break;
                 }
@@ -148,24 +255,31 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
                     p.color = RBNode.Color.BLACK;
                     g.color = RBNode.Color.RED;
                     u.color = RBNode.Color.BLACK;
-                    insertRepair(g);
+                    grew = insertRepair(g);
                 }
                 // Uncle is black or null.
                 else {
-                    // Triangle case.
+                    // Triangle case, turned into the line case with p and n swapped.
                     if (n == p.left) {
                         rotateRight(p);
+                        n = p;
+                        p = parent(n);
                     }
                     // Case 2 falls to case 3, line case.
                     rotateLeft(g);
-                    n.color = RBNode.Color.BLACK;
+                    p.color = RBNode.Color.BLACK;
                     g.color = RBNode.Color.RED;
                     break;
                 }
             }
         }
         // Fix the color of the root.
-        ((RBNode<K, V>) root).color = RBNode.Color.BLACK;
+        RBNode<K, V> r = (RBNode<K, V>) root;
+        if (r.color == RBNode.Color.RED) {
+            r.color = RBNode.Color.BLACK;
+            grew = true;
+        }
+        return grew;
     }
 
     /**
@@ -184,6 +298,7 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         V result = D.value;
         removeNode(D);
         size--;
+        modCount++;
         return result;
     }
 
@@ -208,7 +323,13 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         } else {
             // child can be null if both right and left are null
             RBNode<K, V> child = (RBNode<K, V>) ((D.right == null) ? D.left : D.right);
+            // A black leaf can't just be unlinked. Repair the tree as if D were already the
+            // null leaf in its place, then unlink it.
+            if (child == null && D.color == RBNode.Color.BLACK)
+                deleteCase1(D);
             replaceNode(D, child);
+            // D's parent is still its old parent.
+            updateCounts(parent(D), -1);
             if (D.color == RBNode.Color.BLACK && child != null)
                 if (child.color == RBNode.Color.RED)
                     child.color = RBNode.Color.BLACK;
@@ -274,7 +395,7 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
                     (s.right == null || ((RBNode<K, V>)s.right).color == RBNode.Color.BLACK) &&
                     ((RBNode<K, V>)s.left).color == RBNode.Color.RED) {
                 s.color = RBNode.Color.RED;
-                ((RBNode<K, V>) s.left).color = RBNode.Color.RED;
+                ((RBNode<K, V>) s.left).color = RBNode.Color.BLACK;
                 rotateRight(s);
             } else if (n == parent(n).right &&
                     (s.left == null || ((RBNode<K, V>)s.left).color == RBNode.Color.BLACK) &&
@@ -301,6 +422,27 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         }
     }
 
+    /**
+     * Number of nodes in a subtree.
+     *
+     * @param n root of the subtree, can be null;
+     *
+     * @return the size of the subtree;
+     */
+    private int count (Node<K, V> n) {
+        return n == null ? 0 : ((RBNode<K, V>) n).count;
+    }
+
+    /**
+     * Adds to the size of every subtree on the path from a node to the root.
+     *
+     * @param n first node of the path, can be null;
+     * @param delta 1 after a node is linked, -1 after one is unlinked;
+     */
+    private void updateCounts (RBNode<K, V> n, int delta) {
+        for (; n != null; n = parent(n)) n.count += delta;
+    }
+
     private RBNode<K, V> parent (RBNode<K, V> n) {
         return (RBNode<K, V>) n.parent;
     }
@@ -349,6 +491,10 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         // n.right now points to what was on the left of n.right.
         n.right = rightLeftSubtree;
         if (n.right != null) n.right.parent = n;
+
+        // n's new parent takes its place, with the same nodes below it.
+        parent(n).count = n.count;
+        n.count = count(n.left) + count(n.right) + 1;
     }
 
     private void rotateRight (RBNode<K, V> n) {
@@ -379,28 +525,328 @@ public class RedBlackTree<K extends Comparable<K>, V> extends AbstractTree<K, V>
         // n.left now points to what was on the right of n.left.
         n.left = leftRightSubtree;
         if (n.left != null) n.left.parent = n;
+
+        // n's new parent takes its place, with the same nodes below it.
+        parent(n).count = n.count;
+        n.count = count(n.left) + count(n.right) + 1;
     }
 
     /**
-     * Used for debugging, to assert if a tree is properly balanced.
+     * Number of keys in the tree strictly less than a key, which doesn't need to be present.
+     * O(log n).
      *
-     * @return true if the tree obeys the red black properties;
+     * @param key to rank;
+     *
+     * @return the rank of the key, from 0;
      */
-    public final boolean isBalanced () {
-        // The root must be black
-        if (((RBNode<K, V>) root).color == RBNode.Color.RED)
-            return false;
+    public int rank (K key) {
+        int rank = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0)
+                current = current.left;
+            else {
+                rank += count(current.left);
+                if (cmp == 0) break;
+                rank++;
+                current = current.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the element of a given rank, that is, the k-th least key. O(log n).
+     *
+     * @param k rank, from 0;
+     *
+     * @return value of the element;
+     *
+     * @throws IndexOutOfBoundsException if k is negative or not less than the size;
+     */
+    public V select (int k) {
+        if (k < 0 || k >= size)
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + size);
+        Node<K, V> current = root;
+        while (true) {
+            int left = count(current.left);
+            if (k < left)
+                current = current.left;
+            else if (k > left) {
+                k -= left + 1;
+                current = current.right;
+            }
+            else
+                return current.value;
+        }
+    }
+
+    /**
+     * Number of keys in a range. O(log n), with no iteration.
+     *
+     * @param lo least key, inclusive;
+     * @param hi greatest key, exclusive;
+     *
+     * @return the number of keys in [lo, hi);
+     *
+     * @throws IllegalArgumentException if lo is greater than hi;
+     */
+    public int countRange (K lo, K hi) {
+        if (lo.compareTo(hi) > 0)
+            throw new IllegalArgumentException("lo (" + lo + ") > hi (" + hi + ")");
+        return rank(hi) - rank(lo);
+    }
+
+    /**
+     * Moves every element of another tree, whose keys are all greater than the keys of this one,
+     * to the end of this tree. O(log n): the smaller tree is hung from the spine of the bigger
+     * one, at the node with the same black height, and the red-red violation this may cause is
+     * repaired like after an insertion.
+     *
+     * @param other tree with greater keys, empty afterwards;
+     *
+     * @throws IllegalArgumentException if a key of the other tree is not greater than every key
+     *                                  of this one;
+     */
+    public void join (RedBlackTree<K, V> other) {
+        if (other == this || other.isEmpty()) return;
+        if (!isEmpty() && getMax(root).key.compareTo(getMin(other.root).key) >= 0)
+            throw new IllegalArgumentException("The keys of the other tree are not greater.");
+
+        // The least node of the other tree goes between the two.
+        RBNode<K, V> x = (RBNode<K, V>) getMin(other.root);
+        other.removeNode(x);
+        Subtree<K, V> right = other.detach((RBNode<K, V>) other.root);
+        other.clear();
+
+        root = concat(detach((RBNode<K, V>) root), x, right).root;
+        size = count(root);
+        modCount++;
+    }
+
+    /**
+     * Moves the elements with keys greater than or equal to a key to a new tree. O(log n): the
+     * path to the key is cut, and the subtrees hanging from it on each side are joined back
+     * together, from the bottom up.
+     *
+     * @param key least key of the new tree, doesn't need to be present;
+     *
+     * @return new tree with the greater keys, while this one keeps the lesser;
+     */
+    public RedBlackTree<K, V> split (K key) {
+        RedBlackTree<K, V> greater = new RedBlackTree<>();
+        if (isEmpty()) return greater;
+
+        Split<K, V> halves = split(detach((RBNode<K, V>) root), key);
+        Subtree<K, V> right = halves.greater;
+        if (halves.equal != null)
+            right = concat(new Subtree<>(null, 0), halves.equal, right);
+
+        root = halves.lesser.root;
+        size = count(root);
+        modCount++;
+        greater.root = right.root;
+        greater.size = count(greater.root);
+        return greater;
+    }
+
+    /**
+     * Moves every element of another tree to this one. When a key is in both, the value of the
+     * other tree replaces this one's, like an insertion.
+     * This tree is split by the root of the other, and each side is merged recursively with
+     * the matching subtree, then joined at that root. That's O(m log(n / m + 1)) for trees of
+     * sizes m and n, m <= n, so much less than inserting the elements one by one when the trees
+     * are about the same size.
+     *
+     * @param other tree, empty afterwards;
+     */
+    public void union (RedBlackTree<K, V> other) {
+        if (other == this || other.isEmpty()) return;
+        Subtree<K, V> a = other.detach((RBNode<K, V>) other.root);
+        other.clear();
+        root = union(a, detach((RBNode<K, V>) root)).root;
+        size = count(root);
+        modCount++;
+    }
+
+    /**
+     * Merges two subtrees.
+     *
+     * @param a subtree whose values win;
+     * @param b subtree;
+     *
+     * @return the merged subtree;
+     */
+    private Subtree<K, V> union (Subtree<K, V> a, Subtree<K, V> b) {
+        if (a.root == null) return b;
+        if (b.root == null) return a;
+        RBNode<K, V> t = a.root;
+        int childHeight = a.blackHeight - 1;
+        Subtree<K, V> l = detach((RBNode<K, V>) t.left, childHeight);
+        Subtree<K, V> r = detach((RBNode<K, V>) t.right, childHeight);
+
+        Split<K, V> halves = split(b, t.key);
+        return concat(union(l, halves.lesser), t, union(r, halves.greater));
+    }
+
+    /**
+     * Splits a subtree by a key.
+     *
+     * @param t subtree;
+     * @param key where to split;
+     *
+     * @return the subtrees with lesser and greater keys, and the node with the key;
+     */
+    private Split<K, V> split (Subtree<K, V> t, K key) {
+        RBNode<K, V> n = t.root;
+        if (n == null) return new Split<>(t, t, null);
+        int childHeight = t.blackHeight - 1;
+        Subtree<K, V> l = detach((RBNode<K, V>) n.left, childHeight);
+        Subtree<K, V> r = detach((RBNode<K, V>) n.right, childHeight);
+
+        int cmp = key.compareTo(n.key);
+        if (cmp == 0)
+            return new Split<>(l, r, n);
+        else if (cmp < 0) {
+            Split<K, V> s = split(l, key);
+            return new Split<>(s.lesser, concat(s.greater, n, r), s.equal);
+        }
+        else {
+            Split<K, V> s = split(r, key);
+            return new Split<>(concat(l, n, s.lesser), s.greater, s.equal);
+        }
+    }
+
+    /**
+     * Detaches the subtree of a node, as the whole tree: the root is made black.
+     *
+     * @param n root of the subtree, can be null;
+     *
+     * @return the subtree;
+     */
+    private Subtree<K, V> detach (RBNode<K, V> n) {
+        int blackHeight = 0;
+        for (RBNode<K, V> c = n; c != null; c = (RBNode<K, V>) c.left)
+            if (c.color == RBNode.Color.BLACK) blackHeight++;
+        return detach(n, blackHeight);
+    }
 
-        // The children of a red node must be black
-        //todo
+    /**
+     * Detaches the subtree of a child, whose black height is known from its parent's.
+     *
+     * @param n root of the subtree, can be null;
+     * @param blackHeight of the subtree, the parent's minus one;
+     *
+     * @return the subtree, with a black root;
+     */
+    private Subtree<K, V> detach (RBNode<K, V> n, int blackHeight) {
+        if (n == null) return new Subtree<>(null, 0);
+        n.parent = null;
+        // Making a red root black adds it to every path.
+        if (n.color == RBNode.Color.RED) {
+            n.color = RBNode.Color.BLACK;
+            blackHeight++;
+        }
+        return new Subtree<>(n, blackHeight);
+    }
 
-        // Every path from a given node to its descendant null nodes goes through the same number
-        // of black nodes.
+    /**
+     * Joins two subtrees through a node whose key is between them. The root of the taller
+     * subtree is kept in the root field while the violation is repaired, so the rotations and
+     * insertRepair work unchanged.
+     *
+     * @param l subtree with lesser keys;
+     * @param x node between them, whose links are overwritten;
+     * @param r subtree with greater keys;
+     *
+     * @return the joined subtree;
+     */
+    private Subtree<K, V> concat (Subtree<K, V> l, RBNode<K, V> x, Subtree<K, V> r) {
+        x.color = RBNode.Color.RED;
+        RBNode<K, V> p = null;
+        RBNode<K, V> c;
+        if (l.blackHeight >= r.blackHeight) {
+            // Down the right spine of l, to the black node with the black height of r.
+            c = l.root;
+            for (int h = l.blackHeight; c != null && (c.color == RBNode.Color.RED
+                    || h > r.blackHeight); c = (RBNode<K, V>) c.right) {
+                if (c.color == RBNode.Color.BLACK) h--;
+                p = c;
+            }
+            link(x, c, r.root);
+            if (p != null) p.right = x;
+            root = l.root;
+        }
+        else {
+            // Down the left spine of r, to the black node with the black height of l.
+            c = r.root;
+            for (int h = r.blackHeight; c != null && (c.color == RBNode.Color.RED
+                    || h > l.blackHeight); c = (RBNode<K, V>) c.left) {
+                if (c.color == RBNode.Color.BLACK) h--;
+                p = c;
+            }
+            link(x, l.root, c);
+            if (p != null) p.left = x;
+            root = r.root;
+        }
+        x.parent = p;
+        if (p == null) root = x;
+        // x took the place of c, with the other subtree under it.
+        else updateCounts(p, x.count - count(c));
+        // The black height only grows if the root ends up red, and is made black.
+        int blackHeight = Math.max(l.blackHeight, r.blackHeight) + (insertRepair(x) ? 1 : 0);
+        RBNode<K, V> joined = (RBNode<K, V>) root;
+        root = null;
+        return new Subtree<>(joined, blackHeight);
+    }
 
+    /**
+     * Makes two subtrees the children of a node.
+     */
+    private void link (RBNode<K, V> x, RBNode<K, V> left, RBNode<K, V> right) {
+        x.left = left;
+        x.right = right;
+        if (left != null) left.parent = x;
+        if (right != null) right.parent = x;
+        x.count = count(left) + count(right) + 1;
+    }
 
+    /**
+     * Used for debugging, to assert if a tree is properly balanced.
+     *
+     * @return true if the tree obeys the red black properties, and the subtree sizes are right;
+     */
+    public final boolean isBalanced () {
+        // The root must be black
+        if (root != null && ((RBNode<K, V>) root).color == RBNode.Color.RED)
+            return false;
 
+        return blackHeight((RBNode<K, V>) root) >= 0;
+    }
 
-        return true;
+    /**
+     * Checks the subtree of a node: the children of a red node must be black, and every path
+     * from the node to its descendant null nodes goes through the same number of black nodes.
+     * Also checks the size kept in every node.
+     *
+     * @param n root of the subtree;
+     *
+     * @return the number of black nodes in every path, or -1 if the subtree is not balanced;
+     */
+    private int blackHeight (RBNode<K, V> n) {
+        if (n == null) return 0;
+        RBNode<K, V> l = (RBNode<K, V>) n.left;
+        RBNode<K, V> r = (RBNode<K, V>) n.right;
+        if (n.color == RBNode.Color.RED
+                && (l != null && l.color == RBNode.Color.RED
+                || r != null && r.color == RBNode.Color.RED))
+            return -1;
+        if (n.count != count(l) + count(r) + 1)
+            return -1;
+        int left = blackHeight(l);
+        if (left < 0 || left != blackHeight(r)) return -1;
+        return left + (n.color == RBNode.Color.BLACK ? 1 : 0);
     }
 
 }
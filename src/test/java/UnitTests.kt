@@ -1,3 +1,4 @@
+import algs.search.tspUnitTest
 import algs.sort.sortUnitTest
 import structures.*
 
@@ -9,11 +10,18 @@ fun main () {
     binaryTreeUnitTest()
     pairingHeapUnitTest()
     hashTableUnitTest()
+    openHashTableUnitTest()
+    primitiveHashTableUnitTest()
+    concurrentHashTableUnitTest()
     dynamicArrayUnitTest()
     redBlackTreeUnitTest()
+    bPlusTreeUnitTest()
 
     // Sorting algorithms
     sortUnitTest()
 
+    // Search algorithms
+    tspUnitTest()
+
     println("Unit tests passed")
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package algs.search
+
+import com.tesladodger.dodgerlib.algs.search.BruteForceTSP
+import com.tesladodger.dodgerlib.algs.search.GeneticAlgTSP
+import com.tesladodger.dodgerlib.structures.HashTable
+import com.tesladodger.dodgerlib.structures.IntDoubleHashTable
+
+import kotlin.math.hypot
+
+/* Corners of a unit square, so the shortest tour goes around it, with a length of 4. */
+val corners = arrayOf(doubleArrayOf(0.0, 0.0), doubleArrayOf(1.0, 0.0),
+        doubleArrayOf(1.0, 1.0), doubleArrayOf(0.0, 1.0))
+
+fun cornerEdges (id: Int): IntDoubleHashTable {
+    val edges = IntDoubleHashTable()
+    for (j in corners.indices) {
+        if (j != id)
+            edges.put(j, hypot(corners[id][0] - corners[j][0], corners[id][1] - corners[j][1]))
+    }
+    return edges
+}
+
+fun tourLength (tour: List<Int>): Double {
+    val path = listOf(0) + tour + 0
+    var length = 0.0
+    for (i in 1 until path.size)
+        length += cornerEdges(path[i - 1]).get(path[i])
+    return length
+}
+
+fun tspUnitTest () {
+    /* Brute force, with primitive edges. */
+    var bruteForce = BruteForceTSP<Int>()
+    bruteForce.addNode(3, cornerEdges(3))
+    bruteForce.addStart(0, cornerEdges(0))
+    bruteForce.addNode(1, cornerEdges(1))
+    bruteForce.addNode(2, cornerEdges(2))
+    var solution = bruteForce.solve()
+    assert(solution == listOf(1, 2, 3))
+    assert(tourLength(solution) == 4.0)
+
+    /* Boxed start and primitive nodes. */
+    bruteForce = BruteForceTSP()
+    val start = HashTable<Int, Double>()
+    val startEdges = cornerEdges(0)
+    for (k in startEdges.keys())
+        start.put(k, startEdges.get(k))
+    bruteForce.addStart(0, start)
+    for (i in 1..3)
+        bruteForce.addNode(i, cornerEdges(i))
+    solution = bruteForce.solve()
+    assert(tourLength(solution) == 4.0)
+
+    /* A missing edge is an error, not a distance of 0. */
+    bruteForce = BruteForceTSP()
+    bruteForce.addStart(0, cornerEdges(0))
+    for (i in 1..3) {
+        val edges = cornerEdges(i)
+        if (i == 1) edges.remove(3)
+        bruteForce.addNode(i, edges)
+    }
+    assert(runCatching { bruteForce.solve() }.exceptionOrNull() is NoSuchElementException)
+
+    /* Genetic algorithm, which stops when it finds the given solution. */
+    val genetic = GeneticAlgTSP<Int>()
+    genetic.addStart(0, cornerEdges(0))
+    for (i in 1..3)
+        genetic.addNode(i, cornerEdges(i))
+    solution = genetic.solve(java.util.ArrayList(listOf(1, 2, 3)))
+    assert(solution == listOf(1, 2, 3) || solution == listOf(3, 2, 1))
+    assert(tourLength(solution) == 4.0)
+}
@@ -76,6 +76,25 @@ public class SortTest {
         System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
 
 
+        // -------------------------------------------------------------------- Natural Merge //
+        System.out.println("\nNatural Merge");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        NaturalMergeSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);
+
+        System.out.println("\nNatural Merge, already sorted");
+        t = System.currentTimeMillis();
+        NaturalMergeSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
+
         // -------------------------------------------------------------------- Dual Pivot //
         System.out.println("\nDual Pivot");
         System.arraycopy(unsortedArray, 0, copy, 0, bound);
@@ -119,6 +138,61 @@ public class SortTest {
         verifyOrder(copy);
         System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
 
+
+        // -------------------------------------------------------------------- Parallel Quick //
+        System.out.println("\nParallel Quick");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        ParallelQuickSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
+
+        // -------------------------------------------------------------------- Parallel Merge //
+        System.out.println("\nParallel Merge");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        ParallelMergeSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
+
+        // -------------------------------------------------------------------- Parallel Sample //
+        System.out.println("\nParallel Sample");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        ParallelSampleSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
+
+        // -------------------------------------------------------------------- Radix //
+        System.out.println("\nRadix");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        RadixSort.sort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
+
+        // -------------------------------------------------------------------- Parallel Radix //
+        System.out.println("\nParallel Radix");
+        System.arraycopy(unsortedArray, 0, copy, 0, bound);
+        t = System.currentTimeMillis();
+        RadixSort.parallelSort(copy);
+        t = System.currentTimeMillis() - t;
+
+        verifyOrder(copy);
+        System.out.printf("The list was sorted in %s milliseconds.\n", t);/**/
+
     }
 
 }
@@ -30,8 +30,474 @@ fun sortUnitTest () {
     sort(array, MultiThreadSort::sort)
     assertOrder(array)
 
+    /* Parallel quick */
+    array = IntArray(1000000) { Random.nextInt() }
+    sort(array, ParallelQuickSort::sort)
+    assertOrder(array)
+
+    array = IntArray(100000) { Random.nextInt(100) }
+    val pool = java.util.concurrent.ForkJoinPool(4)
+    ParallelQuickSort.sort(array, pool, 100)
+    pool.shutdown()
+    assertOrder(array)
+
+    /* Parallel merge */
+    array = IntArray(1000000) { Random.nextInt() }
+    sort(array, ParallelMergeSort::sort)
+    assertOrder(array)
+
+    array = IntArray(100000) { Random.nextInt(100) }
+    sort(array, ParallelMergeSort::sort)
+    assertOrder(array)
+
+    /* Parallel sample */
+    val samplePool = java.util.concurrent.ForkJoinPool(4)
+    for (bound in intArrayOf(Int.MAX_VALUE, 1000, 3, 1)) {
+        array = IntArray(300000) { Random.nextInt(bound) - bound / 2 }
+        val expectedSample = array.copyOf().apply { sort() }
+        ParallelSampleSort.sort(array, samplePool)
+        assert(array.contentEquals(expectedSample))
+    }
+    // A few values much more frequent than the rest, which go to the equality buckets.
+    array = IntArray(300000) { if (it % 3 == 0) Random.nextInt() else it % 5 }
+    val expectedSkewed = array.copyOf().apply { sort() }
+    ParallelSampleSort.sort(array, samplePool)
+    assert(array.contentEquals(expectedSkewed))
+    samplePool.shutdown()
+
+    array = IntArray(1000) { Random.nextInt() }
+    sort(array, ParallelSampleSort::sort)
+    assertOrder(array)
+
+    /* Radix */
+    array = IntArray(100000) { Random.nextInt() }
+    var expected = array.copyOf().apply { sort() }
+    sort(array, RadixSort::sort)
+    assert(array.contentEquals(expected))
+
+    array = IntArray(100000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort() }
+    sort(array, RadixSort::sortInPlace)
+    assert(array.contentEquals(expected))
+
+    array = IntArray(300000) { Random.nextInt(-1000, 1000) }
+    expected = array.copyOf().apply { sort() }
+    sort(array, RadixSort::parallelSort)
+    assert(array.contentEquals(expected))
+
+    val longs = LongArray(100000) { Random.nextLong() }
+    val longsInPlace = longs.copyOf()
+    val expectedLongs = longs.copyOf().apply { sort() }
+    RadixSort.sort(longs)
+    assert(longs.contentEquals(expectedLongs))
+    RadixSort.sortInPlace(longsInPlace)
+    assert(longsInPlace.contentEquals(expectedLongs))
+
+    val floats = FloatArray(10000) { Random.nextFloat() * 200 - 100 }
+    floats[0] = Float.NaN; floats[1] = -0f; floats[2] = 0f; floats[3] = Float.NEGATIVE_INFINITY
+    val floatsInPlace = floats.copyOf()
+    val expectedFloats = floats.copyOf()
+    java.util.Arrays.sort(expectedFloats)
+    RadixSort.sort(floats)
+    assert(floats.contentEquals(expectedFloats))
+    RadixSort.sortInPlace(floatsInPlace)
+    assert(floatsInPlace.contentEquals(expectedFloats))
+
+    val doubles = DoubleArray(10000) { Random.nextDouble() * 200 - 100 }
+    doubles[0] = Double.NaN; doubles[1] = -0.0; doubles[2] = 0.0; doubles[3] = Double.MAX_VALUE
+    val doublesInPlace = doubles.copyOf()
+    val expectedDoubles = doubles.copyOf()
+    java.util.Arrays.sort(expectedDoubles)
+    RadixSort.sort(doubles)
+    assert(doubles.contentEquals(expectedDoubles))
+    RadixSort.sortInPlace(doublesInPlace)
+    assert(doublesInPlace.contentEquals(expectedDoubles))
+
     /* Quick */
     array = IntArray(1000) { Random.nextInt(1000) }
     sort(array, QuickSort::sort)
     assertOrder(array)
-}
\ No newline at end of file
+
+    array = IntArray(1000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort() }
+    sort(array, QuickSort::sort)
+    assert(array.contentEquals(expected))
+
+    array = IntArray(1000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort() }
+    sort(array, DualPivotQuickSort::sort)
+    assert(array.contentEquals(expected))
+
+    /* Heap */
+    array = IntArray(10000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort() }
+    sort(array, HeapSort::sort)
+    assert(array.contentEquals(expected))
+
+    val heapWords = Array(1000) { Random.nextInt(100).toString() }
+    val sortedHeapWords = heapWords.sorted()
+    HeapSort.sort(heapWords, null)
+    assert(heapWords.toList() == sortedHeapWords)
+
+    /* Killer sequences: the quicksorts fall back to heap sort instead of going quadratic */
+    val killerSorts = listOf<Pair<(Array<Int>, Comparator<Int>) -> Unit, (IntArray) -> Unit>>(
+            Pair(QuickSort::sort, QuickSort::sort),
+            Pair(DualPivotQuickSort::sort, DualPivotQuickSort::sort))
+    for ((quick, intQuick) in killerSorts) {
+        val n = 100000
+        val values = IntArray(n) { n }
+        var solid = 0
+        var candidate = 0
+        var comparisons = 0L
+        quick(Array(n) { it }, Comparator { x, y ->
+            comparisons++
+            if (values[x] == n && values[y] == n) {
+                if (x == candidate) values[x] = solid++ else values[y] = solid++
+            }
+            if (values[x] == n) candidate = x else if (values[y] == n) candidate = y
+            values[x].compareTo(values[y])
+        })
+        assert(comparisons < 10L * n * 17)
+        expected = values.copyOf().apply { sort() }
+        intQuick(values)
+        assert(values.contentEquals(expected))
+    }
+
+    /* Block partition */
+    val blockSorts = listOf<(IntArray, Int, Int, PartitionScheme) -> Unit>(
+            QuickSort::sort, DualPivotQuickSort::sort)
+    for (sorter in blockSorts) {
+        for (bound in intArrayOf(Int.MAX_VALUE, 1000, 2)) {
+            for (n in intArrayOf(10, 300, 100000)) {
+                array = IntArray(n) { Random.nextInt(bound) }
+                expected = array.copyOf().apply { sort(3, n - 2) }
+                sorter(array, 3, n - 2, PartitionScheme.BLOCK)
+                assert(array.contentEquals(expected))
+            }
+        }
+        array = IntArray(100000) { it }
+        expected = array.copyOf()
+        array.reverse()
+        sorter(array, 0, array.size, PartitionScheme.BLOCK)
+        assert(array.contentEquals(expected))
+    }
+
+    /* Sorting networks: by the 0-1 principle, sorting every input of 0s and 1s is enough */
+    for (n in 0..SortingNetworks.MAX_LENGTH) {
+        for (bits in 0 until (1 shl n)) {
+            array = IntArray(n + 2) { if (it == 0 || it > n) 7 else (bits shr (it - 1)) and 1 }
+            SortingNetworks.sort(array, 1, n + 1)
+            for (i in 2..n) assert(array[i] >= array[i-1])
+            assert(array[0] == 7 && array[n + 1] == 7)
+        }
+        val smallLongs = LongArray(n) { Random.nextLong() }
+        val expectedSmallLongs = smallLongs.copyOf().apply { sort() }
+        SortingNetworks.sort(smallLongs, 0, n)
+        assert(smallLongs.contentEquals(expectedSmallLongs))
+        val smallDoubles = DoubleArray(n) { Random.nextDouble() - 0.5 }
+        val expectedSmallDoubles = smallDoubles.copyOf().apply { sort() }
+        SortingNetworks.sort(smallDoubles, 0, n)
+        assert(smallDoubles.contentEquals(expectedSmallDoubles))
+    }
+    assert(runCatching { SortingNetworks.sort(IntArray(20), 0, 17) }.isFailure)
+
+    /* Every leaf length of the sorts that use the networks, keeping the pairs together */
+    for (n in 0..40) {
+        val small = IntArray(n) { Random.nextInt(10) }
+        val expectedSmall = small.copyOf().apply { sort() }
+        for (sorter in listOf<(IntArray) -> Unit>(MergeSort::sort, QuickSort::sort)) {
+            array = small.copyOf()
+            sorter(array)
+            assert(array.contentEquals(expectedSmall))
+        }
+        val smallDoubles = DoubleArray(n) { Random.nextDouble() - 0.5 }
+        val expectedSmallDoubles = smallDoubles.copyOf().apply { sort() }
+        MergeSort.sort(smallDoubles)
+        assert(smallDoubles.contentEquals(expectedSmallDoubles))
+
+        val keys = small.copyOf()
+        val values = IntArray(n) { keys[it] * 100 + it }
+        QuickSort.sort(keys, values)
+        assert(keys.contentEquals(expectedSmall))
+        for (i in 0 until n) assert(values[i] / 100 == keys[i])
+
+        val stableKeys = small.copyOf()
+        val stableValues = IntArray(n) { it }
+        MergeSort.sort(stableKeys, stableValues)
+        assert(stableKeys.contentEquals(expectedSmall))
+        for (i in 1 until n)
+            assert(stableKeys[i] != stableKeys[i-1] || stableValues[i] > stableValues[i-1])
+    }
+
+    /* Select and partial sort */
+    for (bound in intArrayOf(Int.MAX_VALUE, 10)) {
+        array = IntArray(10001) { Random.nextInt(bound) }
+        expected = array.copyOf().apply { sort() }
+        val median = QuickSort.select(array, 5000)
+        assert(median == expected[5000])
+        for (i in 0 until 5000) assert(array[i] <= median)
+        for (i in 5001 until array.size) assert(array[i] >= median)
+
+        QuickSort.partialSort(array, 100)
+        assert(array.copyOf(100).contentEquals(expected.copyOf(100)))
+        assert(array.sorted() == expected.toList())
+    }
+
+    val words = Array(1000) { Random.nextInt().toString() }
+    val sortedWords = words.sorted()
+    assert(QuickSort.select(words, 0, null) == sortedWords[0])
+    assert(QuickSort.select(words, 999, null) == sortedWords[999])
+    QuickSort.partialSort(words, 10, null)
+    assert(words.copyOf(10).toList() == sortedWords.subList(0, 10))
+
+    /* Top-K */
+    val topK = TopK<Int>(5, null)
+    for (i in 100 downTo 1) topK.add(i)
+    assert(topK.size() == 5 && topK.peek() == 5)
+    assert(topK.toList() == listOf(1, 2, 3, 4, 5))
+    assert(!topK.add(7) && topK.add(0))
+
+    val numbers = List(100000) { Random.nextInt() }
+    val top = numbers.parallelStream().collect(TopK.smallest(100, null))
+    assert(top == numbers.sorted().subList(0, 100))
+    assert(java.util.stream.Stream.of(3, 1, 2).collect(TopK.smallest(0, null)).isEmpty())
+
+    /* Long, double, object and range overloads */
+    val longSorters = listOf<(LongArray, Int, Int) -> Unit>(
+            QuickSort::sort, DualPivotQuickSort::sort, MergeSort::sort, MultiThreadSort::sort)
+    for (sorter in longSorters) {
+        val a = LongArray(5000) { Random.nextLong() }
+        val e = a.copyOf().apply { sort(100, 4000) }
+        sorter(a, 100, 4000)
+        assert(a.contentEquals(e))
+    }
+
+    val doubleSorters = listOf<(DoubleArray, Int, Int) -> Unit>(
+            QuickSort::sort, DualPivotQuickSort::sort, MergeSort::sort, MultiThreadSort::sort,
+            HeapSort::sort)
+    for (sorter in doubleSorters) {
+        val a = DoubleArray(5000) { if (it % 50 == 0) Double.NaN else Random.nextDouble() - 0.5 }
+        sorter(a, 0, a.size)
+        for (i in 1 until 4900) assert(a[i] >= a[i-1])
+        for (i in 4900 until 5000) assert(a[i].isNaN())
+
+        // -0.0 before 0.0, bit for bit like the JDK, outside the range untouched.
+        val zeros = DoubleArray(5000) { when (it % 4) { 0 -> -0.0; 1 -> 0.0; else -> Random.nextInt(5) - 2.0 } }
+        val expectedZeros = zeros.copyOf().apply { sort(10, 4990) }
+        sorter(zeros, 10, 4990)
+        assert(zeros.contentEquals(expectedZeros))
+    }
+
+    val objectSorters = listOf<(Array<IntArray>, Int, Int, Comparator<IntArray>) -> Unit>(
+            QuickSort::sort, DualPivotQuickSort::sort, MergeSort::sort, MultiThreadSort::sort)
+    for (sorter in objectSorters) {
+        val a = Array(5000) { intArrayOf(Random.nextInt(100), it) }
+        sorter(a, 0, a.size, compareBy { it[0] })
+        for (i in 1 until a.size) assert(a[i][0] >= a[i-1][0])
+    }
+    // Merge and multi-threaded are stable.
+    for (sorter in objectSorters.drop(2)) {
+        val a = Array(5000) { intArrayOf(Random.nextInt(100), it) }
+        sorter(a, 0, a.size, compareBy { it[0] })
+        for (i in 1 until a.size) assert(a[i][0] > a[i-1][0] || a[i][1] > a[i-1][1])
+    }
+
+    val strings = Array(1000) { Random.nextInt().toString() }
+    val expectedStrings = strings.copyOf().apply { sort() }
+    QuickSort.sort(strings, null)
+    assert(strings.contentEquals(expectedStrings))
+
+    array = IntArray(1000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort(10, 20) }
+    MergeSort.sort(array, 10, 20)
+    assert(array.contentEquals(expected))
+
+    /* Key-value co-sort and argsort */
+    val keyValueSorts = listOf<(IntArray, IntArray) -> Unit>(
+            QuickSort::sort, MergeSort::sort, MultiThreadSort::sort)
+    for (sorter in keyValueSorts) {
+        for (n in intArrayOf(0, 1, 50, 100000)) {
+            val keys = IntArray(n) { Random.nextInt(1000) }
+            val original = keys.copyOf()
+            val values = IntArray(n) { it }
+            sorter(keys, values)
+            assert(keys.contentEquals(original.copyOf().apply { sort() }))
+            for (i in 0 until n) assert(original[values[i]] == keys[i])
+        }
+    }
+    // Merge and multi-threaded are stable.
+    for (sorter in keyValueSorts.drop(1)) {
+        val keys = IntArray(100000) { Random.nextInt(100) }
+        val values = IntArray(keys.size) { it }
+        sorter(keys, values)
+        for (i in 1 until keys.size) assert(keys[i] > keys[i-1] || values[i] > values[i-1])
+    }
+    val argsorts = listOf<(IntArray) -> IntArray>(
+            QuickSort::argsort, MergeSort::argsort, MultiThreadSort::argsort)
+    for (argsort in argsorts) {
+        val keys = IntArray(20000) { Random.nextInt() }
+        val original = keys.copyOf()
+        val permutation = argsort(keys)
+        assert(keys.contentEquals(original))
+        val names = Array(keys.size) { keys[it].toString() }
+        val longs = LongArray(keys.size) { keys[it].toLong() }
+        Permutation.apply(permutation, keys)
+        Permutation.apply(permutation, names)
+        Permutation.apply(permutation, longs)
+        assert(keys.contentEquals(original.copyOf().apply { sort() }))
+        for (i in keys.indices) assert(names[i] == keys[i].toString() && longs[i] == keys[i].toLong())
+        assert(permutation.sorted() == List(keys.size) { it })
+    }
+    run {
+        val keys = IntArray(5000) { Random.nextInt(500) }
+        val longs = LongArray(keys.size) { keys[it] * 3L }
+        val strings = Array(keys.size) { keys[it].toString() }
+        QuickSort.sort(keys.copyOf(), longs)
+        MergeSort.sort(keys.copyOf(), strings)
+        keys.sort()
+        for (i in keys.indices) assert(longs[i] == keys[i] * 3L && strings[i] == keys[i].toString())
+        assert(runCatching { MergeSort.sort(keys, IntArray(3)) }.isFailure)
+    }
+
+    /* Asynchronous multi-threaded */
+    val asyncPool = java.util.concurrent.ForkJoinPool(4)
+    val asyncWords = Array(200000) { intArrayOf(Random.nextInt(1000), it) }
+    val lastProgress = java.util.concurrent.atomic.AtomicLong()
+    var asyncTotal = 0L
+    val asyncSorted = MultiThreadSort.sortAsync(asyncWords, compareBy { it[0] }, asyncPool) { p, t ->
+        lastProgress.accumulateAndGet(p, Math::max)
+        asyncTotal = t
+    }.get()
+    assert(asyncSorted === asyncWords)
+    for (i in 1 until asyncWords.size) {
+        assert(asyncWords[i][0] > asyncWords[i-1][0] ||
+                asyncWords[i][0] == asyncWords[i-1][0] && asyncWords[i][1] > asyncWords[i-1][1])
+    }
+    assert(lastProgress.get() == asyncTotal && asyncTotal >= asyncWords.size)
+
+    array = IntArray(100000) { Random.nextInt() }
+    expected = array.copyOf().apply { sort() }
+    assert(MultiThreadSort.sortAsync(array, asyncPool, null).get().contentEquals(expected))
+
+    // Cancelled as soon as the first range is sorted.
+    val started = java.util.concurrent.CountDownLatch(1)
+    val release = java.util.concurrent.CountDownLatch(1)
+    val cancelled = MultiThreadSort.sortAsync(Array(200000) { it }, null, asyncPool) { _, _ ->
+        started.countDown()
+        release.await()
+    }
+    started.await()
+    assert(cancelled.cancel(true))
+    release.countDown()
+    assert(runCatching { cancelled.get() }.exceptionOrNull() is java.util.concurrent.CancellationException)
+    assert(asyncPool.awaitQuiescence(10, java.util.concurrent.TimeUnit.SECONDS))
+
+    val failing = MultiThreadSort.sortAsync(arrayOf<Any>(1, "a", 2.0), null, asyncPool, null)
+    assert(runCatching { failing.get() }.exceptionOrNull() is java.util.concurrent.ExecutionException)
+    asyncPool.shutdown()
+
+    /* Natural merge */
+    for (shape in 0 until 4) {
+        array = IntArray(100000) {
+            when (shape) {
+                0 -> Random.nextInt()
+                1 -> it
+                2 -> -it
+                else -> it % 1000 + Random.nextInt(3)
+            }
+        }
+        expected = array.copyOf().apply { sort() }
+        sort(array, NaturalMergeSort::sort)
+        assert(array.contentEquals(expected))
+    }
+
+    array = IntArray(20) { Random.nextInt() }
+    expected = array.copyOf().apply { sort(2, 15) }
+    NaturalMergeSort.sort(array, 2, 15)
+    assert(array.contentEquals(expected))
+
+    val pairs = Array(50000) { intArrayOf(if (it < 25000) it / 10 else Random.nextInt(1000), it) }
+    NaturalMergeSort.sort(pairs, compareBy { it[0] })
+    for (i in 1 until pairs.size)
+        assert(pairs[i][0] > pairs[i-1][0] || pairs[i][0] == pairs[i-1][0] && pairs[i][1] > pairs[i-1][1])
+
+    /* External */
+    val dir = java.nio.file.Files.createTempDirectory("external")
+    val input = dir.resolve("input.bin")
+    val output = dir.resolve("output.bin")
+    for (n in intArrayOf(0, 1, 999, 100000)) {
+        val ints = IntArray(n) { Random.nextInt() }
+        val bytes = java.nio.ByteBuffer.allocate(n * 4)
+        bytes.asIntBuffer().put(ints)
+        java.nio.file.Files.write(input, bytes.array())
+        ExternalSort.sortInts(input, output, 1000, dir)
+        val sorted = IntArray(n)
+        java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(output)).asIntBuffer().get(sorted)
+        assert(sorted.contentEquals(ints.apply { sort() }))
+    }
+
+    val longs2 = LongArray(54321) { Random.nextLong() }
+    val longBytes = java.nio.ByteBuffer.allocate(longs2.size * 8)
+    longBytes.asLongBuffer().put(longs2)
+    java.nio.file.Files.write(input, longBytes.array())
+    ExternalSort.sortLongs(input, output, 777, dir)
+    val sortedLongs = LongArray(longs2.size)
+    java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(output)).asLongBuffer().get(sortedLongs)
+    assert(sortedLongs.contentEquals(longs2.apply { sort() }))
+
+    // A merge that fails, here because the output is a directory, still deletes the runs, and
+    // the exception is the one from the merge.
+    val filesBefore = java.nio.file.Files.list(dir).count()
+    val failure = runCatching { ExternalSort.sortLongs(input, dir, 777, dir) }.exceptionOrNull()
+    assert(failure is java.io.IOException && failure.suppressed.isEmpty())
+    assert(java.nio.file.Files.list(dir).count() == filesBefore)
+
+    /* Buffers */
+    for (order in listOf(java.nio.ByteOrder.BIG_ENDIAN, java.nio.ByteOrder.nativeOrder())) {
+        for (viaArray in listOf(false, true)) {
+            for (bound in intArrayOf(Int.MAX_VALUE, 3)) {
+                val ints = IntArray(100000) { Random.nextInt(bound) }
+                val intBuffer = java.nio.ByteBuffer.allocateDirect(ints.size * 4).order(order).asIntBuffer()
+                intBuffer.put(ints).position(5).limit(ints.size - 5)
+                if (viaArray) BufferSort.sortViaArray(intBuffer) else BufferSort.sort(intBuffer)
+                assert(intBuffer.position() == 5 && intBuffer.limit() == ints.size - 5)
+                ints.sort(5, ints.size - 5)
+                intBuffer.clear()
+                for (i in ints.indices) assert(intBuffer.get(i) == ints[i])
+            }
+            val longs3 = LongArray(100000) { Random.nextLong() }
+            val longBuffer = java.nio.ByteBuffer.allocateDirect(longs3.size * 8).order(order).asLongBuffer()
+            longBuffer.put(longs3).flip()
+            if (viaArray) BufferSort.sortViaArray(longBuffer) else BufferSort.sort(longBuffer)
+            longs3.sort()
+            for (i in longs3.indices) assert(longBuffer.get(i) == longs3[i])
+        }
+    }
+    val heapInts = IntArray(1000) { Random.nextInt() }
+    val heapBuffer = java.nio.IntBuffer.wrap(heapInts, 10, 900).slice()
+    val heapExpected = heapInts.copyOf().apply { sort(10, 910) }
+    BufferSort.sort(heapBuffer)
+    assert(heapInts.contentEquals(heapExpected))
+    assert(runCatching { BufferSort.sort(heapBuffer.asReadOnlyBuffer()) }.isFailure)
+
+    java.nio.file.Files.write(input, bytes(IntArray(100000) { Random.nextInt() }))
+    java.nio.channels.FileChannel.open(input, java.nio.file.StandardOpenOption.READ,
+            java.nio.file.StandardOpenOption.WRITE).use { channel ->
+        val mapped = channel.map(java.nio.channels.FileChannel.MapMode.READ_WRITE, 0, channel.size())
+        BufferSort.sort(mapped.asIntBuffer())
+    }
+    val mappedSorted = IntArray(100000)
+    java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(input)).asIntBuffer().get(mappedSorted)
+    assertOrder(mappedSorted)
+
+    java.nio.file.Files.delete(input)
+    java.nio.file.Files.delete(output)
+    assert(java.nio.file.Files.list(dir).count() == 0L)
+    java.nio.file.Files.delete(dir)
+}
+
+fun bytes (ints: IntArray): ByteArray {
+    val buffer = java.nio.ByteBuffer.allocate(ints.size * 4)
+    buffer.asIntBuffer().put(ints)
+    return buffer.array()
+}
@@ -0,0 +1,71 @@
+package structures;
+
+import com.tesladodger.dodgerlib.structures.ConcurrentHashTable;
+import com.tesladodger.dodgerlib.structures.HashTable;
+
+import java.util.Random;
+
+
+public class ConcurrentHashTableTest {
+
+    private static final int OPERATIONS = 2000000;
+
+    private static final int KEYS = 4000;
+
+    /**
+     * Runs the same mix of operations (one put for every three gets) on every thread.
+     *
+     * @param threads number of threads;
+     * @param operation applied to each random key, with a flag for writes;
+     *
+     * @return elapsed time in milliseconds;
+     */
+    private static long run (int threads, Operation operation) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                Random ran = new Random(seed);
+                for (int i = 0; i < OPERATIONS / threads; i++)
+                    operation.apply(ran.nextInt(KEYS), (i & 3) == 0);
+            });
+        }
+        long t = System.currentTimeMillis();
+        for (Thread w : workers) w.start();
+        for (Thread w : workers) w.join();
+        return System.currentTimeMillis() - t;
+    }
+
+    private interface Operation {
+        void apply (int key, boolean write);
+    }
+
+    public static void main (String[] args) throws InterruptedException {
+
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= cores; threads <<= 1) {
+
+            // -------------------------------------------------------------------- Global lock //
+            HashTable<Integer, Integer> table = new HashTable<>();
+            long t = run(threads, (key, write) -> {
+                synchronized (table) {
+                    if (write) table.put(key, key);
+                    else table.get(key);
+                }
+            });
+            System.out.printf("%d threads, HashTable with global lock: %d ms\n", threads, t);
+
+
+            // -------------------------------------------------------------------- Striped //
+            ConcurrentHashTable<Integer, Integer> concurrentTable = new ConcurrentHashTable<>();
+            t = run(threads, (key, write) -> {
+                if (write) concurrentTable.put(key, key);
+                else concurrentTable.get(key);
+            });
+            System.out.printf("%d threads, ConcurrentHashTable: %d ms\n", threads, t);
+        }
+
+    }
+
+}
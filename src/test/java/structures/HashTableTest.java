@@ -17,6 +17,23 @@ public class HashTableTest {
         System.out.println(System.nanoTime() - t);
 
 
+        // Worst put latency, rehashing at once versus incrementally.
+        HashTable<Integer, Integer> atOnce = new HashTable<>(11, .75f, false);
+        HashTable<Integer, Integer> incremental = new HashTable<>(11, .75f, true);
+        long worstAtOnce = 0, worstIncremental = 0;
+        for (int i = 0; i < 1000000; i++) {
+            t = System.nanoTime();
+            atOnce.put(i, i);
+            worstAtOnce = Math.max(worstAtOnce, System.nanoTime() - t);
+
+            t = System.nanoTime();
+            incremental.put(i, i);
+            worstIncremental = Math.max(worstIncremental, System.nanoTime() - t);
+        }
+        System.out.println("Worst put, resizing at once: " + worstAtOnce);
+        System.out.println("Worst put, resizing incrementally: " + worstIncremental);
+
+
         // Normal operation.
         HashTable<Integer, String> hashTable = new HashTable<>();
 
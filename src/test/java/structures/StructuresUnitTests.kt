@@ -184,6 +184,68 @@ fun binaryTreeUnitTest () {
     assert(tree.popMin() == 9)
 
     assert(tree.isEmpty)
+    assert(!tree.iterator().hasNext())
+
+    // Sorted insertions make a linked list, which the iterator walks without recursion.
+    for (i in 0 until 100000) tree.insert(i, i)
+    var expected = 0
+    for (i in tree) assert(i == expected++)
+    assert(expected == 100000)
+
+    tree.clear()
+    treeIteratorUnitTest(tree, { tree.insert(it, it) }, tree::size)
+
+    // Sorted keys are loaded balanced, so finding them all is fast.
+    val sorted = Array(1000000) { it * 2 }
+    val loaded = BinaryTree.fromSorted(sorted, sorted)
+    assert(loaded.size() == sorted.size && loaded.toList() == sorted.toList())
+    for (i in sorted) assert(loaded.find(i) == i)
+    assert(loaded.floor(7) == 6 && loaded.higher(7) == 8)
+    assert(BinaryTree.fromSorted(arrayOf<Int>(), arrayOf<Int>()).isEmpty)
+    assert(runCatching { BinaryTree.fromSorted(arrayOf(1, 1), arrayOf(1, 1)) }
+            .exceptionOrNull() is IllegalArgumentException)
+    assert(runCatching { BinaryTree.fromSorted(arrayOf(1, 2), arrayOf(1)) }
+            .exceptionOrNull() is IllegalArgumentException)
+}
+
+/**
+ * Removal through the iterator and fail-fast iteration, for a tree of ints mapped to themselves.
+ */
+fun treeIteratorUnitTest (tree: MutableIterable<Int>, insert: (Int) -> Unit, size: () -> Int) {
+    val keys = IntArray(50000) { Random.nextInt(1000000) }.distinct()
+    keys.forEach(insert)
+
+    // Remove the odd keys while iterating.
+    val iterator = tree.iterator()
+    var prev = -1
+    while (iterator.hasNext()) {
+        val i = iterator.next()
+        assert(i > prev)
+        prev = i
+        if (i % 2 == 1) iterator.remove()
+    }
+    val even = keys.filter { it % 2 == 0 }.sorted()
+    assert(tree.toList() == even && size() == even.size)
+
+    // Modifications other than through the iterator are detected.
+    val failing = tree.iterator()
+    failing.next()
+    insert(1)
+    assert(runCatching { failing.next() }.exceptionOrNull() is ConcurrentModificationException)
+    assert(runCatching { tree.iterator().remove() }.exceptionOrNull() is IllegalStateException)
+
+    // Replacing a value is not a structural modification.
+    val replacing = tree.iterator()
+    replacing.next()
+    insert(1)
+    replacing.next()
+
+    val all = tree.iterator()
+    while (all.hasNext()) {
+        all.next()
+        all.remove()
+    }
+    assert(size() == 0 && !tree.iterator().hasNext())
 }
 
 fun pairingHeapUnitTest () {
@@ -278,6 +340,239 @@ fun hashTableUnitTest () {
     assert(x == table.size())
 
     table.clear()
+
+    // Incremental resizing, past the list of primes.
+    val incremental = HashTable<Int, Int>(11, .75f, true)
+    val reference = java.util.HashMap<Int, Int>()
+    for (i in 0..100000) {
+        val k = Random.nextInt(30000)
+        when (Random.nextInt(4)) {
+            0 -> assert(incremental.remove(k) == reference.remove(k))
+            1 -> assert(incremental.get(k) == reference[k])
+            else -> {
+                incremental.put(k, i)
+                reference[k] = i
+            }
+        }
+    }
+    assert(incremental.size() == reference.size)
+    assert(incremental.keys().size() == reference.size)
+    for ((k, v) in reference)
+        assert(incremental.get(k) == v)
+
+    // In place iteration, which also works mid migration.
+    x = 0
+    for (entry in incremental) {
+        assert(reference[entry.key] == entry.value)
+        x++
+    }
+    assert(x == reference.size)
+
+    x = 0
+    incremental.forEach { k, v ->
+        assert(reference[k] == v)
+        x++
+    }
+    assert(x == reference.size)
+
+    val sum = java.util.stream.StreamSupport.stream(incremental.spliterator(), true)
+            .mapToLong { it.value.toLong() }.sum()
+    assert(sum == reference.values.map { it.toLong() }.sum())
+
+    // Each migration ends before the next resize, at low thresholds and past the list of primes,
+    // otherwise resize fails its assertion.
+    for (threshold in floatArrayOf(.1f, .3f, .5f, .75f, 2f)) {
+        val filled = HashTable<Int, Int>(11, threshold, true)
+        for (i in 0 until 50000) filled.put(i, i)
+        assert(filled.size() == 50000)
+        for (i in 0 until 50000) assert(filled.get(i) == i)
+    }
+
+    // Iterating right after a resize starts walks both arrays, without finishing the resize.
+    val resizing = HashTable<Int, Int>(11, .75f, true)
+    for (i in 0 until 9) resizing.put(i, i)
+    assert(resizing.map { it.key }.sorted() == (0 until 9).toList())
+    val seen = mutableListOf<Int>()
+    resizing.forEach { k, _ -> seen.add(k) }
+    assert(seen.sorted() == (0 until 9).toList())
+    assert(resizing.keys().size() == 9)
+    val resizingSum = java.util.stream.StreamSupport.stream(resizing.spliterator(), true)
+            .mapToInt { it.value }.sum()
+    assert(resizingSum == 36)
+    for (i in 0 until 9) assert(resizing.get(i) == i)
+}
+
+fun openHashTableUnitTest () {
+    val table = OpenHashTable<Int, Int>(4)
+    assert(table.isEmpty)
+
+    table.put(6, 6)
+    table.put(2, 2)
+    table.put(13, 13)
+    table.put(4, 4)
+
+    assert(table.size() == 4)
+    assert(table.get(2) == 2)
+    table.put(2, 69)
+    assert(table.get(2) == 69)
+    assert(table.size() == 4)
+    assert(table.get(1) == null)
+
+    assert(table.remove(2) == 69)
+    assert(table.size() == 3)
+    assert(table.remove(2) == null)
+    assert(!table.containsKey(2))
+
+    table.clear()
+    assert(table.isEmpty)
+
+    // Grows past the old 5003 limit of HashTable.
+    val reference = java.util.HashMap<Int, Int>()
+    for (i in 0..100000) {
+        val x = Random.nextInt(50000)
+        if (Random.nextInt(4) == 0) {
+            assert(table.remove(x) == reference.remove(x))
+        } else {
+            table.put(x, i)
+            reference[x] = i
+        }
+    }
+    assert(table.size() == reference.size)
+    for ((k, v) in reference)
+        assert(table.get(k) == v)
+
+    var x = 0
+    for (key in table.keys()) {
+        assert(table.get(key) == reference[key])
+        x++
+    }
+    assert(x == table.size())
+
+    x = 0
+    for (value in table.values()) {
+        assert(value != null)
+        x++
+    }
+    assert(x == table.size())
+
+    table.clear()
+}
+
+fun primitiveHashTableUnitTest () {
+    val intTable = IntIntHashTable()
+    assert(intTable.isEmpty)
+
+    intTable.put(0, 5)
+    intTable.put(-3, 7)
+    intTable.put(16, 9)
+    assert(intTable.size() == 3)
+    assert(intTable.get(0) == 5)
+    assert(intTable.get(-3) == 7)
+    assert(intTable.get(1) == 0)
+    assert(intTable.getOrDefault(1, -1) == -1)
+    assert(intTable.remove(0) == 5)
+    assert(!intTable.containsKey(0))
+    assert(intTable.size() == 2)
+
+    val reference = java.util.HashMap<Int, Int>()
+    for (key in intTable.keys())
+        reference[key] = intTable.get(key)
+    for (i in 0..100000) {
+        val x = Random.nextInt(-25000, 25000)
+        if (Random.nextInt(4) == 0) {
+            assert(intTable.remove(x) == (reference.remove(x) ?: 0))
+        } else {
+            intTable.put(x, i)
+            reference[x] = i
+        }
+    }
+    assert(intTable.size() == reference.size)
+    val keys = intTable.keys()
+    val values = intTable.values()
+    assert(keys.size == reference.size)
+    for (i in keys.indices)
+        assert(reference[keys[i]] == values[i])
+
+    val doubleTable = IntDoubleHashTable()
+    for (i in -500..500)
+        doubleTable.put(i, i / 2.0)
+    assert(doubleTable.size() == 1001)
+    for (i in -500..500)
+        assert(doubleTable.get(i) == i / 2.0)
+    assert(doubleTable.remove(0) == 0.0)
+    assert(doubleTable.getOrDefault(0, Double.NaN).isNaN())
+
+    val objectTable = LongObjectHashTable<String>()
+    for (i in 0L..1000L)
+        objectTable.put(i shl 32, i.toString())
+    assert(objectTable.size() == 1001)
+    for (i in 0L..1000L)
+        assert(objectTable.get(i shl 32) == i.toString())
+    assert(objectTable.get(1) == null)
+    assert(objectTable.remove(0) == "0")
+    val objectKeys = objectTable.keys()
+    val objectValues: LinkedList<String> = objectTable.values()
+    assert(objectValues.size() == 1000)
+    var j = 0
+    for (value in objectValues)
+        assert(value == (objectKeys[j++] shr 32).toString())
+
+    intTable.clear()
+    assert(intTable.isEmpty)
+}
+
+fun concurrentHashTableUnitTest () {
+    val table = ConcurrentHashTable<Int, Int>(4, .75f, 4)
+    assert(table.isEmpty)
+
+    assert(table.put(6, 6) == null)
+    assert(table.put(6, 7) == 6)
+    assert(table.putIfAbsent(6, 8) == 7)
+    assert(table.putIfAbsent(2, 2) == null)
+    assert(table.computeIfAbsent(3) { it * 10 } == 30)
+    assert(table.computeIfAbsent(3) { it * 20 } == 30)
+    assert(table.merge(3, 1) { a, b -> a + b } == 31)
+    assert(table.merge(4, 1) { a, b -> a + b } == 1)
+    assert(table.merge(4, 1) { _, _ -> null } == null)
+    assert(!table.containsKey(4))
+    assert(table.size() == 3)
+    assert(table.remove(2) == 2)
+    assert(table.remove(2) == null)
+    table.clear()
+    assert(table.isEmpty)
+
+    // Concurrent counters, every increment must be kept.
+    val threads = 8
+    val increments = 20000
+    val workers = List(threads) {
+        Thread {
+            for (i in 0 until increments)
+                table.merge(i % 1000, 1) { a, b -> a + b }
+        }
+    }
+    workers.forEach { it.start() }
+    workers.forEach { it.join() }
+    assert(table.size() == 1000)
+    for (i in 0 until 1000)
+        assert(table.get(i) == threads * increments / 1000)
+
+    // Concurrent inserts of disjoint keys, with resizing.
+    table.clear()
+    val inserters = List(threads) { t ->
+        Thread {
+            for (i in 0 until increments)
+                table.put(t * increments + i, i)
+        }
+    }
+    inserters.forEach { it.start() }
+    inserters.forEach { it.join() }
+    assert(table.size() == threads * increments)
+    for (t in 0 until threads)
+        for (i in 0 until increments)
+            assert(table.get(t * increments + i) == i)
+    assert(table.keys().size() == table.size())
+
+    table.clear()
 }
 
 fun dynamicArrayUnitTest () {
@@ -312,5 +607,208 @@ fun dynamicArrayUnitTest () {
 }
 
 fun redBlackTreeUnitTest () {
-    //todo
-}
\ No newline at end of file
+    val tree = RedBlackTree<Int, Int>()
+    assert(tree.isBalanced)
+
+    // Sorted and random insertions and removals keep the tree balanced.
+    for (i in 0 until 1000) tree.insert(i, i)
+    assert(tree.isBalanced)
+    for (i in 0 until 1000 step 3) tree.remove(i)
+    assert(tree.isBalanced && tree.size() == 666)
+    for (i in 0 until 1000) {
+        if (Random.nextBoolean()) tree.insert(Random.nextInt(2000), i)
+        else runCatching { tree.remove(Random.nextInt(2000)) }
+        assert(tree.isBalanced)
+    }
+
+    // Navigation and ranges, against a TreeMap.
+    tree.clear()
+    val map = java.util.TreeMap<Int, Int>()
+    assert(tree.floor(0) == null && !tree.rangeIterator(0, 10).hasNext())
+    for (i in 0 until 2000) {
+        val x = Random.nextInt(10000) * 2
+        tree.insert(x, x)
+        map[x] = x
+    }
+    for (i in 0 until 1000) {
+        val x = Random.nextInt(-10, 20010)
+        assert(tree.floor(x) == map.floorKey(x) && tree.ceiling(x) == map.ceilingKey(x))
+        assert(tree.lower(x) == map.lowerKey(x) && tree.higher(x) == map.higherKey(x))
+        val y = x + Random.nextInt(2000)
+        val range = map.subMap(x, y).values.toList()
+        assert(tree.rangeIterator(x, y).asSequence().toList() == range)
+        assert(tree.range(x, y).descending().toList() == range.reversed())
+        assert(tree.head(x).toList() == map.headMap(x).values.toList())
+        assert(tree.tail(x).descending().toList() == map.tailMap(x).values.reversed())
+    }
+    assert(tree.descendingIterator().asSequence().toList() == map.descendingMap().values.toList())
+    assert(tree.range(1, 1).toList().isEmpty())
+    assert(runCatching { tree.range(2, 1) }.exceptionOrNull() is IllegalArgumentException)
+
+    // Views are live, and removing through a descending iterator is fine.
+    val head = tree.head(10000)
+    tree.insert(1, 1)
+    assert(head.first() == tree.findMin() && head.contains(1))
+    val descending = head.descendingIterator()
+    while (descending.hasNext()) if (descending.next() % 4 == 0) descending.remove()
+    map.headMap(10000).keys.removeIf { it % 4 == 0 }
+    map[1] = 1
+    assert(tree.toList() == map.values.toList() && tree.isBalanced)
+
+    // Removing the last element of a range, whose successor is out of it, ends the iteration.
+    val seven = Array(7) { it + 1 }
+    val small = RedBlackTree.fromSorted(seven, seven)
+    assert(rangeRemovalUnitTest(small.rangeIterator(1, 5)) == listOf(1, 2, 3, 4))
+    assert(small.toList() == listOf(1, 2, 3, 5, 6, 7) && small.isBalanced)
+    val binary = BinaryTree.fromSorted(seven, seven)
+    assert(rangeRemovalUnitTest(binary.rangeIterator(1, 5)) == listOf(1, 2, 3, 4))
+    assert(binary.toList() == listOf(1, 2, 3, 5, 6, 7))
+
+    // Order statistics.
+    val keys = map.keys.toList()
+    for (k in keys.indices) assert(tree.select(k) == map[keys[k]] && tree.rank(keys[k]) == k)
+    for (i in 0 until 1000) {
+        val x = Random.nextInt(-10, 20010)
+        val y = x + Random.nextInt(2000)
+        assert(tree.rank(x) == map.headMap(x).size)
+        assert(tree.countRange(x, y) == map.subMap(x, y).size)
+    }
+    assert(runCatching { tree.select(tree.size()) }.exceptionOrNull() is IndexOutOfBoundsException)
+    assert(runCatching { tree.select(-1) }.exceptionOrNull() is IndexOutOfBoundsException)
+
+    tree.clear()
+    treeIteratorUnitTest(tree, { tree.insert(it, it) }, tree::size)
+    assert(tree.isBalanced)
+
+    // Bulk loads of every size are balanced.
+    for (n in 0..200) {
+        val sorted = Array(n) { it }
+        val loaded = RedBlackTree.fromSorted(sorted, sorted)
+        assert(loaded.isBalanced && loaded.size() == n && loaded.toList() == sorted.toList())
+        if (n > 0) assert(loaded.select(n / 2) == n / 2)
+    }
+    assert(runCatching { RedBlackTree.fromSorted(arrayOf(2, 1), arrayOf(2, 1)) }
+            .exceptionOrNull() is IllegalArgumentException)
+    val loaded = RedBlackTree.fromSorted(Array(100000) { it }, Array(100000) { it })
+    loaded.insert(-1, -1)
+    loaded.remove(50000)
+    assert(loaded.isBalanced && loaded.size() == 100000)
+
+    // Split and join at every kind of key, including absent ones and the ends.
+    for (i in 0 until 200) {
+        val n = Random.nextInt(500)
+        val keys = Array(n) { it * 2 }
+        val left = RedBlackTree.fromSorted(keys, keys)
+        val at = Random.nextInt(-2, n * 2 + 2)
+        val right = left.split(at)
+        assert(left.isBalanced && right.isBalanced)
+        assert(left.toList() == keys.filter { it < at } && right.toList() == keys.filter { it >= at })
+        left.join(right)
+        assert(left.isBalanced && right.isEmpty && left.toList() == keys.toList())
+    }
+    val low = RedBlackTree<Int, Int>()
+    val high = RedBlackTree<Int, Int>()
+    for (i in 0 until 10) low.insert(i, i)
+    for (i in 1000 until 5000) high.insert(i, i)
+    low.join(high)
+    assert(low.isBalanced && low.size() == 4010 && low.rank(1000) == 10)
+    high.insert(0, 0)
+    assert(runCatching { low.join(high) }.exceptionOrNull() is IllegalArgumentException)
+
+    // Union of trees of different sizes and overlaps, against a TreeMap.
+    for (i in 0 until 200) {
+        val a = RedBlackTree<Int, Int>()
+        val b = RedBlackTree<Int, Int>()
+        val merged = java.util.TreeMap<Int, Int>()
+        val range = Random.nextInt(1, 5000)
+        for (j in 0 until Random.nextInt(1000)) Random.nextInt(range).let { a.insert(it, it); merged[it] = it }
+        for (j in 0 until Random.nextInt(1000)) Random.nextInt(range).let { b.insert(it, -it); merged[it] = -it }
+        a.union(b)
+        assert(a.isBalanced && b.isEmpty && a.size() == merged.size)
+        assert(a.toList() == merged.values.toList())
+    }
+}
+
+fun bPlusTreeUnitTest () {
+    assert(runCatching { BPlusTree<Int, Int>(3) }.exceptionOrNull() is IllegalArgumentException)
+
+    // Random insertions and removals with the smallest fanout, which splits and merges the
+    // most, and the default one, against a TreeMap.
+    for (fanout in intArrayOf(4, 5, BPlusTree.DEFAULT_FANOUT)) {
+        val tree = BPlusTree<Int, Int>(fanout)
+        val map = java.util.TreeMap<Int, Int>()
+        assert(tree.isEmpty && tree.isValid && !tree.iterator().hasNext())
+        assert(runCatching { tree.find(1) }.exceptionOrNull() is NoSuchElementException)
+        for (i in 0 until 20000) {
+            val x = Random.nextInt(5000)
+            if (Random.nextInt(3) > 0) {
+                tree.insert(x, i)
+                map[x] = i
+            }
+            else if (map.containsKey(x))
+                assert(tree.remove(x) == map.remove(x))
+            else
+                assert(runCatching { tree.remove(x) }.exceptionOrNull() is NoSuchElementException)
+            if (i % 500 == 0) assert(tree.isValid)
+        }
+        assert(tree.isValid && tree.size() == map.size)
+        assert(tree.toList() == map.values.toList() && tree.traverse() == map.values.toList())
+        assert(tree.findMin() == map.firstEntry().value && tree.findMax() == map.lastEntry().value)
+        for (x in map.keys) assert(tree.find(x) == map[x] && tree.containsKey(x))
+        assert(!tree.containsKey(-1))
+
+        // Navigation and ranges.
+        for (i in 0 until 1000) {
+            val x = Random.nextInt(-10, 5010)
+            assert(tree.floor(x) == map.floorKey(x) && tree.ceiling(x) == map.ceilingKey(x))
+            assert(tree.lower(x) == map.lowerKey(x) && tree.higher(x) == map.higherKey(x))
+            val y = x + Random.nextInt(500)
+            val range = map.subMap(x, y).values.toList()
+            assert(tree.rangeIterator(x, y).asSequence().toList() == range)
+            assert(tree.range(x, y).descending().toList() == range.reversed())
+            assert(tree.head(x).toList() == map.headMap(x).values.toList())
+            assert(tree.tail(x).descending().toList() == map.tailMap(x).values.reversed())
+        }
+        assert(tree.descendingIterator().asSequence().toList() == map.values.reversed())
+        assert(runCatching { tree.range(2, 1) }.exceptionOrNull() is IllegalArgumentException)
+
+        // Removing through a descending iterator.
+        val descending = tree.descendingIterator()
+        while (descending.hasNext()) {
+            val v = descending.next()
+            if (v % 3 == 0) descending.remove()
+        }
+        map.values.removeIf { it % 3 == 0 }
+        assert(tree.isValid && tree.toList() == map.values.toList())
+
+        tree.clear()
+        treeIteratorUnitTest(tree, { tree.insert(it, it) }, tree::size)
+        assert(tree.isValid && tree.isEmpty)
+    }
+
+    // Sorted insertions and removals of a million keys.
+    val tree = BPlusTree<Int, Int>()
+    for (i in 0 until 1000000) tree.insert(i, i)
+    assert(tree.isValid && tree.size() == 1000000)
+    for (i in 0 until 1000000 step 2) tree.remove(i)
+    assert(tree.isValid && tree.size() == 500000 && tree.find(999999) == 999999)
+    var expected = 1
+    for (i in tree) {
+        assert(i == expected)
+        expected += 2
+    }
+}
+
+/**
+ * Iterates to the end, removing the last element.
+ *
+ * @return every element returned;
+ */
+fun rangeRemovalUnitTest (iterator: MutableIterator<Int>): List<Int> {
+    val seen = ArrayList<Int>()
+    while (iterator.hasNext()) {
+        seen.add(iterator.next())
+        if (!iterator.hasNext()) iterator.remove()
+    }
+    return seen
+}